@@ -0,0 +1,147 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers recent auth token lookups, so validating a token does not need
+ * a database round trip every time.
+ * <p>
+ * Entries expire after a fixed time to live. Once more than maxSize tokens
+ * are cached, the oldest are dropped first. Reads take no locks.
+ * <p>
+ * A lookup that raced with an invalidation must not put a deleted token
+ * back. Every invalidation bumps a generation counter; callers read it with
+ * {@link #generation()} before asking the database, and {@link #put} drops
+ * the entry if it changed in the meantime.
+ */
+public class AuthTokenCache {
+
+    /**
+     * A snapshot of the cache's counters
+     *
+     * @param hits      lookups answered from the cache
+     * @param misses    lookups that had to go to the database
+     * @param evictions entries dropped because the cache was full
+     * @param size      tokens cached right now
+     */
+    public record Metrics(long hits, long misses, long evictions, int size) {
+
+        /**
+         * @return the fraction of lookups answered from the cache, or 0 before the first lookup
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record Entry(AuthData auth, long expiresAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // entries oldest first, for eviction; may hold entries already removed from the map
+    private final ConcurrentLinkedQueue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxSize   the most tokens cached at once
+     * @param ttlMillis how long a lookup is remembered
+     */
+    public AuthTokenCache(int maxSize, long ttlMillis) {
+        if (maxSize < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("Invalid auth cache settings");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * @return the cached auth data, or null on a miss
+     */
+    public AuthData get(String authToken) {
+        Entry entry = entries.get(authToken);
+        if (entry != null && System.nanoTime() - entry.expiresAt() >= 0) {
+            entries.remove(authToken, entry);
+            entry = null;
+        }
+        (entry == null ? misses : hits).incrementAndGet();
+        return entry == null ? null : entry.auth();
+    }
+
+    /**
+     * @return the current generation, to pass to put after reading the database
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a lookup, unless the cache was invalidated since the lookup began
+     *
+     * @param auth       what the database returned
+     * @param generation what {@link #generation()} returned before the database was asked
+     */
+    public void put(AuthData auth, long generation) {
+        if (this.generation.get() != generation) {
+            return;
+        }
+        Entry entry = new Entry(auth, System.nanoTime() + ttlNanos);
+        entries.put(auth.authToken(), entry);
+        if (this.generation.get() != generation) {
+            // invalidated while we were putting; the invalidation may have missed our entry
+            entries.remove(auth.authToken(), entry);
+            return;
+        }
+        order.add(entry);
+        evict();
+    }
+
+    /**
+     * Forgets a token, for logout. Lookups already under way will not cache it.
+     */
+    public void invalidate(String authToken) {
+        generation.incrementAndGet();
+        entries.remove(authToken);
+    }
+
+    /**
+     * Forgets every token
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+        order.clear();
+    }
+
+    /**
+     * @return the cache's counters right now
+     */
+    public Metrics getMetrics() {
+        return new Metrics(hits.get(), misses.get(), evictions.get(), entries.size());
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        for (Entry oldest = order.peek(); oldest != null; oldest = order.peek()) {
+            boolean current = entries.get(oldest.auth().authToken()) == oldest;
+            boolean expired = now - oldest.expiresAt() >= 0;
+            if (current && !expired && entries.size() <= maxSize) {
+                return;
+            }
+            if (order.remove(oldest) && current && entries.remove(oldest.auth().authToken(), oldest) && !expired) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+}
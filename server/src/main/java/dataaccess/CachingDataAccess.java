@@ -0,0 +1,136 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.MoveData;
+import model.UserData;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Puts an {@link AuthTokenCache} in front of another DataAccess's auth
+ * table. Token validation is the most frequent query the server runs, so
+ * most of them are answered without a database round trip. Logout and
+ * clear invalidate the cache before they return. Everything else goes
+ * straight through.
+ */
+public class CachingDataAccess implements DataAccess {
+
+    private final DataAccess dataAccess;
+    private final AuthTokenCache authCache;
+
+    /**
+     * @param dataAccess where everything is stored
+     * @param authCache  the cache of token lookups
+     */
+    public CachingDataAccess(DataAccess dataAccess, AuthTokenCache authCache) {
+        this.dataAccess = dataAccess;
+        this.authCache = authCache;
+    }
+
+    /**
+     * @return the token cache's counters
+     */
+    public AuthTokenCache.Metrics getAuthCacheMetrics() {
+        return authCache.getMetrics();
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try {
+            dataAccess.clear();
+        } finally {
+            authCache.clear();
+        }
+    }
+
+    @Override
+    public boolean createUser(UserData user) throws DataAccessException {
+        return dataAccess.createUser(user);
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return dataAccess.getUser(username);
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        long generation = authCache.generation();
+        dataAccess.createAuth(auth);
+        // the client uses its new token right away
+        authCache.put(auth, generation);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        AuthData auth = authCache.get(authToken);
+        if (auth != null) {
+            return auth;
+        }
+        long generation = authCache.generation();
+        auth = dataAccess.getAuth(authToken);
+        if (auth != null) {
+            authCache.put(auth, generation);
+        }
+        return auth;
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        try {
+            dataAccess.deleteAuth(authToken);
+        } finally {
+            authCache.invalidate(authToken);
+        }
+    }
+
+    @Override
+    public int createGame(String gameName) throws DataAccessException {
+        return dataAccess.createGame(gameName);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return dataAccess.getGame(gameID);
+    }
+
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        return dataAccess.listGames();
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(int afterGameID, int limit) throws DataAccessException {
+        return dataAccess.listGameSummaries(afterGameID, limit);
+    }
+
+    @Override
+    public boolean joinGame(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        return dataAccess.joinGame(gameID, color, username);
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        dataAccess.updateGame(game);
+    }
+
+    @Override
+    public void updateGames(Collection<GameData> games) throws DataAccessException {
+        dataAccess.updateGames(games);
+    }
+
+    @Override
+    public void addMove(GameData game, ChessMove move) throws DataAccessException {
+        dataAccess.addMove(game, move);
+    }
+
+    @Override
+    public void addMoves(Collection<MoveData> moves) throws DataAccessException {
+        dataAccess.addMoves(moves);
+    }
+}
@@ -0,0 +1,418 @@
+package dataaccess;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pool of JDBC connections, so requests reuse open connections
+ * instead of paying for a new MySQL handshake every time.
+ * <p>
+ * At most maxSize connections exist at once. A caller that finds them all
+ * in use waits up to the connection timeout and then gets an
+ * SQLTransientConnectionException. Closing a borrowed connection gives it
+ * back: an open transaction is rolled back and auto-commit is switched back
+ * on. A connection that has sat idle for a while is checked with isValid
+ * before it is handed out again.
+ * <p>
+ * A housekeeping thread closes connections that have been idle longer than
+ * the idle timeout or open longer than the max lifetime, which keeps them
+ * ahead of MySQL's own wait_timeout, and logs the stack of any connection
+ * borrowed for longer than the leak detection threshold.
+ * <p>
+ * Each connection keeps a {@link StatementCache} of up to
+ * statementCacheSize prepared statements, so the DAOs' SQL is prepared once
+ * per connection rather than once per call. Closing a cached statement
+ * gives it back to the cache instead of closing it on the server.
+ * <p>
+ * Locks are ReentrantLocks rather than synchronized blocks so virtual
+ * threads waiting on the pool do not pin their carrier threads.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+    // connections idle for less than this are handed out without a validity check
+    private static final long VALIDATE_AFTER_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /**
+     * Opens new physical connections for the pool
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Pool settings
+     *
+     * @param maxSize             the most connections open at once
+     * @param connectionTimeout   how long getConnection waits for a free connection, in milliseconds
+     * @param idleTimeout         idle connections are closed after this many milliseconds
+     * @param maxLifetime         connections are closed once this many milliseconds old, when next idle
+     * @param leakDetectionMillis borrowed connections held longer than this are logged, or 0 to not check
+     * @param statementCacheSize  prepared statements kept open per connection, or 0 to not cache them
+     */
+    public record Settings(int maxSize, long connectionTimeout, long idleTimeout, long maxLifetime,
+                           long leakDetectionMillis, int statementCacheSize) {
+
+        public Settings {
+            if (maxSize < 1 || connectionTimeout < 0 || idleTimeout < 1 || maxLifetime < 1 || leakDetectionMillis < 0
+                    || statementCacheSize < 0) {
+                throw new IllegalArgumentException("Invalid pool settings");
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the pool's counters
+     *
+     * @param active          connections borrowed right now
+     * @param idle            open connections waiting to be borrowed
+     * @param waiting         callers waiting for a connection
+     * @param borrowed        getConnection calls that got a connection
+     * @param totalWaitMillis time spent waiting in getConnection, summed over all calls
+     * @param maxWaitMillis   the longest a getConnection call waited
+     * @param timeouts        getConnection calls that gave up
+     * @param created         physical connections opened
+     * @param closed          physical connections closed
+     * @param leaks           borrowed connections reported as possible leaks
+     * @param statementHits   prepared statements reused from a connection's statement cache
+     * @param statementMisses prepared statements that had to be prepared on the server
+     */
+    public record Metrics(int active, int idle, int waiting, long borrowed, long totalWaitMillis, long maxWaitMillis,
+                          long timeouts, long created, long closed, long leaks, long statementHits,
+                          long statementMisses) {
+
+        public static final Metrics EMPTY = new Metrics(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    // a physical connection and its bookkeeping
+    private static final class Pooled {
+        final Connection connection;
+        // null when statements are not cached
+        final StatementCache statements;
+        final long createdAt;
+        long lastReturnedAt;
+        // read by the housekeeping thread
+        volatile long borrowedAt;
+        volatile Throwable borrowedBy;
+        volatile boolean leakReported;
+
+        Pooled(Connection connection, StatementCache statements, long now) {
+            this.connection = connection;
+            this.statements = statements;
+            this.createdAt = now;
+            this.lastReturnedAt = now;
+        }
+    }
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    private final Semaphore permits;
+    private final ReentrantLock lock = new ReentrantLock();
+    // most recently returned last, so busy periods reuse a few warm connections and the rest idle out
+    private final Deque<Pooled> idle = new ArrayDeque<>();
+    private final Set<Pooled> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final AtomicLong waiting = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong closedCount = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    /**
+     * @param factory          opens physical connections
+     * @param settings         the pool settings
+     * @param housekeepingMillis how often idle, expired and leaked connections are looked for
+     */
+    public ConnectionPool(ConnectionFactory factory, Settings settings, long housekeepingMillis) {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, housekeepingMillis, housekeepingMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection. Close it to give it back, preferably with a
+     * try-with-resources block.
+     *
+     * @return a connection only the caller uses until it is closed
+     * @throws SQLException if none was free within the connection timeout or a new one could not be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(settings.connectionTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", ex);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLTransientConnectionException(
+                    "No connection free within " + settings.connectionTimeout() + " ms");
+        }
+
+        try {
+            Pooled pooled = takeIdle();
+            if (pooled == null) {
+                StatementCache statements = settings.statementCacheSize() == 0 ? null
+                        : new StatementCache(settings.statementCacheSize(), statementHits, statementMisses);
+                pooled = new Pooled(factory.open(), statements, System.currentTimeMillis());
+                created.incrementAndGet();
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowedBy = settings.leakDetectionMillis() > 0 ? new Throwable("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            borrowed.add(pooled);
+            borrowCount.incrementAndGet();
+            return wrap(pooled);
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the pool's counters right now
+     */
+    public Metrics getMetrics() {
+        int idleCount;
+        lock.lock();
+        try {
+            idleCount = idle.size();
+        } finally {
+            lock.unlock();
+        }
+        return new Metrics(borrowed.size(), idleCount, (int) waiting.get(), borrowCount.get(),
+                TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+                timeouts.get(), created.get(), closedCount.get(), leaks.get(), statementHits.get(),
+                statementMisses.get());
+    }
+
+    /**
+     * Closes the idle connections and stops housekeeping. Borrowed
+     * connections are closed when they are given back.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        lock.lock();
+        try {
+            while (!idle.isEmpty()) {
+                discard(idle.pollLast());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the most recently used idle connection that is still good, or null
+    private Pooled takeIdle() {
+        while (true) {
+            Pooled pooled;
+            lock.lock();
+            try {
+                pooled = idle.pollLast();
+            } finally {
+                lock.unlock();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            if (now - pooled.createdAt >= settings.maxLifetime() || !isUsable(pooled, now)) {
+                discard(pooled);
+                continue;
+            }
+            return pooled;
+        }
+    }
+
+    private boolean isUsable(Pooled pooled, long now) {
+        if (now - pooled.lastReturnedAt < VALIDATE_AFTER_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    // called when a borrowed connection is closed by its user
+    private void giveBack(Pooled pooled) {
+        borrowed.remove(pooled);
+        try {
+            boolean healthy = !pooled.connection.isClosed();
+            if (healthy && !pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            long now = System.currentTimeMillis();
+            if (!healthy || closed || now - pooled.createdAt >= settings.maxLifetime()) {
+                discard(pooled);
+                return;
+            }
+            pooled.lastReturnedAt = now;
+            pooled.borrowedBy = null;
+            if (pooled.statements != null) {
+                pooled.statements.releaseAll();
+            }
+            lock.lock();
+            try {
+                idle.addLast(pooled);
+            } finally {
+                lock.unlock();
+            }
+        } catch (SQLException ex) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(Pooled pooled) {
+        closedCount.incrementAndGet();
+        if (pooled.statements != null) {
+            pooled.statements.clear();
+        }
+        try {
+            pooled.connection.close();
+        } catch (SQLException ex) {
+            LOG.debug("Closing a pooled connection failed", ex);
+        }
+    }
+
+    // an exception escaping a scheduled task cancels it, so it is logged here instead
+    private void houseKeep() {
+        try {
+            dropExpiredAndReportLeaks();
+        } catch (RuntimeException ex) {
+            LOG.warn("Connection pool housekeeping failed, it will run again", ex);
+        }
+    }
+
+    private void dropExpiredAndReportLeaks() {
+        long now = System.currentTimeMillis();
+        List<Pooled> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            idle.removeIf(pooled -> {
+                boolean old = now - pooled.lastReturnedAt >= settings.idleTimeout()
+                        || now - pooled.createdAt >= settings.maxLifetime();
+                if (old) {
+                    expired.add(pooled);
+                }
+                return old;
+            });
+        } finally {
+            lock.unlock();
+        }
+        expired.forEach(this::discard);
+        if (settings.leakDetectionMillis() > 0) {
+            for (Pooled pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedAt >= settings.leakDetectionMillis()) {
+                    pooled.leakReported = true;
+                    leaks.incrementAndGet();
+                    LOG.warn("Connection held for {} ms, possible leak", now - pooled.borrowedAt, pooled.borrowedBy);
+                }
+            }
+        }
+    }
+
+    // a view of the connection whose close gives it back to the pool, and which cannot be used after that
+    private Connection wrap(Pooled pooled) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (!returned) {
+                            returned = true;
+                            giveBack(pooled);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return returned || pooled.connection.isClosed();
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "Pooled " + pooled.connection;
+                    }
+                    default -> {
+                        if (returned) {
+                            throw new SQLException("Connection has been given back to the pool");
+                        }
+                    }
+                }
+                if (pooled.statements != null && method.getName().equals("prepareStatement")
+                        && (method.getParameterCount() == 1
+                        || method.getParameterCount() == 2 && method.getParameterTypes()[1] == int.class)) {
+                    int keys = args.length == 1 ? Statement.NO_GENERATED_KEYS : (Integer) args[1];
+                    return pooled.statements.prepare(pooled.connection, (Connection) proxy, (String) args[0], keys);
+                }
+                try {
+                    return method.invoke(pooled.connection, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                handler);
+    }
+}
@@ -0,0 +1,115 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.MoveData;
+import model.UserData;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stores users, auth tokens and games. Implementations are shared by every
+ * request handler, so they must be safe to call from many threads at once.
+ */
+public interface DataAccess {
+
+    /**
+     * Deletes every user, auth token and game
+     */
+    void clear() throws DataAccessException;
+
+    /**
+     * @param user the user, with the password already hashed
+     * @return false, and nothing stored, if the username is taken
+     */
+    boolean createUser(UserData user) throws DataAccessException;
+
+    /**
+     * @return the user, or null if there is none with that name
+     */
+    UserData getUser(String username) throws DataAccessException;
+
+    void createAuth(AuthData auth) throws DataAccessException;
+
+    /**
+     * @return the auth data, or null if the token is unknown
+     */
+    AuthData getAuth(String authToken) throws DataAccessException;
+
+    void deleteAuth(String authToken) throws DataAccessException;
+
+    /**
+     * @param gameName the new game's name
+     * @return the new game's ID
+     */
+    int createGame(String gameName) throws DataAccessException;
+
+    /**
+     * @return the game, or null if there is none with that ID
+     */
+    GameData getGame(int gameID) throws DataAccessException;
+
+    Collection<GameData> listGames() throws DataAccessException;
+
+    /**
+     * Lists a page of games in ID order, without reading their boards. A page
+     * starts after a game ID instead of at an offset, so it costs the same
+     * however far into the list it is.
+     *
+     * @param afterGameID only games with a higher ID are listed; 0 for the first page
+     * @param limit       the most games listed
+     */
+    List<GameSummary> listGameSummaries(int afterGameID, int limit) throws DataAccessException;
+
+    /**
+     * Seats a player, atomically, so two players joining at once cannot both
+     * get the same color
+     *
+     * @return false, and nothing changed, if the color is taken or the game does not exist
+     */
+    boolean joinGame(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException;
+
+    /**
+     * Replaces the name and board of the game with the same ID. Its players
+     * are left as stored; only joinGame seats them, so a game read before a
+     * join and written back after it cannot undo the join.
+     */
+    void updateGame(GameData game) throws DataAccessException;
+
+    /**
+     * Replaces several games at once, all or none of them where the storage
+     * has transactions
+     */
+    default void updateGames(Collection<GameData> games) throws DataAccessException {
+        for (GameData game : games) {
+            updateGame(game);
+        }
+    }
+
+    /**
+     * Records a move. Storage that keeps a move log appends the move instead
+     * of rewriting the whole game, so the game must have been stored with
+     * updateGame since its board or turn was last set. Its name is left as
+     * stored, as are its players, as with updateGame.
+     *
+     * @param game the game after the move
+     * @param move the move
+     */
+    default void addMove(GameData game, ChessMove move) throws DataAccessException {
+        updateGame(game);
+    }
+
+    /**
+     * Records several moves at once, all or none of them where the storage
+     * has transactions
+     */
+    default void addMoves(Collection<MoveData> moves) throws DataAccessException {
+        for (MoveData move : moves) {
+            addMove(move.game(), move.move());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package dataaccess;
+
+import java.sql.*;
+import java.util.Properties;
+
+public class DatabaseManager {
+    private static String databaseName;
+    private static String dbUsername;
+    private static String dbPassword;
+    private static String connectionUrl;
+    private static ConnectionPool.Settings poolSettings;
+    // volatile so getConnection reads it without a lock, which would pin a virtual thread
+    private static volatile ConnectionPool pool;
+
+    // how often the pool looks for idle, expired and leaked connections
+    private static final long HOUSEKEEPING_MILLIS = 30_000;
+
+    /*
+     * Load the database information for the db.properties file.
+     */
+    static {
+        loadPropertiesFromResources();
+    }
+
+    /**
+     * Creates the database if it does not already exist.
+     */
+    static public void createDatabase() throws DataAccessException {
+        var statement = "CREATE DATABASE IF NOT EXISTS " + databaseName;
+        try (var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+             var preparedStatement = conn.prepareStatement(statement)) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to create database", ex);
+        }
+    }
+
+    /**
+     * Borrows a connection to the database from the connection pool, with the
+     * catalog set from db.properties. Connections should still be short-lived,
+     * and you must close the connection when you are done with it, which gives
+     * it back to the pool. The easiest way to do that is with a
+     * try-with-resource block.
+     * <br/>
+     * <code>
+     * try (var conn = DatabaseManager.getConnection()) {
+     * // execute SQL statements.
+     * }
+     * </code>
+     */
+    static Connection getConnection() throws DataAccessException {
+        try {
+            return getPool().getConnection();
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to get connection", ex);
+        }
+    }
+
+    /**
+     * @return the connection pool's counters, all zero before the first connection
+     */
+    public static ConnectionPool.Metrics getPoolMetrics() {
+        // read once, as closePool may clear the field at any time
+        ConnectionPool current = pool;
+        return current == null ? ConnectionPool.Metrics.EMPTY : current.getMetrics();
+    }
+
+    /**
+     * Closes the pool's idle connections, for shutting the server down
+     */
+    public static synchronized void closePool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    private static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        // only the first connection, and the first after closePool, takes the lock
+        synchronized (DatabaseManager.class) {
+            if (pool == null) {
+                pool = new ConnectionPool(DatabaseManager::openConnection, poolSettings, HOUSEKEEPING_MILLIS);
+            }
+            return pool;
+        }
+    }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+        conn.setCatalog(databaseName);
+        return conn;
+    }
+
+    private static void loadPropertiesFromResources() {
+        try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
+            if (propStream == null) {
+                throw new Exception("Unable to load db.properties");
+            }
+            Properties props = new Properties();
+            props.load(propStream);
+            loadProperties(props);
+        } catch (Exception ex) {
+            throw new RuntimeException("unable to process db.properties", ex);
+        }
+    }
+
+    private static synchronized void loadProperties(Properties props) {
+        // connections already in the pool point at the old database
+        closePool();
+        databaseName = props.getProperty("db.name");
+        dbUsername = props.getProperty("db.user");
+        dbPassword = props.getProperty("db.password");
+
+        var host = props.getProperty("db.host");
+        var port = Integer.parseInt(props.getProperty("db.port"));
+        // server-side prepared statements, so the pool's statement cache saves MySQL parsing and planning too
+        connectionUrl = String.format("jdbc:mysql://%s:%d?useServerPrepStmts=true", host, port);
+
+        poolSettings = new ConnectionPool.Settings(
+                Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                Long.parseLong(props.getProperty("db.pool.connectionTimeoutMillis", "5000")),
+                Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "600000")),
+                Long.parseLong(props.getProperty("db.pool.maxLifetimeMillis", "1800000")),
+                Long.parseLong(props.getProperty("db.pool.leakDetectionMillis", "0")),
+                Integer.parseInt(props.getProperty("db.pool.statementCacheSize", "32")));
+    }
+}
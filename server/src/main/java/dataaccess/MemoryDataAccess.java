@@ -0,0 +1,134 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps everything in memory, for tests and deployments that do not need
+ * to survive a restart.
+ * <p>
+ * Nothing is locked. Users and auth tokens live in ConcurrentHashMaps and
+ * games in a ConcurrentSkipListMap, which keeps them in ID order for
+ * listing a page at a time; a username is claimed with putIfAbsent and a seat
+ * with computeIfPresent, so concurrent registrations and joins cannot both
+ * win, and game IDs come from an AtomicInteger. updateGame keeps the
+ * stored seats, inside the same compute as the replacement, so a move
+ * played on a copy read before a join cannot clear the seat.
+ * <p>
+ * Like rows in a database, stored games are not shared with callers: a
+ * game is copied when it is stored and when it is read, so a handler
+ * playing a move on the game it got does not change the stored game, or
+ * race with other handlers, until it calls updateGame.
+ */
+public class MemoryDataAccess implements DataAccess {
+
+    private final ConcurrentHashMap<String, UserData> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AuthData> auths = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, GameData> games = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextGameID = new AtomicInteger(1);
+
+    @Override
+    public void clear() {
+        users.clear();
+        auths.clear();
+        games.clear();
+    }
+
+    @Override
+    public boolean createUser(UserData user) {
+        return users.putIfAbsent(user.username(), user) == null;
+    }
+
+    @Override
+    public UserData getUser(String username) {
+        return users.get(username);
+    }
+
+    @Override
+    public void createAuth(AuthData auth) {
+        auths.put(auth.authToken(), auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) {
+        return auths.get(authToken);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) {
+        auths.remove(authToken);
+    }
+
+    @Override
+    public int createGame(String gameName) {
+        int gameID = nextGameID.getAndIncrement();
+        games.put(gameID, new GameData(gameID, null, null, gameName, new ChessGame()));
+        return gameID;
+    }
+
+    @Override
+    public GameData getGame(int gameID) {
+        return copy(games.get(gameID));
+    }
+
+    @Override
+    public Collection<GameData> listGames() {
+        List<GameData> list = new ArrayList<>(games.size());
+        for (GameData game : games.values()) {
+            list.add(copy(game));
+        }
+        return list;
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(int afterGameID, int limit) {
+        List<GameSummary> page = new ArrayList<>(Math.min(limit, 64));
+        for (GameData game : games.tailMap(afterGameID, false).values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(new GameSummary(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName()));
+        }
+        return page;
+    }
+
+    @Override
+    public boolean joinGame(int gameID, ChessGame.TeamColor color, String username) {
+        boolean[] joined = new boolean[1];
+        games.computeIfPresent(gameID, (id, game) -> {
+            boolean white = color == ChessGame.TeamColor.WHITE;
+            if ((white ? game.whiteUsername() : game.blackUsername()) != null) {
+                return game;
+            }
+            joined[0] = true;
+            return new GameData(id, white ? username : game.whiteUsername(), white ? game.blackUsername() : username,
+                    game.gameName(), game.game());
+        });
+        return joined[0];
+    }
+
+    @Override
+    public void updateGame(GameData game) {
+        ChessGame board = new ChessGame(game.game());
+        games.computeIfPresent(game.gameID(), (id, stored) ->
+                new GameData(id, stored.whiteUsername(), stored.blackUsername(), game.gameName(), board));
+    }
+
+    private static GameData copy(GameData game) {
+        if (game == null) {
+            return null;
+        }
+        return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(),
+                new ChessGame(game.game()));
+    }
+}
@@ -0,0 +1,459 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.MoveData;
+import model.UserData;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stores everything in MySQL, through {@link DatabaseManager}'s connection
+ * pool.
+ * <p>
+ * A game is stored as a JSON snapshot plus a log of the moves made since,
+ * one small row per move. {@link #addMove} appends to the log and only
+ * rewrites the snapshot every snapshotInterval plies, so most moves write a
+ * few bytes instead of the whole board. Loading a game reads its snapshot
+ * and the moves after it in one query and replays them. The log is kept
+ * after a snapshot, so the moves of a game can be read back in order. A
+ * snapshot keeps only the positions since the last capture or pawn move,
+ * which is all a repetition can reach, so it does not grow with the game.
+ * updateGame writes a new snapshot and drops any logged moves past it.
+ * Pages of game summaries read neither, only a range of the primary key.
+ * <p>
+ * Every method uses the same few SQL strings, which the pool's statement
+ * cache keeps prepared on each connection.
+ */
+public class MySqlDataAccess implements DataAccess {
+
+    // plies between snapshots of a game
+    static final int SNAPSHOT_INTERVAL = 32;
+    private static final Gson GSON = new Gson();
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+    private static final String UPDATE_GAME =
+            "UPDATE game SET gameName = ?, game = ?, snapshotPly = ? WHERE gameID = ?";
+    private static final String DELETE_LATER_MOVES = "DELETE FROM game_moves WHERE gameID = ? AND ply > ?";
+    private static final String INSERT_MOVE = "INSERT INTO game_moves (gameID, ply, move) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE move = VALUES(move)";
+    // never replaces a later snapshot, whichever order two writes land in
+    private static final String UPDATE_SNAPSHOT =
+            "UPDATE game SET game = ?, snapshotPly = ? WHERE gameID = ? AND snapshotPly < ?";
+    // each game's snapshot, once per move made since it, or once with a null move if there are none
+    private static final String SELECT_GAMES = """
+            SELECT g.gameID, g.whiteUsername, g.blackUsername, g.gameName, g.game, m.move
+            FROM game g LEFT JOIN game_moves m ON m.gameID = g.gameID AND m.ply > g.snapshotPly
+            """;
+
+    private static final String[] CREATE_TABLES = {
+            """
+            CREATE TABLE IF NOT EXISTS user (
+              username VARCHAR(255) NOT NULL,
+              password VARCHAR(255) NOT NULL,
+              email VARCHAR(255) NOT NULL,
+              PRIMARY KEY (username)
+            )""",
+            """
+            CREATE TABLE IF NOT EXISTS auth (
+              authToken VARCHAR(255) NOT NULL,
+              username VARCHAR(255) NOT NULL,
+              PRIMARY KEY (authToken),
+              INDEX (username)
+            )""",
+            """
+            CREATE TABLE IF NOT EXISTS game (
+              gameID INT NOT NULL AUTO_INCREMENT,
+              whiteUsername VARCHAR(255),
+              blackUsername VARCHAR(255),
+              gameName VARCHAR(255) NOT NULL,
+              game LONGTEXT NOT NULL,
+              snapshotPly INT NOT NULL DEFAULT 0,
+              PRIMARY KEY (gameID)
+            )""",
+            """
+            CREATE TABLE IF NOT EXISTS game_moves (
+              gameID INT NOT NULL,
+              ply INT NOT NULL,
+              move SMALLINT NOT NULL,
+              PRIMARY KEY (gameID, ply)
+            )"""
+    };
+
+    /**
+     * Where connections come from
+     */
+    @FunctionalInterface
+    interface ConnectionSource {
+        Connection get() throws DataAccessException;
+    }
+
+    @FunctionalInterface
+    private interface Transaction {
+        void run(Connection conn) throws SQLException;
+    }
+
+    private final ConnectionSource connections;
+    private final int snapshotInterval;
+
+    /**
+     * Creates the database and tables if they do not exist yet
+     */
+    public MySqlDataAccess() throws DataAccessException {
+        DatabaseManager.createDatabase();
+        this.connections = DatabaseManager::getConnection;
+        this.snapshotInterval = SNAPSHOT_INTERVAL;
+        createTables();
+    }
+
+    /**
+     * @param connections where to get connections, for benchmarks and tests
+     */
+    MySqlDataAccess(ConnectionSource connections) throws DataAccessException {
+        this(connections, SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * @param connections      where to get connections, for benchmarks and tests
+     * @param snapshotInterval plies between snapshots of a game
+     */
+    MySqlDataAccess(ConnectionSource connections, int snapshotInterval) throws DataAccessException {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Invalid snapshot interval: " + snapshotInterval);
+        }
+        this.connections = connections;
+        this.snapshotInterval = snapshotInterval;
+        createTables();
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try (Connection conn = connections.get(); Statement statement = conn.createStatement()) {
+            for (String table : new String[]{"auth", "game_moves", "game", "user"}) {
+                statement.executeUpdate("TRUNCATE " + table);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to clear the database", ex);
+        }
+    }
+
+    @Override
+    public boolean createUser(UserData user) throws DataAccessException {
+        try (Connection conn = connections.get();
+             PreparedStatement statement = conn.prepareStatement(
+                     "INSERT INTO user (username, password, email) VALUES (?, ?, ?)")) {
+            statement.setString(1, user.username());
+            statement.setString(2, user.password());
+            statement.setString(3, user.email());
+            statement.executeUpdate();
+            return true;
+        } catch (SQLIntegrityConstraintViolationException ex) {
+            return false;
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to create user", ex);
+        }
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        try (Connection conn = connections.get();
+             PreparedStatement statement = conn.prepareStatement(
+                     "SELECT username, password, email FROM user WHERE username = ?")) {
+            statement.setString(1, username);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? new UserData(rs.getString("username"), rs.getString("password"),
+                        rs.getString("email")) : null;
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to get user", ex);
+        }
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        update("failed to create auth", "INSERT INTO auth (authToken, username) VALUES (?, ?)",
+                auth.authToken(), auth.username());
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        try (Connection conn = connections.get();
+             PreparedStatement statement = conn.prepareStatement(
+                     "SELECT authToken, username FROM auth WHERE authToken = ?")) {
+            statement.setString(1, authToken);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? new AuthData(rs.getString("authToken"), rs.getString("username")) : null;
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to get auth", ex);
+        }
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        update("failed to delete auth", "DELETE FROM auth WHERE authToken = ?", authToken);
+    }
+
+    @Override
+    public int createGame(String gameName) throws DataAccessException {
+        try (Connection conn = connections.get();
+             PreparedStatement statement = conn.prepareStatement(
+                     "INSERT INTO game (gameName, game) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, gameName);
+            statement.setString(2, GSON.toJson(new ChessGame()));
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new DataAccessException("failed to create game: no ID was generated");
+                }
+                return keys.getInt(1);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to create game", ex);
+        }
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        try (Connection conn = connections.get();
+             PreparedStatement statement = conn.prepareStatement(SELECT_GAMES + "WHERE g.gameID = ? ORDER BY m.ply")) {
+            statement.setInt(1, gameID);
+            try (ResultSet rs = statement.executeQuery()) {
+                List<GameData> games = readGames(rs);
+                return games.isEmpty() ? null : games.get(0);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to get game", ex);
+        }
+    }
+
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        try (Connection conn = connections.get();
+             PreparedStatement statement = conn.prepareStatement(SELECT_GAMES + "ORDER BY g.gameID, m.ply");
+             ResultSet rs = statement.executeQuery()) {
+            return readGames(rs);
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to list games", ex);
+        }
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(int afterGameID, int limit) throws DataAccessException {
+        try (Connection conn = connections.get();
+             PreparedStatement statement = conn.prepareStatement("SELECT gameID, whiteUsername, blackUsername, "
+                     + "gameName FROM game WHERE gameID > ? ORDER BY gameID LIMIT ?")) {
+            statement.setInt(1, afterGameID);
+            statement.setInt(2, limit);
+            try (ResultSet rs = statement.executeQuery()) {
+                List<GameSummary> page = new ArrayList<>();
+                while (rs.next()) {
+                    page.add(new GameSummary(rs.getInt("gameID"), rs.getString("whiteUsername"),
+                            rs.getString("blackUsername"), rs.getString("gameName")));
+                }
+                return page;
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to list games", ex);
+        }
+    }
+
+    @Override
+    public boolean joinGame(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        String sql = color == ChessGame.TeamColor.WHITE
+                ? "UPDATE game SET whiteUsername = ? WHERE gameID = ? AND whiteUsername IS NULL"
+                : "UPDATE game SET blackUsername = ? WHERE gameID = ? AND blackUsername IS NULL";
+        try (Connection conn = connections.get(); PreparedStatement statement = conn.prepareStatement(sql)) {
+            statement.setString(1, username);
+            statement.setInt(2, gameID);
+            return statement.executeUpdate() == 1;
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to join game", ex);
+        }
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        updateGames(List.of(game));
+    }
+
+    /**
+     * Writes every game in one JDBC batch and one transaction, so a batch
+     * costs one commit instead of one per game
+     */
+    @Override
+    public void updateGames(Collection<GameData> games) throws DataAccessException {
+        inTransaction("failed to update games", conn -> {
+            try (PreparedStatement update = conn.prepareStatement(UPDATE_GAME);
+                 PreparedStatement delete = conn.prepareStatement(DELETE_LATER_MOVES)) {
+                for (GameData game : games) {
+                    int ply = game.game().getPlyCount();
+                    update.setString(1, game.gameName());
+                    update.setString(2, snapshot(game.game()));
+                    update.setInt(3, ply);
+                    update.setInt(4, game.gameID());
+                    update.addBatch();
+                    delete.setInt(1, game.gameID());
+                    delete.setInt(2, ply);
+                    delete.addBatch();
+                }
+                update.executeBatch();
+                delete.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Appends the move to the game's log, in one INSERT unless the move is
+     * due a snapshot
+     */
+    @Override
+    public void addMove(GameData game, ChessMove move) throws DataAccessException {
+        int ply = game.game().getPlyCount();
+        if (ply % snapshotInterval != 0) {
+            update("failed to add move", INSERT_MOVE, game.gameID(), ply, packMove(move));
+        } else {
+            addMoves(List.of(new MoveData(game, move)));
+        }
+    }
+
+    /**
+     * Appends every move in one JDBC batch and one transaction, with the
+     * snapshots of the moves that are due one
+     */
+    @Override
+    public void addMoves(Collection<MoveData> moves) throws DataAccessException {
+        inTransaction("failed to add moves", conn -> {
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_MOVE);
+                 PreparedStatement snapshot = conn.prepareStatement(UPDATE_SNAPSHOT)) {
+                boolean snapshots = false;
+                for (MoveData move : moves) {
+                    int gameID = move.game().gameID();
+                    int ply = move.game().game().getPlyCount();
+                    insert.setInt(1, gameID);
+                    insert.setInt(2, ply);
+                    insert.setInt(3, packMove(move.move()));
+                    insert.addBatch();
+                    if (ply % snapshotInterval == 0) {
+                        snapshot.setString(1, snapshot(move.game().game()));
+                        snapshot.setInt(2, ply);
+                        snapshot.setInt(3, gameID);
+                        snapshot.setInt(4, ply);
+                        snapshot.addBatch();
+                        snapshots = true;
+                    }
+                }
+                insert.executeBatch();
+                if (snapshots) {
+                    snapshot.executeBatch();
+                }
+            }
+        });
+    }
+
+    /**
+     * @param move a move
+     * @return the move in 15 bits: its start square, end square and promotion piece in 6, 6 and 3 bits
+     */
+    static int packMove(ChessMove move) {
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        return square(move.getStartPosition()) | square(move.getEndPosition()) << 6
+                | (promotion == null ? 0 : promotion.ordinal() + 1) << 12;
+    }
+
+    /**
+     * @param packed a move from {@link #packMove}
+     * @return the move
+     */
+    static ChessMove unpackMove(int packed) {
+        int promotion = packed >>> 12;
+        return new ChessMove(position(packed & 63), position(packed >>> 6 & 63),
+                promotion == 0 ? null : PIECE_TYPES[promotion - 1]);
+    }
+
+    private static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
+
+    private static ChessPosition position(int square) {
+        return new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+
+    // repetitions never look back past the last capture or pawn move, so older positions are left out
+    private static String snapshot(ChessGame game) {
+        ChessGame trimmed = new ChessGame(game);
+        trimmed.trimHistory();
+        return GSON.toJson(trimmed);
+    }
+
+    // reads SELECT_GAMES rows, replaying each game's moves onto its snapshot
+    private static List<GameData> readGames(ResultSet rs) throws SQLException {
+        List<GameData> games = new ArrayList<>();
+        GameData game = null;
+        while (rs.next()) {
+            int gameID = rs.getInt("gameID");
+            if (game == null || game.gameID() != gameID) {
+                game = new GameData(gameID, rs.getString("whiteUsername"), rs.getString("blackUsername"),
+                        rs.getString("gameName"), GSON.fromJson(rs.getString("game"), ChessGame.class));
+                games.add(game);
+            }
+            Object move = rs.getObject("move");
+            if (move != null) {
+                game.game().makeLegalMove(unpackMove(((Number) move).intValue()));
+            }
+        }
+        return games;
+    }
+
+    private void inTransaction(String failure, Transaction work) throws DataAccessException {
+        try (Connection conn = connections.get()) {
+            conn.setAutoCommit(false);
+            try {
+                work.run(conn);
+                conn.commit();
+            } catch (SQLException | RuntimeException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException(failure, ex);
+        }
+    }
+
+    private void update(String failure, String sql, Object... params) throws DataAccessException {
+        try (Connection conn = connections.get(); PreparedStatement statement = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            statement.executeUpdate();
+        } catch (SQLException ex) {
+            throw new DataAccessException(failure, ex);
+        }
+    }
+
+    private void createTables() throws DataAccessException {
+        // plain statements, so the one-off DDL does not take up room in the statement cache
+        try (Connection conn = connections.get(); Statement statement = conn.createStatement()) {
+            for (String sql : CREATE_TABLES) {
+                statement.executeUpdate(sql);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to create tables", ex);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The prepared statements of one pooled connection, kept open between
+ * borrows so the DAOs' handful of SQL strings are prepared on the server
+ * once per connection instead of once per call.
+ * <p>
+ * Closing a statement handed out by {@link #prepare} clears its parameters
+ * and leaves it open for the next caller with the same SQL. A statement is
+ * only handed to one caller at a time; preparing SQL whose statement is
+ * still in use prepares an uncached one. Once more than maxSize statements
+ * are cached, the least recently used one that is not in use is closed.
+ * <p>
+ * Only the connection's current borrower uses the cache, so it needs no
+ * locking.
+ */
+final class StatementCache {
+
+    private static final class Entry {
+        final PreparedStatement statement;
+        boolean inUse;
+        // bumped when the statement is given back, so stale handles stop working
+        int lease;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    // least recently used first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxSize the most statements kept open
+     * @param hits    counts statements found in the cache
+     * @param misses  counts statements that had to be prepared
+     */
+    StatementCache(int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * @param connection        the connection the statement belongs to, which prepares misses
+     * @param owner             what the statement's getConnection returns
+     * @param sql               the statement's SQL
+     * @param autoGeneratedKeys a Statement constant, as for Connection.prepareStatement(String, int)
+     * @return a statement only the caller uses until it is closed
+     */
+    PreparedStatement prepare(Connection connection, Connection owner, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        String key = autoGeneratedKeys + sql;
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.inUse) {
+            hits.incrementAndGet();
+            entry.inUse = true;
+            return handle(entry, owner);
+        }
+        misses.incrementAndGet();
+        PreparedStatement statement = connection.prepareStatement(sql, autoGeneratedKeys);
+        if (entry != null) {
+            return statement;
+        }
+        entry = new Entry(statement);
+        entry.inUse = true;
+        entries.put(key, entry);
+        evict();
+        return handle(entry, owner);
+    }
+
+    /**
+     * @return how many statements are open
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Takes back every statement, for when the connection is given back to
+     * the pool
+     */
+    void releaseAll() {
+        for (Entry entry : entries.values()) {
+            if (entry.inUse) {
+                entry.inUse = false;
+                entry.lease++;
+            }
+        }
+    }
+
+    /**
+     * Forgets every statement, for when the connection is closed, which
+     * closes them
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (!eldest.inUse) {
+                iterator.remove();
+                try {
+                    eldest.statement.close();
+                } catch (SQLException ignored) {
+                    // the statement is gone either way
+                }
+            }
+        }
+    }
+
+    // a view of the statement whose close gives it back to the cache
+    private PreparedStatement handle(Entry entry, Connection owner) {
+        int lease = entry.lease;
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    boolean current = entry.lease == lease;
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (current) {
+                                entry.lease++;
+                                entry.inUse = false;
+                                entry.statement.clearParameters();
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return !current || entry.statement.isClosed();
+                        }
+                        case "getConnection" -> {
+                            return owner;
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "toString" -> {
+                            return "Cached " + entry.statement;
+                        }
+                        default -> {
+                            if (!current) {
+                                throw new SQLException("Statement is closed");
+                            }
+                        }
+                    }
+                    try {
+                        return method.invoke(entry.statement, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+    }
+}
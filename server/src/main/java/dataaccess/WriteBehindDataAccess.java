@@ -0,0 +1,390 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.MoveData;
+import model.UserData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps games in memory and writes their changes to another DataAccess
+ * behind the callers' backs, so a move does not wait for a database write
+ * before it is broadcast.
+ * <p>
+ * updateGame only records the new game. Moves in the same game between two
+ * flushes become one write of the latest version, and a flush writes every
+ * changed game with one {@link DataAccess#updateGames} call, which the MySQL
+ * DAO runs as one batched transaction. Flushes run every flushMillis, or
+ * sooner once batchSize games have changed, so at most flushMillis of moves
+ * can be lost in a crash. A failed flush keeps its games and tries again
+ * next time.
+ * <p>
+ * addMove records the new game the same way and queues the move, and a
+ * flush appends every queued move with one {@link DataAccess#addMoves} call
+ * after writing the changed games, so the MySQL DAO's move log stays as
+ * small as the moves themselves.
+ * <p>
+ * A game that has ended, by checkmate, stalemate or a draw rule, is written
+ * before updateGame or addMove returns, as is everything on {@link #flush()} and
+ * {@link #close()}. listGames writes the pending changes first, so it never
+ * sees an older version; listGameSummaries does not, as it needs no boards. The games handed out are copies, as with the other
+ * DAOs.
+ * <p>
+ * As in the other DAOs, only joinGame seats players. It seats them in the
+ * database and then in the cached game, and updateGame and addMove keep the
+ * cached seats, both inside the same compute on the game's entry. A game
+ * read before a join and written back after it does not empty the seat.
+ * Loading a game and joining it hold the same lock for that game, so a load
+ * racing a join cannot cache the seats from before it.
+ * <p>
+ * Each flush drops the games nobody has read or written since the flush
+ * before and that have nothing left to write, so the cache holds only the
+ * games being played. Use {@link #start} to make one.
+ */
+public class WriteBehindDataAccess implements DataAccess, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindDataAccess.class);
+
+    private final DataAccess dataAccess;
+    private final int batchSize;
+    // the newest version of every game read or written since it was last loaded
+    private final Map<Integer, GameData> games = new ConcurrentHashMap<>();
+    // games changed since the last flush, by ID
+    private final Map<Integer, GameData> dirty = new ConcurrentHashMap<>();
+    // moves not yet appended, oldest first
+    private final LinkedBlockingQueue<MoveData> moves = new LinkedBlockingQueue<>();
+    // the newest game with a move still queued, by ID
+    private final Map<Integer, GameData> appending = new ConcurrentHashMap<>();
+    // games read or written since the last flush
+    private final Set<Integer> touched = ConcurrentHashMap.newKeySet();
+    // striped by game ID; a load and a join of the same game hold the same lock
+    private final ReentrantLock[] loadLocks = new ReentrantLock[64];
+    // one flush at a time, so an older version is never written after a newer one
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+
+    private WriteBehindDataAccess(DataAccess dataAccess, int batchSize) {
+        this.dataAccess = dataAccess;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < loadLocks.length; i++) {
+            loadLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Makes a write-behind DAO and starts flushing it in the background
+     *
+     * @param dataAccess where games are written
+     * @param flushMillis the longest a change waits to be written
+     * @param batchSize  how many changed games start a flush early
+     */
+    public static WriteBehindDataAccess start(DataAccess dataAccess, long flushMillis, int batchSize) {
+        if (flushMillis < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Invalid write-behind settings");
+        }
+        WriteBehindDataAccess writeBehind = new WriteBehindDataAccess(dataAccess, batchSize);
+        writeBehind.flusher.scheduleWithFixedDelay(writeBehind::flushQuietly, flushMillis, flushMillis,
+                TimeUnit.MILLISECONDS);
+        return writeBehind;
+    }
+
+    /**
+     * @return how many changed games and moves are waiting to be written
+     */
+    public int getPendingWrites() {
+        return dirty.size() + moves.size();
+    }
+
+    /**
+     * @return how many games are held in memory
+     */
+    public int getCachedGames() {
+        return games.size();
+    }
+
+    /**
+     * Writes every changed game and move now, then drops the games left idle
+     */
+    public void flush() throws DataAccessException {
+        flushLock.lock();
+        try {
+            List<GameData> batch = new ArrayList<>(dirty.size());
+            for (Map.Entry<Integer, GameData> entry : dirty.entrySet()) {
+                // a version changed again after this point stays for the next flush
+                if (dirty.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(entry.getValue());
+                }
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    dataAccess.updateGames(batch);
+                } catch (DataAccessException | RuntimeException ex) {
+                    for (GameData game : batch) {
+                        dirty.putIfAbsent(game.gameID(), game);
+                    }
+                    throw ex;
+                }
+            }
+            List<MoveData> appended = new ArrayList<>(moves.size());
+            moves.drainTo(appended);
+            if (!appended.isEmpty()) {
+                try {
+                    dataAccess.addMoves(appended);
+                } catch (DataAccessException | RuntimeException ex) {
+                    // moves are stored by ply, so retrying them after newer ones changes nothing
+                    moves.addAll(appended);
+                    throw ex;
+                }
+                for (MoveData move : appended) {
+                    appending.remove(move.game().gameID(), move.game());
+                }
+            }
+            evictIdle();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stops flushing in the background and writes every changed game
+     */
+    @Override
+    public void close() throws DataAccessException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        flushLock.lock();
+        try {
+            dirty.clear();
+            moves.clear();
+            appending.clear();
+            games.clear();
+            touched.clear();
+            dataAccess.clear();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean createUser(UserData user) throws DataAccessException {
+        return dataAccess.createUser(user);
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return dataAccess.getUser(username);
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        dataAccess.createAuth(auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        return dataAccess.getAuth(authToken);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        dataAccess.deleteAuth(authToken);
+    }
+
+    @Override
+    public int createGame(String gameName) throws DataAccessException {
+        return dataAccess.createGame(gameName);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        GameData game = load(gameID);
+        return game == null ? null : copy(game);
+    }
+
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        flush();
+        return dataAccess.listGames();
+    }
+
+    /**
+     * Lists a page from the database without flushing. Queued moves do not
+     * change a summary, and joins are written straight through, so only a
+     * renamed game can be newer in memory. Its name is taken from the cache.
+     */
+    @Override
+    public List<GameSummary> listGameSummaries(int afterGameID, int limit) throws DataAccessException {
+        List<GameSummary> page = new ArrayList<>(dataAccess.listGameSummaries(afterGameID, limit));
+        for (int i = 0; i < page.size(); i++) {
+            GameSummary summary = page.get(i);
+            GameData cached = games.get(summary.gameID());
+            if (cached != null && !cached.gameName().equals(summary.gameName())) {
+                page.set(i, new GameSummary(summary.gameID(), summary.whiteUsername(), summary.blackUsername(),
+                        cached.gameName()));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public boolean joinGame(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        ReentrantLock lock = loadLock(gameID);
+        lock.lock();
+        try {
+            // pending writes leave players as stored, so they need not be flushed first
+            if (!dataAccess.joinGame(gameID, color, username)) {
+                return false;
+            }
+            boolean white = color == ChessGame.TeamColor.WHITE;
+            games.computeIfPresent(gameID, (id, cached) -> new GameData(id, white ? username : cached.whiteUsername(),
+                    white ? cached.blackUsername() : username, cached.gameName(), cached.game()));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        written(cache(game, null));
+    }
+
+    @Override
+    public void addMove(GameData game, ChessMove move) throws DataAccessException {
+        written(cache(game, move));
+    }
+
+    @Override
+    public void updateGames(Collection<GameData> games) throws DataAccessException {
+        for (GameData game : games) {
+            updateGame(game);
+        }
+    }
+
+    @Override
+    public void addMoves(Collection<MoveData> moves) throws DataAccessException {
+        for (MoveData move : moves) {
+            addMove(move.game(), move.move());
+        }
+    }
+
+    // the cached game, loaded from the database if it is not held
+    private GameData load(int gameID) throws DataAccessException {
+        GameData game = games.get(gameID);
+        if (game == null) {
+            ReentrantLock lock = loadLock(gameID);
+            lock.lock();
+            try {
+                game = games.get(gameID);
+                if (game == null) {
+                    game = dataAccess.getGame(gameID);
+                    if (game == null) {
+                        return null;
+                    }
+                    games.put(gameID, game);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        touched.add(gameID);
+        return game;
+    }
+
+    // caches a copy of the game with the cached seats, and queues the move
+    // or, without one, marks the game changed
+    private GameData cache(GameData game, ChessMove move) throws DataAccessException {
+        ChessGame board = new ChessGame(game.game());
+        GameData[] stored = new GameData[1];
+        while (stored[0] == null) {
+            boolean held = load(game.gameID()) != null;
+            // an idle game can be dropped between the load and the compute, so it is loaded again
+            games.compute(game.gameID(), (id, cached) -> {
+                if (cached == null && held) {
+                    return null;
+                }
+                stored[0] = cached == null
+                        ? new GameData(id, game.whiteUsername(), game.blackUsername(), game.gameName(), board)
+                        : new GameData(id, cached.whiteUsername(), cached.blackUsername(), game.gameName(), board);
+                if (move == null) {
+                    dirty.put(id, stored[0]);
+                } else {
+                    appending.put(id, stored[0]);
+                    moves.add(new MoveData(stored[0], move));
+                }
+                return stored[0];
+            });
+        }
+        return stored[0];
+    }
+
+    // drops every game not used since the last flush that has nothing left to write
+    private void evictIdle() {
+        for (Integer gameID : games.keySet()) {
+            if (!touched.remove(gameID)) {
+                games.computeIfPresent(gameID, (id, cached) ->
+                        dirty.containsKey(id) || appending.containsKey(id) ? cached : null);
+            }
+        }
+    }
+
+    private ReentrantLock loadLock(int gameID) {
+        return loadLocks[Math.floorMod(gameID, loadLocks.length)];
+    }
+
+    private void written(GameData stored) throws DataAccessException {
+        if (isOver(stored.game())) {
+            flush();
+        } else if (getPendingWrites() >= batchSize) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (DataAccessException | RuntimeException ex) {
+            LOG.warn("Writing games failed, {} writes will be retried", getPendingWrites(), ex);
+        }
+    }
+
+    private static boolean isOver(ChessGame game) {
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        return game.isDraw() || game.isInCheckmate(turn) || game.isInStalemate(turn);
+    }
+
+    private static GameData copy(GameData game) {
+        return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(),
+                new ChessGame(game.game()));
+    }
+}
@@ -0,0 +1,207 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
+import dataaccess.AuthTokenCache;
+import dataaccess.CachingDataAccess;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.DatabaseManager;
+import dataaccess.MemoryDataAccess;
+import dataaccess.MySqlDataAccess;
+import dataaccess.WriteBehindDataAccess;
+import io.javalin.*;
+import io.javalin.http.Context;
+import model.LoginRequest;
+import model.UserData;
+import service.GameService;
+import service.PasswordHasher;
+import service.ServiceException;
+import service.UserService;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * The HTTP server.
+ * <p>
+ * Handlers block while they hash passwords and talk to the database. Jetty
+ * runs them on its platform thread pool unless the system property
+ * chess.virtualThreads is true, in which case every HTTP request gets a
+ * virtual thread of its own, so a blocked handler costs a little memory
+ * instead of one of a couple of hundred pool threads, and slow requests no
+ * longer queue behind each other.
+ * <p>
+ * Passwords are hashed on a {@link PasswordHasher} of chess.hashThreads
+ * threads, half the cores by default, so a login storm leaves the other
+ * half free for move handling, with up to chess.hashQueue more hashes
+ * waiting; beyond that register and login answer 503 with a Retry-After
+ * header. Data is kept in MySQL, or in memory when chess.storage is memory.
+ * Game changes reach MySQL through a {@link WriteBehindDataAccess}, within
+ * GAME_FLUSH_MILLIS of the move; stop writes whatever is still pending.
+ * <p>
+ * GET /game lists games a page at a time, in ID order, with only their IDs,
+ * names and players: after is the ID of the last game already listed, 0 by
+ * default, and limit the most games to list, DEFAULT_GAME_PAGE by default
+ * and at most {@link GameService#MAX_PAGE_SIZE}. A page shorter than limit
+ * is the last. Pages are written to the response as they are serialized
+ * instead of being built as one string first.
+ * <p>
+ * GET /metrics/db, /metrics/auth and /metrics/hash report the connection
+ * pool's, the auth token cache's and the password hasher's counters as
+ * JSON.
+ */
+public class Server {
+
+    public static final String VIRTUAL_THREADS_PROPERTY = "chess.virtualThreads";
+    public static final String STORAGE_PROPERTY = "chess.storage";
+    public static final String HASH_THREADS_PROPERTY = "chess.hashThreads";
+    public static final String HASH_QUEUE_PROPERTY = "chess.hashQueue";
+
+    private static final Gson GSON = new Gson();
+    private static final int BCRYPT_LOG_ROUNDS = 10;
+    private static final int AUTH_CACHE_SIZE = 100_000;
+    private static final long AUTH_CACHE_TTL_MILLIS = 5 * 60 * 1000;
+    private static final long GAME_FLUSH_MILLIS = 200;
+    private static final int GAME_FLUSH_BATCH = 64;
+    private static final int DEFAULT_GAME_PAGE = 100;
+    // seconds a client told the server is busy should wait before trying again
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final Javalin javalin;
+    private final DataAccess storage;
+    private final CachingDataAccess dataAccess;
+    private final PasswordHasher hasher;
+
+    public Server() {
+        this(Boolean.parseBoolean(System.getProperty(VIRTUAL_THREADS_PROPERTY, "false")));
+    }
+
+    /**
+     * @param virtualThreads whether to run handlers on virtual threads instead of Jetty's thread pool
+     */
+    public Server(boolean virtualThreads) {
+        this(createDataAccess(), virtualThreads);
+    }
+
+    /**
+     * @param storage        where users, auth tokens and games are kept
+     * @param virtualThreads whether to run handlers on virtual threads instead of Jetty's thread pool
+     */
+    public Server(DataAccess storage, boolean virtualThreads) {
+        this.storage = storage;
+        dataAccess = new CachingDataAccess(storage, new AuthTokenCache(AUTH_CACHE_SIZE, AUTH_CACHE_TTL_MILLIS));
+        int defaultHashThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        hasher = new PasswordHasher(Integer.getInteger(HASH_THREADS_PROPERTY, defaultHashThreads),
+                Integer.getInteger(HASH_QUEUE_PROPERTY, 64), BCRYPT_LOG_ROUNDS);
+        UserService userService = new UserService(dataAccess, hasher);
+        GameService gameService = new GameService(dataAccess);
+        javalin = createJavalin(virtualThreads);
+
+        // Register your endpoints and exception handlers here.
+        javalin.delete("/db", ctx -> {
+            userService.clear();
+            json(ctx, Map.of());
+        });
+        javalin.post("/user", ctx -> json(ctx, userService.register(body(ctx, UserData.class))));
+        javalin.post("/session", ctx -> json(ctx, userService.login(body(ctx, LoginRequest.class))));
+        javalin.delete("/session", ctx -> {
+            userService.logout(ctx.header("authorization"));
+            json(ctx, Map.of());
+        });
+        javalin.get("/game", ctx -> jsonArray(ctx, "games", gameService.listGames(ctx.header("authorization"),
+                intParam(ctx, "after", 0), intParam(ctx, "limit", DEFAULT_GAME_PAGE))));
+        javalin.get("/metrics/db", ctx -> json(ctx, DatabaseManager.getPoolMetrics()));
+        javalin.get("/metrics/auth", ctx -> json(ctx, dataAccess.getAuthCacheMetrics()));
+        javalin.get("/metrics/hash", ctx -> json(ctx, hasher.getMetrics()));
+
+        javalin.exception(ServiceException.class, (ex, ctx) -> {
+            if (ex.getStatusCode() == 503) {
+                ctx.header("Retry-After", RETRY_AFTER_SECONDS);
+            }
+            error(ctx, ex.getStatusCode(), ex.getMessage());
+        });
+        javalin.exception(DataAccessException.class, (ex, ctx) -> error(ctx, 500, "Error: " + ex.getMessage()));
+    }
+
+    static Javalin createJavalin(boolean virtualThreads) {
+        return Javalin.create(config -> {
+            config.staticFiles.add("web");
+            config.useVirtualThreads = virtualThreads;
+        });
+    }
+
+    public int run(int desiredPort) {
+        javalin.start(desiredPort);
+        return javalin.port();
+    }
+
+    public void stop() {
+        javalin.stop();
+        hasher.close();
+        if (storage instanceof WriteBehindDataAccess writeBehind) {
+            try {
+                writeBehind.close();
+            } catch (DataAccessException ex) {
+                throw new RuntimeException("Unable to save games", ex);
+            }
+        }
+        DatabaseManager.closePool();
+    }
+
+    private static DataAccess createDataAccess() {
+        if (System.getProperty(STORAGE_PROPERTY, "mysql").equals("memory")) {
+            return new MemoryDataAccess();
+        }
+        try {
+            return WriteBehindDataAccess.start(new MySqlDataAccess(), GAME_FLUSH_MILLIS, GAME_FLUSH_BATCH);
+        } catch (DataAccessException ex) {
+            throw new RuntimeException("Unable to set up the database", ex);
+        }
+    }
+
+    private static <T> T body(Context ctx, Class<T> type) throws ServiceException {
+        try {
+            T body = GSON.fromJson(ctx.body(), type);
+            if (body == null) {
+                throw new ServiceException(400, "Error: bad request");
+            }
+            return body;
+        } catch (JsonSyntaxException ex) {
+            throw new ServiceException(400, "Error: bad request", ex);
+        }
+    }
+
+    private static int intParam(Context ctx, String name, int defaultValue) throws ServiceException {
+        String value = ctx.queryParam(name);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new ServiceException(400, "Error: bad request", ex);
+        }
+    }
+
+    private static void json(Context ctx, Object result) {
+        ctx.contentType("application/json").result(GSON.toJson(result));
+    }
+
+    // writes {"name": [items]} an item at a time, so the body is never held in memory whole
+    private static void jsonArray(Context ctx, String name, Iterable<?> items) throws IOException {
+        ctx.contentType("application/json");
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(ctx.outputStream(), StandardCharsets.UTF_8))) {
+            writer.beginObject().name(name).beginArray();
+            for (Object item : items) {
+                GSON.toJson(item, item.getClass(), writer);
+            }
+            writer.endArray().endObject();
+        }
+    }
+
+    private static void error(Context ctx, int status, String message) {
+        ctx.status(status);
+        json(ctx, Map.of("message", message));
+    }
+}
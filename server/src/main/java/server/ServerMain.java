@@ -6,5 +6,12 @@ public class ServerMain {
     public static void main(String[] args) {
         var piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         System.out.println("♕ 240 Chess Server: " + piece);
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Server server = new Server();
+        // writes games still waiting in the write-behind buffer on SIGTERM and Ctrl-C
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        port = server.run(port);
+        System.out.println("Listening on port " + port);
     }
 }
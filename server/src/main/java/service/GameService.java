@@ -0,0 +1,40 @@
+package service;
+
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import model.GameSummary;
+
+import java.util.List;
+
+/**
+ * Lists games a page at a time
+ */
+public class GameService {
+
+    // the most games one page can hold
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final DataAccess dataAccess;
+
+    public GameService(DataAccess dataAccess) {
+        this.dataAccess = dataAccess;
+    }
+
+    /**
+     * @param authToken   the caller's auth token
+     * @param afterGameID only games with a higher ID are listed; 0 for the first page
+     * @param limit       the most games listed, up to MAX_PAGE_SIZE
+     * @return the games in ID order; a page shorter than limit is the last one
+     * @throws ServiceException 401 if the token is not logged in, 400 if after or limit is out of range
+     */
+    public List<GameSummary> listGames(String authToken, int afterGameID, int limit)
+            throws ServiceException, DataAccessException {
+        if (authToken == null || dataAccess.getAuth(authToken) == null) {
+            throw new ServiceException(401, "Error: unauthorized");
+        }
+        if (afterGameID < 0 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ServiceException(400, "Error: bad request");
+        }
+        return dataAccess.listGameSummaries(afterGameID, limit);
+    }
+}
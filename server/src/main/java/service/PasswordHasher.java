@@ -0,0 +1,142 @@
+package service;
+
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashes and checks passwords with bcrypt on a few dedicated threads.
+ * <p>
+ * A bcrypt hash takes tens of milliseconds of CPU. Run on request threads,
+ * a burst of logins would take every core and starve move handling; here
+ * at most threads hashes run at once, whatever the number of requests. At
+ * most maxQueued more wait their turn, and past that callers fail at once
+ * with a 503 instead of queueing for longer than a client would wait.
+ * <p>
+ * Callers block until their hash is done, which costs nothing when the
+ * server runs on virtual threads.
+ */
+public class PasswordHasher implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PasswordHasher.class);
+
+    /**
+     * A snapshot of the hasher's counters
+     *
+     * @param active               hashes running right now
+     * @param queued               hashes waiting for a thread right now
+     * @param completed            hashes done
+     * @param rejected             hashes refused because the queue was full
+     * @param totalQueueWaitMillis time hashes spent waiting for a thread, summed
+     * @param maxQueueWaitMillis   the longest a hash waited for a thread
+     * @param totalHashMillis      time spent hashing, summed
+     * @param maxHashMillis        the longest hash
+     */
+    public record Metrics(int active, int queued, long completed, long rejected, long totalQueueWaitMillis,
+                          long maxQueueWaitMillis, long totalHashMillis, long maxHashMillis) {
+    }
+
+    private final int logRounds;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicLong totalHashNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    /**
+     * @param threads   how many hashes run at once
+     * @param maxQueued how many more may wait before callers are turned away
+     * @param logRounds the bcrypt cost of new hashes, 4 to 30; each step doubles the work
+     */
+    public PasswordHasher(int threads, int maxQueued, int logRounds) {
+        if (threads < 1 || maxQueued < 1 || logRounds < 4 || logRounds > 30) {
+            throw new IllegalArgumentException("Invalid password hasher settings");
+        }
+        this.logRounds = logRounds;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued), runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return a salted bcrypt hash of the password
+     * @throws ServiceException with status 503 if too many hashes are waiting
+     */
+    public String hash(String password) throws ServiceException {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(logRounds)));
+    }
+
+    /**
+     * @return whether the password matches the hash
+     * @throws ServiceException with status 503 if too many hashes are waiting
+     */
+    public boolean verify(String password, String hash) throws ServiceException {
+        return run(() -> BCrypt.checkpw(password, hash));
+    }
+
+    /**
+     * @return the hasher's counters right now
+     */
+    public Metrics getMetrics() {
+        return new Metrics(executor.getActiveCount(), executor.getQueue().size(), completed.get(), rejected.get(),
+                TimeUnit.NANOSECONDS.toMillis(totalQueueWaitNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(totalHashNanos.get()), TimeUnit.NANOSECONDS.toMillis(maxHashNanos.get()));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> work) throws ServiceException {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                totalQueueWaitNanos.addAndGet(started - submitted);
+                maxQueueWaitNanos.accumulateAndGet(started - submitted, Math::max);
+                try {
+                    return work.call();
+                } finally {
+                    long took = System.nanoTime() - started;
+                    totalHashNanos.addAndGet(took);
+                    maxHashNanos.accumulateAndGet(took, Math::max);
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.incrementAndGet();
+            throw new ServiceException(503, "Error: server busy, try again shortly");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceException(500, "Error: interrupted while hashing", ex);
+        } catch (ExecutionException ex) {
+            // the cause can carry internal detail, so it goes to the log and not to the client
+            LOG.error("Hashing a password failed", ex.getCause());
+            throw new ServiceException(500, "Error: failed to hash password", ex.getCause());
+        }
+    }
+}
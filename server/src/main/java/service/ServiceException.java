@@ -0,0 +1,25 @@
+package service;
+
+/**
+ * A request that could not be served, with the HTTP status code to answer
+ * it with. Messages start with "Error:" so clients can show them as they
+ * are.
+ */
+public class ServiceException extends Exception {
+
+    private final int statusCode;
+
+    public ServiceException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public ServiceException(int statusCode, String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
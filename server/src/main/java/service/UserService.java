@@ -0,0 +1,88 @@
+package service;
+
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import model.AuthData;
+import model.LoginRequest;
+import model.UserData;
+
+import java.util.UUID;
+
+/**
+ * Registers users and logs them in and out
+ */
+public class UserService {
+
+    private final DataAccess dataAccess;
+    private final PasswordHasher hasher;
+
+    public UserService(DataAccess dataAccess, PasswordHasher hasher) {
+        this.dataAccess = dataAccess;
+        this.hasher = hasher;
+    }
+
+    /**
+     * Registers a user and logs them in
+     *
+     * @param request the username, password and email
+     * @return a new auth token
+     * @throws ServiceException 400 if a field is missing, 403 if the username is taken, 503 if overloaded
+     */
+    public AuthData register(UserData request) throws ServiceException, DataAccessException {
+        if (isBlank(request.username()) || isBlank(request.password()) || isBlank(request.email())) {
+            throw new ServiceException(400, "Error: bad request");
+        }
+        // checked before hashing too, so a taken name does not cost a hash
+        if (dataAccess.getUser(request.username()) != null) {
+            throw new ServiceException(403, "Error: already taken");
+        }
+        String hash = hasher.hash(request.password());
+        if (!dataAccess.createUser(new UserData(request.username(), hash, request.email()))) {
+            throw new ServiceException(403, "Error: already taken");
+        }
+        return createAuth(request.username());
+    }
+
+    /**
+     * @param request the username and password
+     * @return a new auth token
+     * @throws ServiceException 400 if a field is missing, 401 if they do not match, 503 if overloaded
+     */
+    public AuthData login(LoginRequest request) throws ServiceException, DataAccessException {
+        if (isBlank(request.username()) || isBlank(request.password())) {
+            throw new ServiceException(400, "Error: bad request");
+        }
+        UserData user = dataAccess.getUser(request.username());
+        if (user == null || !hasher.verify(request.password(), user.password())) {
+            throw new ServiceException(401, "Error: unauthorized");
+        }
+        return createAuth(user.username());
+    }
+
+    /**
+     * @throws ServiceException 401 if the token is not logged in
+     */
+    public void logout(String authToken) throws ServiceException, DataAccessException {
+        if (authToken == null || dataAccess.getAuth(authToken) == null) {
+            throw new ServiceException(401, "Error: unauthorized");
+        }
+        dataAccess.deleteAuth(authToken);
+    }
+
+    /**
+     * Deletes every user, auth token and game
+     */
+    public void clear() throws DataAccessException {
+        dataAccess.clear();
+    }
+
+    private AuthData createAuth(String username) throws DataAccessException {
+        AuthData auth = new AuthData(UUID.randomUUID().toString(), username);
+        dataAccess.createAuth(auth);
+        return auth;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
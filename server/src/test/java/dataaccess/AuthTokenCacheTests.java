@@ -0,0 +1,132 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AuthTokenCacheTests {
+
+    // counts the lookups that reach the database
+    private static class CountingDataAccess extends MemoryDataAccess {
+        final AtomicInteger authLookups = new AtomicInteger();
+
+        @Override
+        public AuthData getAuth(String authToken) {
+            authLookups.incrementAndGet();
+            return super.getAuth(authToken);
+        }
+    }
+
+    private final CountingDataAccess database = new CountingDataAccess();
+
+    @Test
+    @DisplayName("Repeated Validation Hits The Cache")
+    public void hits() throws DataAccessException {
+        database.createAuth(new AuthData("token", "ann"));
+        CachingDataAccess dao = new CachingDataAccess(database, new AuthTokenCache(100, 60_000));
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals("ann", dao.getAuth("token").username());
+        }
+        Assertions.assertNull(dao.getAuth("unknown"));
+        Assertions.assertNull(dao.getAuth("unknown"));
+        Assertions.assertEquals(3, database.authLookups.get());
+
+        AuthTokenCache.Metrics metrics = dao.getAuthCacheMetrics();
+        Assertions.assertEquals(9, metrics.hits());
+        Assertions.assertEquals(3, metrics.misses());
+        Assertions.assertEquals(0.75, metrics.hitRate());
+        Assertions.assertEquals(1, metrics.size());
+    }
+
+    @Test
+    @DisplayName("New Tokens Are Cached When Created")
+    public void createdTokensCached() throws DataAccessException {
+        CachingDataAccess dao = new CachingDataAccess(database, new AuthTokenCache(100, 60_000));
+        dao.createAuth(new AuthData("token", "ann"));
+        Assertions.assertEquals("ann", dao.getAuth("token").username());
+        Assertions.assertEquals(0, database.authLookups.get());
+    }
+
+    @Test
+    @DisplayName("Logout And Clear Invalidate At Once")
+    public void invalidation() throws DataAccessException {
+        CachingDataAccess dao = new CachingDataAccess(database, new AuthTokenCache(100, 60_000));
+        dao.createAuth(new AuthData("first", "ann"));
+        dao.createAuth(new AuthData("second", "bob"));
+        dao.deleteAuth("first");
+        Assertions.assertNull(dao.getAuth("first"));
+        Assertions.assertNotNull(dao.getAuth("second"));
+        dao.clear();
+        Assertions.assertNull(dao.getAuth("second"));
+        Assertions.assertEquals(0, dao.getAuthCacheMetrics().size());
+    }
+
+    @Test
+    @DisplayName("Entries Expire After Their Time To Live")
+    public void expiry() throws Exception {
+        database.createAuth(new AuthData("token", "ann"));
+        CachingDataAccess dao = new CachingDataAccess(database, new AuthTokenCache(100, 50));
+        dao.getAuth("token");
+        dao.getAuth("token");
+        Assertions.assertEquals(1, database.authLookups.get());
+        Thread.sleep(80);
+        dao.getAuth("token");
+        Assertions.assertEquals(2, database.authLookups.get());
+    }
+
+    @Test
+    @DisplayName("Oldest Tokens Are Evicted Past The Size Limit")
+    public void sizeLimit() throws DataAccessException {
+        CachingDataAccess dao = new CachingDataAccess(database, new AuthTokenCache(10, 60_000));
+        for (int i = 0; i < 25; i++) {
+            dao.createAuth(new AuthData("token" + i, "user" + i));
+        }
+        AuthTokenCache.Metrics metrics = dao.getAuthCacheMetrics();
+        Assertions.assertEquals(10, metrics.size());
+        Assertions.assertEquals(15, metrics.evictions());
+        dao.getAuth("token24");
+        Assertions.assertEquals(0, database.authLookups.get());
+        Assertions.assertEquals("user0", dao.getAuth("token0").username());
+        Assertions.assertEquals(1, database.authLookups.get());
+    }
+
+    @Test
+    @DisplayName("Lookup Racing A Logout Does Not Cache The Deleted Token")
+    public void lookupRacingLogout() throws Exception {
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+        MemoryDataAccess slow = new MemoryDataAccess() {
+            @Override
+            public AuthData getAuth(String authToken) {
+                AuthData auth = super.getAuth(authToken);
+                read.countDown();
+                try {
+                    deleted.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return auth;
+            }
+        };
+        slow.createAuth(new AuthData("token", "ann"));
+        CachingDataAccess dao = new CachingDataAccess(slow, new AuthTokenCache(100, 60_000));
+
+        Thread lookup = new Thread(() -> {
+            try {
+                dao.getAuth("token");
+            } catch (DataAccessException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        lookup.start();
+        read.await();
+        dao.deleteAuth("token");
+        deleted.countDown();
+        lookup.join();
+        Assertions.assertEquals(0, dao.getAuthCacheMetrics().size());
+    }
+}
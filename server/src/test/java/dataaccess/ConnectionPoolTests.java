@@ -0,0 +1,214 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConnectionPoolTests {
+
+    // stands in for a MySQL connection, recording what the pool does to it
+    private static class FakeConnection {
+        boolean closed;
+        boolean autoCommit = true;
+        boolean valid = true;
+        int rollbacks;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed;
+                        case "isValid" -> valid;
+                        case "getAutoCommit" -> autoCommit;
+                        case "setAutoCommit" -> {
+                            autoCommit = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            rollbacks++;
+                            yield null;
+                        }
+                        case "toString" -> "FakeConnection";
+                        default -> null;
+                    });
+        }
+    }
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+
+    private ConnectionPool pool(int maxSize, long timeout, long idleTimeout, long maxLifetime, long leakMillis,
+                                long housekeepingMillis) {
+        return new ConnectionPool(() -> {
+            FakeConnection connection = new FakeConnection();
+            synchronized (opened) {
+                opened.add(connection);
+            }
+            return connection.proxy();
+        }, new ConnectionPool.Settings(maxSize, timeout, idleTimeout, maxLifetime, leakMillis, 0), housekeepingMillis);
+    }
+
+    @Test
+    @DisplayName("Closed Connections Are Reused")
+    public void reuse() throws SQLException {
+        try (ConnectionPool pool = pool(4, 1000, 60_000, 60_000, 0, 60_000)) {
+            for (int i = 0; i < 10; i++) {
+                try (Connection connection = pool.getConnection()) {
+                    Assertions.assertFalse(connection.isClosed());
+                }
+            }
+            ConnectionPool.Metrics metrics = pool.getMetrics();
+            Assertions.assertEquals(1, opened.size());
+            Assertions.assertEquals(10, metrics.borrowed());
+            Assertions.assertEquals(0, metrics.active());
+            Assertions.assertEquals(1, metrics.idle());
+        }
+    }
+
+    @Test
+    @DisplayName("Full Pool Times Out")
+    public void timeout() throws SQLException {
+        try (ConnectionPool pool = pool(2, 50, 60_000, 60_000, 0, 60_000)) {
+            Connection first = pool.getConnection();
+            Connection second = pool.getConnection();
+            Assertions.assertEquals(2, pool.getMetrics().active());
+            Assertions.assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+
+            ConnectionPool.Metrics metrics = pool.getMetrics();
+            Assertions.assertEquals(1, metrics.timeouts());
+            Assertions.assertTrue(metrics.maxWaitMillis() >= 40, "waited " + metrics.maxWaitMillis());
+            first.close();
+            try (Connection third = pool.getConnection()) {
+                Assertions.assertNotNull(third);
+            }
+            second.close();
+            Assertions.assertEquals(2, opened.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Waiting Caller Gets The Returned Connection")
+    public void waitForReturn() throws Exception {
+        try (ConnectionPool pool = pool(1, 5000, 60_000, 60_000, 0, 60_000)) {
+            Connection held = pool.getConnection();
+            Thread returner = new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                    held.close();
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            });
+            returner.start();
+            try (Connection connection = pool.getConnection()) {
+                Assertions.assertNotNull(connection);
+            }
+            returner.join();
+            Assertions.assertEquals(1, opened.size());
+            Assertions.assertEquals(0, pool.getMetrics().timeouts());
+        }
+    }
+
+    @Test
+    @DisplayName("Open Transaction Is Rolled Back On Return")
+    public void rollbackOnReturn() throws SQLException {
+        try (ConnectionPool pool = pool(1, 1000, 60_000, 60_000, 0, 60_000)) {
+            try (Connection connection = pool.getConnection()) {
+                connection.setAutoCommit(false);
+            }
+            Assertions.assertEquals(1, opened.get(0).rollbacks);
+            Assertions.assertTrue(opened.get(0).autoCommit);
+        }
+    }
+
+    @Test
+    @DisplayName("Connection Cannot Be Used After It Is Given Back")
+    public void useAfterClose() throws SQLException {
+        try (ConnectionPool pool = pool(1, 1000, 60_000, 60_000, 0, 60_000)) {
+            Connection connection = pool.getConnection();
+            connection.close();
+            connection.close();
+            Assertions.assertTrue(connection.isClosed());
+            Assertions.assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+            Assertions.assertEquals(0, pool.getMetrics().active());
+            Assertions.assertFalse(opened.get(0).closed);
+        }
+    }
+
+    @Test
+    @DisplayName("Broken Connection Is Replaced")
+    public void replaceBroken() throws Exception {
+        try (ConnectionPool pool = pool(1, 1000, 60_000, 60_000, 0, 60_000)) {
+            pool.getConnection().close();
+            opened.get(0).valid = false;
+            Thread.sleep(600);
+            pool.getConnection().close();
+            Assertions.assertEquals(2, opened.size());
+            Assertions.assertTrue(opened.get(0).closed);
+        }
+    }
+
+    @Test
+    @DisplayName("Connection Past Its Max Lifetime Is Replaced")
+    public void maxLifetime() throws Exception {
+        try (ConnectionPool pool = pool(1, 1000, 60_000, 100, 0, 60_000)) {
+            Connection connection = pool.getConnection();
+            Thread.sleep(150);
+            connection.close();
+            Assertions.assertTrue(opened.get(0).closed);
+            pool.getConnection().close();
+            Assertions.assertEquals(2, opened.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Idle Connections Are Evicted")
+    public void idleEviction() throws Exception {
+        try (ConnectionPool pool = pool(3, 1000, 50, 60_000, 0, 20)) {
+            Connection first = pool.getConnection();
+            Connection second = pool.getConnection();
+            first.close();
+            second.close();
+            Assertions.assertEquals(2, pool.getMetrics().idle());
+            Thread.sleep(300);
+            ConnectionPool.Metrics metrics = pool.getMetrics();
+            Assertions.assertEquals(0, metrics.idle());
+            Assertions.assertEquals(2, metrics.closed());
+            Assertions.assertTrue(opened.get(0).closed && opened.get(1).closed);
+        }
+    }
+
+    @Test
+    @DisplayName("Long Held Connection Is Reported As A Leak")
+    public void leakDetection() throws Exception {
+        try (ConnectionPool pool = pool(2, 1000, 60_000, 60_000, 50, 20)) {
+            Connection held = pool.getConnection();
+            Thread.sleep(300);
+            Assertions.assertEquals(1, pool.getMetrics().leaks());
+            held.close();
+            Assertions.assertEquals(1, pool.getMetrics().leaks());
+        }
+    }
+
+    @Test
+    @DisplayName("Closed Pool Refuses Connections")
+    public void closedPool() throws SQLException {
+        ConnectionPool pool = pool(2, 1000, 60_000, 60_000, 0, 60_000);
+        Connection held = pool.getConnection();
+        pool.getConnection().close();
+        pool.close();
+        Assertions.assertThrows(SQLException.class, pool::getConnection);
+        held.close();
+        Assertions.assertTrue(opened.get(0).closed);
+        Assertions.assertTrue(opened.get(1).closed);
+    }
+}
@@ -0,0 +1,101 @@
+package dataaccess;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the throughput of the in-memory and MySQL DAOs under concurrent
+ * register, join and move traffic.
+ * <p>
+ * There is no MySQL server here, so the MySQL DAO talks to a
+ * {@link FakeDatabase} through the connection pool, with its statement cache
+ * on, and every execute waits a set time as a round trip to a local server
+ * would. Each thread loops over a register, a game creation and join, and
+ * eight moves, each of which looks up the auth token, reads the game and
+ * writes it back.
+ * <p>
+ * Run with: java -cp server/target/server-test-dependencies.jar:server/target/test-classes dataaccess.DataAccessBenchmark [execute micros]
+ */
+public class DataAccessBenchmark {
+
+    private static final int[] THREADS = {1, 8, 64};
+    private static final long MILLIS = 2_000;
+    private static final int MOVES_PER_ROUND = 8;
+    // operations per round: register and log in, create and join, and the moves
+    private static final int OPERATIONS_PER_ROUND = 4 + MOVES_PER_ROUND;
+
+    public static void main(String[] args) throws Exception {
+        long executeMicros = args.length > 0 ? Long.parseLong(args[0]) : 100;
+        System.out.printf("Fake MySQL execute takes %d us, pool of 16 connections%n", executeMicros);
+        System.out.println("dao       threads        ops/s");
+        for (int threads : THREADS) {
+            run("memory", new MemoryDataAccess(), threads);
+
+            FakeDatabase database = new FakeDatabase(executeMicros * 1000, executeMicros * 1000);
+            database.row = Map.of("authToken", "token", "username", "ann", "gameID", 1, "gameName", "game",
+                    "game", new Gson().toJson(new ChessGame()));
+            try (ConnectionPool pool = new ConnectionPool(database::open,
+                    new ConnectionPool.Settings(16, 10_000, 60_000, 1_800_000, 0, 32), 60_000)) {
+                run("mysql", new MySqlDataAccess(() -> {
+                    try {
+                        return pool.getConnection();
+                    } catch (SQLException ex) {
+                        throw new DataAccessException("failed to get connection", ex);
+                    }
+                }), threads);
+            }
+        }
+    }
+
+    private static void run(String name, DataAccess dao, int threads) throws Exception {
+        AtomicInteger names = new AtomicInteger();
+        AtomicInteger rounds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        long end = System.nanoTime() + MILLIS * 1_000_000;
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                while (System.nanoTime() < end) {
+                    round(dao, "user" + names.getAndIncrement());
+                    rounds.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-8s %8d %12.0f%n", name, threads, rounds.get() * OPERATIONS_PER_ROUND / seconds);
+    }
+
+    private static void round(DataAccess dao, String username) throws DataAccessException {
+        String token = username + "-token";
+        dao.createUser(new UserData(username, "hash", username + "@mail.com"));
+        dao.createAuth(new AuthData(token, username));
+        int gameID = dao.createGame(username + "'s game");
+        dao.joinGame(gameID, ChessGame.TeamColor.WHITE, username);
+        for (int i = 0; i < MOVES_PER_ROUND; i++) {
+            AuthData auth = dao.getAuth(token);
+            GameData game = dao.getGame(gameID);
+            dao.updateGame(new GameData(gameID, auth.username(), game.blackUsername(), game.gameName(), game.game()));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Stands in for MySQL in tests and benchmarks, which have no server to talk
+ * to. Connections prepare and run any SQL, waiting a set time for each
+ * prepare and execute as a round trip to the server would, and every query
+ * returns the same row, or no rows when that is null, unless results says
+ * otherwise. Counts what the callers did and records the SQL they ran.
+ */
+class FakeDatabase {
+
+    final AtomicInteger prepares = new AtomicInteger();
+    // prepared statements only
+    final AtomicInteger statementsClosed = new AtomicInteger();
+    final AtomicInteger executes = new AtomicInteger();
+    private final AtomicInteger nextKey = new AtomicInteger(1);
+    private final long prepareNanos;
+    private final long executeNanos;
+    // the SQL of every statement or batch run, in order
+    final Queue<String> executed = new ConcurrentLinkedQueue<>();
+    volatile Map<String, Object> row;
+    // when set, the rows each query's SQL returns, or null for row
+    volatile Function<String, List<Map<String, Object>>> results;
+
+    /**
+     * @param prepareNanos how long preparing a statement takes
+     * @param executeNanos how long running one takes
+     */
+    FakeDatabase(long prepareNanos, long executeNanos) {
+        this.prepareNanos = prepareNanos;
+        this.executeNanos = executeNanos;
+    }
+
+    Connection open() {
+        boolean[] closed = new boolean[1];
+        return proxy(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+            case "prepareStatement" -> {
+                roundTrip(prepareNanos);
+                prepares.incrementAndGet();
+                yield statement(PreparedStatement.class, (String) args[0]);
+            }
+            case "createStatement" -> statement(Statement.class, null);
+            case "close" -> {
+                closed[0] = true;
+                yield null;
+            }
+            case "isClosed" -> closed[0];
+            case "isValid", "getAutoCommit" -> true;
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    private <T extends Statement> T statement(Class<T> type, String prepared) {
+        boolean[] closed = new boolean[1];
+        return proxy(type, (proxy, method, args) -> switch (method.getName()) {
+            case "executeQuery" -> {
+                String sql = args == null ? prepared : (String) args[0];
+                execute(sql);
+                Function<String, List<Map<String, Object>>> query = results;
+                List<Map<String, Object>> rows = query == null ? null : query.apply(sql);
+                yield resultSet(rows != null ? rows : row == null ? List.of() : List.of(row));
+            }
+            case "executeUpdate", "execute" -> {
+                execute(args == null ? prepared : (String) args[0]);
+                yield method.getReturnType() == boolean.class ? false : 1;
+            }
+            case "executeBatch" -> {
+                execute(prepared);
+                yield new int[0];
+            }
+            case "getGeneratedKeys" -> resultSet(List.of(Map.of("1", nextKey.getAndIncrement())));
+            case "close" -> {
+                if (!closed[0] && type == PreparedStatement.class) {
+                    statementsClosed.incrementAndGet();
+                }
+                closed[0] = true;
+                yield null;
+            }
+            case "isClosed" -> closed[0];
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> rows) {
+        // the index of the current row
+        int[] at = {-1};
+        return proxy(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+            case "next" -> ++at[0] < rows.size();
+            case "getString", "getInt", "getLong", "getObject" -> {
+                Object value = rows.get(at[0]).get(String.valueOf(args[0]));
+                yield value == null ? defaultValue(method.getReturnType()) : value;
+            }
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    private void execute(String sql) {
+        roundTrip(executeNanos);
+        executed.add(sql);
+        executes.incrementAndGet();
+    }
+
+    private static void roundTrip(long nanos) {
+        long end = System.nanoTime() + nanos;
+        for (long left = nanos; left > 0; left = end - System.nanoTime()) {
+            LockSupport.parkNanos(left);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0.0;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        }
+        return null;
+    }
+}
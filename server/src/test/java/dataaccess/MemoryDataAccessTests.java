@@ -0,0 +1,219 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemoryDataAccessTests {
+
+    private static final int THREADS = 16;
+
+    private final MemoryDataAccess dao = new MemoryDataAccess();
+
+    @Test
+    @DisplayName("Stores And Finds Users, Auth And Games")
+    public void basics() throws InvalidMoveException {
+        UserData user = new UserData("ann", "hash", "ann@mail.com");
+        Assertions.assertTrue(dao.createUser(user));
+        Assertions.assertFalse(dao.createUser(new UserData("ann", "other", "other@mail.com")));
+        Assertions.assertEquals(user, dao.getUser("ann"));
+        Assertions.assertNull(dao.getUser("bob"));
+
+        dao.createAuth(new AuthData("token", "ann"));
+        Assertions.assertEquals("ann", dao.getAuth("token").username());
+        dao.deleteAuth("token");
+        Assertions.assertNull(dao.getAuth("token"));
+
+        int gameID = dao.createGame("game");
+        GameData game = dao.getGame(gameID);
+        Assertions.assertEquals("game", game.gameName());
+        Assertions.assertTrue(dao.joinGame(gameID, ChessGame.TeamColor.WHITE, "ann"));
+        Assertions.assertFalse(dao.joinGame(gameID, ChessGame.TeamColor.WHITE, "bob"));
+        Assertions.assertFalse(dao.joinGame(gameID + 1, ChessGame.TeamColor.BLACK, "bob"));
+
+        game = dao.getGame(gameID);
+        game.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals(new ChessGame(), dao.getGame(gameID).game(), "Stored game changed without an update");
+        dao.updateGame(game);
+        Assertions.assertEquals(game.game(), dao.getGame(gameID).game());
+        Assertions.assertEquals("ann", dao.getGame(gameID).whiteUsername());
+
+        dao.clear();
+        Assertions.assertNull(dao.getUser("ann"));
+        Assertions.assertTrue(dao.listGames().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Each Username Is Registered Once Under Contention")
+    public void concurrentRegister() throws Exception {
+        AtomicInteger registered = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int i = 0; i < 1000; i++) {
+                if (dao.createUser(new UserData("user" + i, "hash" + thread, "mail"))) {
+                    registered.incrementAndGet();
+                }
+            }
+        });
+        Assertions.assertEquals(1000, registered.get());
+    }
+
+    @Test
+    @DisplayName("Game IDs Are Unique Under Contention")
+    public void concurrentCreate() throws Exception {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        runConcurrently(thread -> {
+            for (int i = 0; i < 200; i++) {
+                ids.add(dao.createGame("game"));
+            }
+        });
+        Assertions.assertEquals(THREADS * 200, ids.size());
+        Assertions.assertEquals(THREADS * 200, dao.listGames().size());
+    }
+
+    @Test
+    @DisplayName("Each Seat Goes To One Player Under Contention")
+    public void concurrentJoin() throws Exception {
+        List<Integer> gameIDs = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            gameIDs.add(dao.createGame("game" + i));
+        }
+        AtomicInteger seated = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int gameID : gameIDs) {
+                for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                    if (dao.joinGame(gameID, color, "player" + thread)) {
+                        seated.incrementAndGet();
+                    }
+                }
+            }
+        });
+        Assertions.assertEquals(400, seated.get());
+        for (GameData game : dao.listGames()) {
+            Assertions.assertNotNull(game.whiteUsername());
+            Assertions.assertNotNull(game.blackUsername());
+        }
+    }
+
+    @Test
+    @DisplayName("Moves Played On Copies Read Before A Join Keep The Seat")
+    public void concurrentJoinAndMove() throws Exception {
+        ChessMove[] moves = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null),
+        };
+        for (int round = 0; round < 50; round++) {
+            int gameID = dao.createGame("game" + round);
+            GameData beforeJoin = dao.getGame(gameID);
+            CountDownLatch joined = new CountDownLatch(2);
+            runConcurrently(thread -> {
+                if (thread < 2) {
+                    ChessGame.TeamColor color = ChessGame.TeamColor.values()[thread];
+                    Assertions.assertTrue(dao.joinGame(gameID, color, "player" + thread));
+                    joined.countDown();
+                    return;
+                }
+                for (int i = 0; i < 20; i++) {
+                    play(gameID, moves, i % 2 == 0);
+                }
+                // a copy read before the joins, written back after them
+                joined.await();
+                GameData stale = new GameData(gameID, null, null, beforeJoin.gameName(),
+                        new ChessGame(beforeJoin.game()));
+                stale.game().makeLegalMove(moves[0]);
+                if (thread % 2 == 0) {
+                    dao.updateGame(stale);
+                } else {
+                    dao.addMove(stale, moves[0]);
+                }
+            });
+            GameData game = dao.getGame(gameID);
+            Assertions.assertEquals("player0", game.whiteUsername());
+            Assertions.assertEquals("player1", game.blackUsername());
+        }
+    }
+
+    private void play(int gameID, ChessMove[] moves, boolean update) throws DataAccessException {
+        GameData game = dao.getGame(gameID);
+        ChessMove move = moves[game.game().getPlyCount() % moves.length];
+        game.game().makeLegalMove(move);
+        if (update) {
+            dao.updateGame(game);
+        } else {
+            dao.addMove(game, move);
+        }
+    }
+
+    @Test
+    @DisplayName("Moves In Different Games Do Not Interfere")
+    public void concurrentMoves() throws Exception {
+        int[] gameIDs = new int[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            gameIDs[i] = dao.createGame("game" + i);
+        }
+        ChessMove[] moves = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null),
+        };
+        runConcurrently(thread -> {
+            for (int i = 0; i < 100; i++) {
+                GameData game = dao.getGame(gameIDs[thread]);
+                game.game().makeMove(moves[i % moves.length]);
+                dao.updateGame(game);
+                if (i % 10 == 0) {
+                    dao.listGames();
+                }
+            }
+        });
+        for (int gameID : gameIDs) {
+            Assertions.assertEquals(100, dao.getGame(gameID).game().getHalfmoveClock());
+        }
+    }
+
+    private interface Work {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(Work work) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit((Callable<Void>) () -> {
+                start.await();
+                work.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
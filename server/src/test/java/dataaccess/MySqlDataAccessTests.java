@@ -0,0 +1,139 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import model.GameData;
+import model.GameSummary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MySqlDataAccessTests {
+
+    // e4 e5 Nf3 Nc6 Bc4 Nf6 O-O
+    private static final ChessMove[] OPENING = {
+            move(2, 5, 4, 5), move(7, 5, 5, 5), move(1, 7, 3, 6), move(8, 2, 6, 3),
+            move(1, 6, 4, 3), move(8, 7, 6, 6), move(1, 5, 1, 7),
+    };
+    private static final Gson GSON = new Gson();
+
+    private final FakeDatabase database = new FakeDatabase(0, 0);
+
+    @Test
+    @DisplayName("Every Move Packs Into 15 Bits And Back")
+    public void packing() {
+        List<ChessPiece.PieceType> promotions = new ArrayList<>();
+        promotions.add(null);
+        promotions.addAll(List.of(ChessPiece.PieceType.values()));
+        for (int start = 0; start < 64; start++) {
+            for (int end = 0; end < 64; end++) {
+                for (ChessPiece.PieceType promotion : promotions) {
+                    ChessMove move = new ChessMove(new ChessPosition(start / 8 + 1, start % 8 + 1),
+                            new ChessPosition(end / 8 + 1, end % 8 + 1), promotion);
+                    int packed = MySqlDataAccess.packMove(move);
+                    Assertions.assertTrue(packed >= 0 && packed < 1 << 15, "Does not fit a SMALLINT: " + packed);
+                    Assertions.assertEquals(move, MySqlDataAccess.unpackMove(packed));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Loading Replays The Moves After The Snapshot")
+    public void replay() throws Exception {
+        ChessGame snapshot = play(3);
+        ChessGame expected = play(OPENING.length);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int ply = 3; ply < OPENING.length; ply++) {
+            rows.add(gameRow(1, snapshot, OPENING[ply]));
+        }
+        rows.add(gameRow(2, new ChessGame(), null));
+        database.results = sql -> sql.contains("FROM game g") ? rows : null;
+        MySqlDataAccess dao = new MySqlDataAccess(database::open);
+
+        GameData game = dao.getGame(1);
+        Assertions.assertEquals(expected, game.game());
+        Assertions.assertEquals(OPENING.length, game.game().getPlyCount());
+        Assertions.assertEquals("ann", game.whiteUsername());
+
+        List<GameData> games = new ArrayList<>(dao.listGames());
+        Assertions.assertEquals(2, games.size());
+        Assertions.assertEquals(expected, games.get(0).game());
+        Assertions.assertEquals(new ChessGame(), games.get(1).game());
+    }
+
+    @Test
+    @DisplayName("Moves Are Appended With A Snapshot Every Interval")
+    public void appends() throws Exception {
+        MySqlDataAccess dao = new MySqlDataAccess(database::open, 3);
+        ChessGame game = new ChessGame();
+        database.executed.clear();
+        for (ChessMove move : OPENING) {
+            game.makeMove(move);
+            dao.addMove(new GameData(1, "ann", "bob", "game", game), move);
+        }
+        Assertions.assertEquals(OPENING.length, count("INSERT INTO game_moves"));
+        Assertions.assertEquals(2, count("UPDATE game SET game = ?"), "Snapshots at plies 3 and 6");
+        Assertions.assertEquals(0, count("UPDATE game SET gameName"));
+    }
+
+    @Test
+    @DisplayName("Updating A Game Drops Logged Moves Past It")
+    public void update() throws Exception {
+        MySqlDataAccess dao = new MySqlDataAccess(database::open);
+        database.executed.clear();
+        dao.updateGame(new GameData(1, "ann", "bob", "game", play(2)));
+        Assertions.assertEquals(1, count("UPDATE game SET gameName"));
+        Assertions.assertFalse(database.executed.stream().anyMatch(sql -> sql.contains("Username = ?")),
+                "Players written by updateGame");
+        Assertions.assertEquals(1, count("DELETE FROM game_moves"));
+    }
+
+    @Test
+    @DisplayName("Summaries Read A Key Range Without Boards")
+    public void summaries() throws Exception {
+        MySqlDataAccess dao = new MySqlDataAccess(database::open);
+        database.row = Map.of("gameID", 8, "whiteUsername", "ann", "gameName", "game8");
+        database.executed.clear();
+        Assertions.assertEquals(List.of(new GameSummary(8, "ann", null, "game8")), dao.listGameSummaries(7, 50));
+        String sql = database.executed.peek();
+        Assertions.assertTrue(sql.contains("WHERE gameID > ? ORDER BY gameID LIMIT ?"), sql);
+        Assertions.assertFalse(sql.contains("game,") || sql.contains("game_moves"), "Reads boards: " + sql);
+    }
+
+    private long count(String prefix) {
+        return database.executed.stream().filter(sql -> sql.startsWith(prefix)).count();
+    }
+
+    private static Map<String, Object> gameRow(int gameID, ChessGame snapshot, ChessMove move) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("gameID", gameID);
+        row.put("whiteUsername", "ann");
+        row.put("gameName", "game" + gameID);
+        row.put("game", GSON.toJson(snapshot));
+        if (move != null) {
+            row.put("move", MySqlDataAccess.packMove(move));
+        }
+        return row;
+    }
+
+    private static ChessGame play(int plies) throws Exception {
+        ChessGame game = new ChessGame();
+        for (int i = 0; i < plies; i++) {
+            game.makeMove(OPENING[i]);
+        }
+        return game;
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
@@ -0,0 +1,68 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.AuthData;
+import model.GameData;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Measures the latency of DAO calls with and without the pool's statement
+ * cache.
+ * <p>
+ * There is no MySQL server here, so a {@link FakeDatabase} stands in for a
+ * local one, waiting a set time for each prepare and each execute as the
+ * round trips to the server would. Each DAO call looks up an auth token and
+ * a game, then updates the game, the same mix a move makes.
+ * <p>
+ * Run with: java -cp server/target/server-test-dependencies.jar:server/target/test-classes dataaccess.StatementCacheBenchmark [prepare micros] [execute micros]
+ */
+public class StatementCacheBenchmark {
+
+    private static final int WARMUP_CALLS = 2_000;
+    private static final int CALLS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        long prepareMicros = args.length > 0 ? Long.parseLong(args[0]) : 100;
+        long executeMicros = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        System.out.printf("Prepare takes %d us, execute %d us%n", prepareMicros, executeMicros);
+        System.out.println("  cache    mean us     p50 us     p99 us   prepares/call");
+        for (int cacheSize : new int[]{0, 32}) {
+            FakeDatabase database = new FakeDatabase(prepareMicros * 1000, executeMicros * 1000);
+            database.row = Map.of("authToken", "token", "username", "ann", "gameID", 1, "gameName", "game",
+                    "game", "{}");
+            try (ConnectionPool pool = new ConnectionPool(database::open,
+                    new ConnectionPool.Settings(4, 1000, 60_000, 1_800_000, 0, cacheSize), 60_000)) {
+                MySqlDataAccess dao = new MySqlDataAccess(() -> {
+                    try {
+                        return pool.getConnection();
+                    } catch (SQLException ex) {
+                        throw new DataAccessException("failed to get connection", ex);
+                    }
+                });
+                for (int i = 0; i < WARMUP_CALLS; i++) {
+                    call(dao);
+                }
+                int preparesBefore = database.prepares.get();
+                long[] nanos = new long[CALLS];
+                for (int i = 0; i < CALLS; i++) {
+                    long start = System.nanoTime();
+                    call(dao);
+                    nanos[i] = System.nanoTime() - start;
+                }
+                Arrays.sort(nanos);
+                System.out.printf("%7s %10.1f %10.1f %10.1f %15.2f%n", cacheSize == 0 ? "off" : cacheSize,
+                        Arrays.stream(nanos).average().orElse(0) / 1000, nanos[CALLS / 2] / 1000.0,
+                        nanos[CALLS * 99 / 100] / 1000.0, (database.prepares.get() - preparesBefore) / (double) CALLS);
+            }
+        }
+    }
+
+    private static void call(MySqlDataAccess dao) throws DataAccessException {
+        AuthData auth = dao.getAuth("token");
+        GameData game = dao.getGame(1);
+        dao.updateGame(new GameData(game.gameID(), auth.username(), null, game.gameName(), new ChessGame()));
+    }
+}
@@ -0,0 +1,119 @@
+package dataaccess;
+
+import model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+
+public class StatementCacheTests {
+
+    private final FakeDatabase database = new FakeDatabase(0, 0);
+    private ConnectionPool pool;
+
+    private ConnectionPool pool(int statementCacheSize) {
+        pool = new ConnectionPool(database::open,
+                new ConnectionPool.Settings(2, 1000, 60_000, 60_000, 0, statementCacheSize), 60_000);
+        return pool;
+    }
+
+    @AfterEach
+    public void closePool() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("DAO Statements Are Prepared Once Per Connection")
+    public void preparedOnce() throws DataAccessException {
+        ConnectionPool pool = pool(8);
+        MySqlDataAccess dao = new MySqlDataAccess(() -> borrow(pool));
+        database.row = Map.of("username", "ann", "password", "hash", "email", "ann@mail.com");
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(new UserData("ann", "hash", "ann@mail.com"), dao.getUser("ann"));
+        }
+        Assertions.assertEquals(1, database.prepares.get());
+        Assertions.assertEquals(0, database.statementsClosed.get());
+        ConnectionPool.Metrics metrics = pool.getMetrics();
+        Assertions.assertEquals(99, metrics.statementHits());
+        Assertions.assertEquals(1, metrics.statementMisses());
+    }
+
+    @Test
+    @DisplayName("Without A Cache Every Call Prepares")
+    public void noCache() throws DataAccessException {
+        ConnectionPool pool = pool(0);
+        MySqlDataAccess dao = new MySqlDataAccess(() -> borrow(pool));
+        for (int i = 0; i < 10; i++) {
+            dao.getUser("ann");
+        }
+        Assertions.assertEquals(10, database.prepares.get());
+        Assertions.assertEquals(10, database.statementsClosed.get());
+    }
+
+    @Test
+    @DisplayName("Least Recently Used Statement Is Closed")
+    public void leastRecentlyUsed() throws SQLException {
+        try (Connection connection = pool(2).getConnection()) {
+            connection.prepareStatement("SELECT 1").close();
+            connection.prepareStatement("SELECT 2").close();
+            connection.prepareStatement("SELECT 1").close();
+            connection.prepareStatement("SELECT 3").close();
+            Assertions.assertEquals(3, database.prepares.get());
+            Assertions.assertEquals(1, database.statementsClosed.get());
+
+            connection.prepareStatement("SELECT 1").close();
+            Assertions.assertEquals(3, database.prepares.get());
+            connection.prepareStatement("SELECT 2").close();
+            Assertions.assertEquals(4, database.prepares.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Statement In Use Is Not Handed Out Twice")
+    public void inUse() throws SQLException {
+        try (Connection connection = pool(4).getConnection()) {
+            PreparedStatement first = connection.prepareStatement("SELECT 1");
+            PreparedStatement second = connection.prepareStatement("SELECT 1");
+            Assertions.assertNotSame(first, second);
+            Assertions.assertEquals(2, database.prepares.get());
+            second.close();
+            Assertions.assertEquals(1, database.statementsClosed.get());
+            first.close();
+            connection.prepareStatement("SELECT 1").close();
+            Assertions.assertEquals(2, database.prepares.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Closed Statement Cannot Be Used")
+    public void closedStatement() throws SQLException {
+        ConnectionPool pool = pool(4);
+        Connection connection = pool.getConnection();
+        PreparedStatement closed = connection.prepareStatement("SELECT ?");
+        closed.close();
+        Assertions.assertTrue(closed.isClosed());
+        Assertions.assertThrows(SQLException.class, () -> closed.setInt(1, 1));
+
+        PreparedStatement leftOpen = connection.prepareStatement("SELECT ?");
+        Assertions.assertSame(connection, leftOpen.getConnection());
+        connection.close();
+        Assertions.assertThrows(SQLException.class, leftOpen::executeQuery);
+        try (Connection next = pool.getConnection(); PreparedStatement statement = next.prepareStatement("SELECT ?")) {
+            statement.setInt(1, 1);
+        }
+        Assertions.assertEquals(1, database.prepares.get());
+    }
+
+    private static Connection borrow(ConnectionPool pool) throws DataAccessException {
+        try {
+            return pool.getConnection();
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to get connection", ex);
+        }
+    }
+}
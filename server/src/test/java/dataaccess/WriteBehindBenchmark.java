@@ -0,0 +1,102 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import model.GameData;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the latency of a move, read the game, play the move, store the
+ * game, when every move is written to MySQL at once and when moves are
+ * written behind in batches.
+ * <p>
+ * There is no MySQL server here, so the DAO talks to a {@link FakeDatabase}
+ * through the connection pool, and every statement waits a set time as a
+ * round trip to a local server would. Threads play knight moves back and
+ * forth in games of their own.
+ * <p>
+ * Run with: java -cp server/target/server-test-dependencies.jar:server/target/test-classes dataaccess.WriteBehindBenchmark [execute micros]
+ */
+public class WriteBehindBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int GAMES_PER_THREAD = 8;
+    private static final int MOVES_PER_THREAD = 2_000;
+    private static final ChessMove[] SHUFFLE = {
+            move(1, 7, 3, 6), move(8, 7, 6, 6), move(3, 6, 1, 7), move(6, 6, 8, 7),
+    };
+
+    public static void main(String[] args) throws Exception {
+        long executeMicros = args.length > 0 ? Long.parseLong(args[0]) : 200;
+        System.out.printf("Fake MySQL statements take %d us, %d threads%n", executeMicros, THREADS);
+        System.out.println("writes          mean us     p99 us   statements/move");
+        for (boolean writeBehind : new boolean[]{false, true}) {
+            FakeDatabase database = new FakeDatabase(executeMicros * 1000, executeMicros * 1000);
+            database.row = Map.of("gameID", 1, "gameName", "game", "game", new Gson().toJson(new ChessGame()));
+            try (ConnectionPool pool = new ConnectionPool(database::open,
+                    new ConnectionPool.Settings(16, 10_000, 60_000, 1_800_000, 0, 32), 60_000)) {
+                DataAccess mysql = new MySqlDataAccess(() -> {
+                    try {
+                        return pool.getConnection();
+                    } catch (SQLException ex) {
+                        throw new DataAccessException("failed to get connection", ex);
+                    }
+                });
+                DataAccess dao = writeBehind ? WriteBehindDataAccess.start(mysql, 200, 64) : mysql;
+                int executesBefore = database.executes.get();
+                long[] nanos = play(dao);
+                if (dao instanceof WriteBehindDataAccess closing) {
+                    closing.close();
+                }
+                Arrays.sort(nanos);
+                System.out.printf("%-12s %10.1f %10.1f %17.2f%n", writeBehind ? "write-behind" : "every move",
+                        Arrays.stream(nanos).average().orElse(0) / 1000, nanos[nanos.length * 99 / 100] / 1000.0,
+                        (database.executes.get() - executesBefore) / (double) nanos.length);
+            }
+        }
+    }
+
+    private static long[] play(DataAccess dao) throws Exception {
+        long[] nanos = new long[THREADS * MOVES_PER_THREAD];
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < MOVES_PER_THREAD; i++) {
+                    // the fake database has one game, so only the write-behind copies move on
+                    int gameID = 1 + thread * GAMES_PER_THREAD + i % GAMES_PER_THREAD;
+                    long start = System.nanoTime();
+                    GameData game = dao.getGame(gameID);
+                    game = new GameData(gameID, null, null, game.gameName(), game.game());
+                    game.game().makeMove(SHUFFLE[game.game().getMoveHistory().size() % SHUFFLE.length]);
+                    dao.updateGame(game);
+                    nanos[thread * MOVES_PER_THREAD + i] = System.nanoTime() - start;
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return nanos;
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
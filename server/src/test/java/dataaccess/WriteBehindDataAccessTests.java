@@ -0,0 +1,296 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.GameData;
+import model.GameSummary;
+import model.MoveData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class WriteBehindDataAccessTests {
+
+    // counts the writes that reach the database, and can be made to fail them
+    private static class CountingDataAccess extends MemoryDataAccess {
+        final AtomicInteger batches = new AtomicInteger();
+        final AtomicInteger gamesWritten = new AtomicInteger();
+        final AtomicInteger moveBatches = new AtomicInteger();
+        volatile boolean failing;
+        // runs once the next getGame has read the game, before it returns
+        volatile Runnable afterRead;
+
+        @Override
+        public GameData getGame(int gameID) {
+            GameData game = super.getGame(gameID);
+            Runnable hook = afterRead;
+            if (hook != null) {
+                afterRead = null;
+                hook.run();
+            }
+            return game;
+        }
+
+        @Override
+        public void updateGames(Collection<GameData> games) throws DataAccessException {
+            if (failing) {
+                throw new DataAccessException("database down");
+            }
+            batches.incrementAndGet();
+            gamesWritten.addAndGet(games.size());
+            super.updateGames(games);
+        }
+
+        @Override
+        public void addMoves(Collection<MoveData> moves) throws DataAccessException {
+            if (failing) {
+                throw new DataAccessException("database down");
+            }
+            moveBatches.incrementAndGet();
+            super.addMoves(moves);
+        }
+    }
+
+    private final CountingDataAccess database = new CountingDataAccess();
+    private WriteBehindDataAccess dao;
+
+    @AfterEach
+    public void close() throws DataAccessException {
+        database.failing = false;
+        dao.close();
+    }
+
+    @Test
+    @DisplayName("Moves In One Game Are Coalesced Into One Write")
+    public void coalesce() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 60_000, 100);
+        int gameID = dao.createGame("game");
+        ChessMove[] moves = {move(1, 7, 3, 6), move(8, 7, 6, 6), move(3, 6, 1, 7), move(6, 6, 8, 7), move(2, 5, 4, 5)};
+        for (ChessMove move : moves) {
+            GameData game = dao.getGame(gameID);
+            game.game().makeMove(move);
+            dao.updateGame(game);
+        }
+        Assertions.assertEquals(new ChessGame(), database.getGame(gameID).game(), "Written before a flush");
+        Assertions.assertEquals(5, dao.getGame(gameID).game().getMoveHistory().size());
+        Assertions.assertEquals(1, dao.getPendingWrites());
+
+        dao.flush();
+        Assertions.assertEquals(1, database.batches.get());
+        Assertions.assertEquals(1, database.gamesWritten.get());
+        Assertions.assertEquals(dao.getGame(gameID).game(), database.getGame(gameID).game());
+    }
+
+    @Test
+    @DisplayName("Changes Are Written Within The Flush Interval")
+    public void interval() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 50, 100);
+        int first = dao.createGame("first");
+        int second = dao.createGame("second");
+        play(first, move(2, 5, 4, 5));
+        play(second, move(2, 4, 4, 4));
+        waitFor(() -> dao.getPendingWrites() == 0);
+        Assertions.assertEquals(1, database.batches.get());
+        Assertions.assertEquals(2, database.gamesWritten.get());
+    }
+
+    @Test
+    @DisplayName("A Full Batch Is Written Early")
+    public void batchSize() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 60_000, 4);
+        for (int i = 0; i < 4; i++) {
+            play(dao.createGame("game" + i), move(2, 5, 4, 5));
+        }
+        waitFor(() -> database.gamesWritten.get() == 4);
+        Assertions.assertEquals(4, database.gamesWritten.get());
+    }
+
+    @Test
+    @DisplayName("Game End And Close Write At Once")
+    public void forcedFlush() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 60_000, 100);
+        int other = dao.createGame("other");
+        play(other, move(2, 4, 4, 4));
+        int gameID = dao.createGame("fool's mate");
+        play(gameID, move(2, 6, 3, 6));
+        play(gameID, move(7, 5, 5, 5));
+        play(gameID, move(2, 7, 4, 7));
+        Assertions.assertEquals(0, database.batches.get());
+        play(gameID, move(8, 4, 4, 8));
+        Assertions.assertTrue(database.getGame(gameID).game().isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(2, database.gamesWritten.get());
+
+        int last = dao.createGame("last");
+        play(last, move(2, 5, 4, 5));
+        dao.close();
+        Assertions.assertEquals(1, database.getGame(last).game().getMoveHistory().size());
+    }
+
+    @Test
+    @DisplayName("Failed Flush Keeps Its Games For The Next One")
+    public void retry() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 60_000, 100);
+        int gameID = dao.createGame("game");
+        play(gameID, move(2, 5, 4, 5));
+        database.failing = true;
+        Assertions.assertThrows(DataAccessException.class, dao::flush);
+        Assertions.assertEquals(1, dao.getPendingWrites());
+        database.failing = false;
+        dao.flush();
+        Assertions.assertEquals(1, database.getGame(gameID).game().getMoveHistory().size());
+    }
+
+    @Test
+    @DisplayName("Join And List See Pending Moves")
+    public void joinAndList() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 60_000, 100);
+        int gameID = dao.createGame("game");
+        play(gameID, move(2, 5, 4, 5));
+        Assertions.assertTrue(dao.joinGame(gameID, ChessGame.TeamColor.WHITE, "ann"));
+        GameData game = dao.getGame(gameID);
+        Assertions.assertEquals("ann", game.whiteUsername());
+        Assertions.assertEquals(1, game.game().getMoveHistory().size());
+        play(gameID, move(7, 5, 5, 5));
+        Assertions.assertEquals(2, dao.listGames().iterator().next().game().getMoveHistory().size());
+    }
+
+    @Test
+    @DisplayName("Writing Back A Copy Read Before A Join Keeps The Seat")
+    public void staleCopyAfterJoin() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 60_000, 100);
+        int gameID = dao.createGame("game");
+        GameData beforeJoin = dao.getGame(gameID);
+        Assertions.assertTrue(dao.joinGame(gameID, ChessGame.TeamColor.WHITE, "ann"));
+        beforeJoin.game().makeMove(move(2, 5, 4, 5));
+        dao.updateGame(beforeJoin);
+        Assertions.assertEquals("ann", dao.getGame(gameID).whiteUsername());
+
+        Assertions.assertTrue(dao.joinGame(gameID, ChessGame.TeamColor.BLACK, "bob"));
+        ChessMove reply = move(7, 5, 5, 5);
+        beforeJoin.game().makeMove(reply);
+        dao.addMove(beforeJoin, reply);
+        GameData game = dao.getGame(gameID);
+        Assertions.assertEquals("ann", game.whiteUsername());
+        Assertions.assertEquals("bob", game.blackUsername());
+        Assertions.assertEquals(2, game.game().getPlyCount());
+
+        dao.flush();
+        game = database.getGame(gameID);
+        Assertions.assertEquals("ann", game.whiteUsername());
+        Assertions.assertEquals("bob", game.blackUsername());
+    }
+
+    @Test
+    @DisplayName("A Join During A Load Is Not Lost")
+    public void joinDuringLoad() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 60_000, 100);
+        int gameID = dao.createGame("game");
+        Thread[] joiner = new Thread[1];
+        database.afterRead = () -> {
+            joiner[0] = Thread.ofPlatform().start(() -> {
+                try {
+                    dao.joinGame(gameID, ChessGame.TeamColor.WHITE, "ann");
+                } catch (DataAccessException ex) {
+                    throw new RuntimeException(ex);
+                }
+            });
+            // gives the join the time to finish if it does not wait for the load
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Assertions.assertNull(dao.getGame(gameID).whiteUsername());
+        joiner[0].join();
+        Assertions.assertEquals("ann", dao.getGame(gameID).whiteUsername());
+    }
+
+    @Test
+    @DisplayName("Idle Games Are Dropped Once Written")
+    public void evictIdle() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 60_000, 100);
+        int idle = dao.createGame("idle");
+        int pending = dao.createGame("pending");
+        dao.getGame(idle);
+        play(pending, move(2, 5, 4, 5));
+        Assertions.assertEquals(2, dao.getCachedGames());
+
+        database.failing = true;
+        Assertions.assertThrows(DataAccessException.class, dao::flush);
+        database.failing = false;
+        dao.flush();
+        Assertions.assertEquals(2, dao.getCachedGames(), "Used since the last flush");
+        dao.flush();
+        Assertions.assertEquals(0, dao.getCachedGames());
+        Assertions.assertEquals(1, dao.getGame(pending).game().getPlyCount());
+    }
+
+    @Test
+    @DisplayName("Summaries Do Not Flush And Show Pending Names")
+    public void summaries() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 60_000, 100);
+        int gameID = dao.createGame("game");
+        Assertions.assertTrue(dao.joinGame(gameID, ChessGame.TeamColor.WHITE, "ann"));
+        GameData game = dao.getGame(gameID);
+        ChessMove move = move(2, 5, 4, 5);
+        game.game().makeMove(move);
+        dao.addMove(game, move);
+        dao.updateGame(new GameData(gameID, null, null, "renamed", game.game()));
+
+        Assertions.assertEquals(List.of(new GameSummary(gameID, "ann", null, "renamed")),
+                dao.listGameSummaries(0, 10));
+        Assertions.assertEquals(2, dao.getPendingWrites());
+        Assertions.assertEquals(0, database.batches.get() + database.moveBatches.get());
+    }
+
+    @Test
+    @DisplayName("Moves Are Queued And Appended In One Batch")
+    public void moves() throws Exception {
+        dao = WriteBehindDataAccess.start(database, 60_000, 100);
+        int gameID = dao.createGame("game");
+        ChessMove[] moves = {move(1, 7, 3, 6), move(8, 7, 6, 6), move(3, 6, 1, 7), move(6, 6, 8, 7)};
+        for (ChessMove move : moves) {
+            GameData game = dao.getGame(gameID);
+            game.game().makeMove(move);
+            dao.addMove(game, move);
+        }
+        Assertions.assertEquals(4, dao.getPendingWrites());
+        Assertions.assertEquals(4, dao.getGame(gameID).game().getPlyCount());
+        Assertions.assertEquals(0, database.getGame(gameID).game().getPlyCount(), "Written before a flush");
+
+        database.failing = true;
+        Assertions.assertThrows(DataAccessException.class, dao::flush);
+        Assertions.assertEquals(4, dao.getPendingWrites());
+        database.failing = false;
+        dao.flush();
+        Assertions.assertEquals(0, dao.getPendingWrites());
+        Assertions.assertEquals(1, database.moveBatches.get());
+        Assertions.assertEquals(0, database.batches.get());
+        Assertions.assertEquals(dao.getGame(gameID).game(), database.getGame(gameID).game());
+    }
+
+    private void play(int gameID, ChessMove move) throws DataAccessException, InvalidMoveException {
+        GameData game = dao.getGame(gameID);
+        game.game().makeMove(move);
+        dao.updateGame(game);
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+    }
+}
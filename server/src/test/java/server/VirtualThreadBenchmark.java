@@ -0,0 +1,95 @@
+package server;
+
+import io.javalin.Javalin;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares how many concurrent slow requests the server sustains on Jetty's
+ * platform thread pool and on virtual threads.
+ * <p>
+ * Each request sleeps in its handler, standing in for a bcrypt hash or a
+ * JDBC round trip. Bursts of growing size are sent at once, each one twice
+ * so the second runs over connections the first opened, and the latency
+ * percentiles of the second are printed. Latency breaks down once a burst is
+ * bigger than the number of threads that can block at the same time, and
+ * requests start waiting for a free thread.
+ * <p>
+ * Run with: java -cp server/target/server-test-dependencies.jar:server/target/test-classes server.VirtualThreadBenchmark
+ */
+public class VirtualThreadBenchmark {
+
+    private static final int[] BURSTS = {50, 100, 200, 400, 800, 1600};
+    private static final long HANDLER_MILLIS = 100;
+    // a burst counts as sustained while its 99th percentile stays under this multiple of the handler time
+    private static final double SUSTAINED_FACTOR = 2;
+
+    public static void main(String[] args) throws Exception {
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            Javalin javalin = Server.createJavalin(virtualThreads);
+            javalin.get("/slow", ctx -> {
+                Thread.sleep(HANDLER_MILLIS);
+                ctx.result("ok");
+            });
+            int port = javalin.start(0).port();
+            System.out.printf("%n%s, handler sleeps %d ms%n", virtualThreads ? "Virtual threads" : "Platform thread pool",
+                    HANDLER_MILLIS);
+            System.out.println("  burst     p50 ms     p99 ms     max ms   failed");
+            int sustained = 0;
+            boolean holding = true;
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients)
+                        .connectTimeout(Duration.ofSeconds(30)).build();
+                for (int size : BURSTS) {
+                    // the first burst of a size opens the connections, the second is measured
+                    burst(client, port, size);
+                    long[] latencies = burst(client, port, size);
+                    int failed = (int) Arrays.stream(latencies).filter(latency -> latency < 0).count();
+                    long[] sorted = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+                    long p99 = percentile(sorted, 0.99);
+                    System.out.printf("%7d %10d %10d %10d %8d%n", size, percentile(sorted, 0.5), p99,
+                            sorted.length == 0 ? 0 : sorted[sorted.length - 1], failed);
+                    holding &= failed == 0 && p99 < HANDLER_MILLIS * SUSTAINED_FACTOR;
+                    if (holding) {
+                        sustained = size;
+                    }
+                }
+            } finally {
+                javalin.stop();
+            }
+            System.out.printf("Sustained up to %d concurrent requests with p99 under %d ms%n", sustained,
+                    (long) (HANDLER_MILLIS * SUSTAINED_FACTOR));
+        }
+    }
+
+    // sends size requests at once, returns each one's latency in milliseconds, or -1 if it failed
+    private static long[] burst(HttpClient client, int port, int size) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/slow"))
+                .timeout(Duration.ofSeconds(60)).build();
+        List<CompletableFuture<Long>> pending = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            long start = System.nanoTime();
+            pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(response -> response.statusCode() == 200 ? (System.nanoTime() - start) / 1_000_000 : -1L)
+                    .exceptionally(ex -> -1L));
+        }
+        return pending.stream().mapToLong(CompletableFuture::join).toArray();
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,61 @@
+package service;
+
+import chess.ChessGame;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import model.GameSummary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameServiceTests {
+
+    private final MemoryDataAccess dataAccess = new MemoryDataAccess();
+    private final GameService service = new GameService(dataAccess);
+
+    @BeforeEach
+    public void login() throws Exception {
+        dataAccess.createAuth(new AuthData("token", "ann"));
+    }
+
+    @Test
+    @DisplayName("Pages Cover Every Game Once In ID Order")
+    public void pages() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            dataAccess.createGame("game" + i);
+        }
+        dataAccess.joinGame(12, ChessGame.TeamColor.BLACK, "bob");
+        List<Integer> listed = new ArrayList<>();
+        List<GameSummary> page;
+        int after = 0;
+        do {
+            page = service.listGames("token", after, 10);
+            for (GameSummary game : page) {
+                listed.add(game.gameID());
+                after = game.gameID();
+            }
+        } while (page.size() == 10);
+        Assertions.assertEquals(25, listed.size());
+        for (int i = 0; i < listed.size(); i++) {
+            Assertions.assertEquals(i + 1, listed.get(i));
+        }
+        Assertions.assertEquals(new GameSummary(12, null, "bob", "game11"), service.listGames("token", 11, 1).get(0));
+    }
+
+    @Test
+    @DisplayName("Listing Needs A Login And A Valid Page")
+    public void invalid() {
+        ServiceException unauthorized = Assertions.assertThrows(ServiceException.class,
+                () -> service.listGames("unknown", 0, 10));
+        Assertions.assertEquals(401, unauthorized.getStatusCode());
+        for (int[] page : new int[][]{{-1, 10}, {0, 0}, {0, GameService.MAX_PAGE_SIZE + 1}}) {
+            ServiceException bad = Assertions.assertThrows(ServiceException.class,
+                    () -> service.listGames("token", page[0], page[1]));
+            Assertions.assertEquals(400, bad.getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package service;
+
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import model.LoginRequest;
+import model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+public class UserServiceTests {
+
+    private static final UserData ANN = new UserData("ann", "secret", "ann@mail.com");
+
+    private final MemoryDataAccess dataAccess = new MemoryDataAccess();
+    private final PasswordHasher hasher = new PasswordHasher(2, 16, 4);
+    private final UserService service = new UserService(dataAccess, hasher);
+
+    @AfterEach
+    public void closeHasher() {
+        hasher.close();
+    }
+
+    @Test
+    @DisplayName("Register, Login And Logout")
+    public void registerLoginLogout() throws Exception {
+        AuthData registered = service.register(ANN);
+        Assertions.assertEquals("ann", registered.username());
+        Assertions.assertNotEquals("secret", dataAccess.getUser("ann").password(), "Password stored in clear text");
+
+        AuthData loggedIn = service.login(new LoginRequest("ann", "secret"));
+        Assertions.assertNotEquals(registered.authToken(), loggedIn.authToken());
+        service.logout(loggedIn.authToken());
+        Assertions.assertNull(dataAccess.getAuth(loggedIn.authToken()));
+        Assertions.assertNotNull(dataAccess.getAuth(registered.authToken()));
+
+        PasswordHasher.Metrics metrics = hasher.getMetrics();
+        Assertions.assertEquals(2, metrics.completed());
+        Assertions.assertEquals(0, metrics.rejected());
+    }
+
+    @Test
+    @DisplayName("Bad Requests Are Refused With Their Status")
+    public void errors() throws Exception {
+        service.register(ANN);
+        assertStatus(403, () -> service.register(new UserData("ann", "other", "other@mail.com")));
+        assertStatus(400, () -> service.register(new UserData("bob", null, "bob@mail.com")));
+        assertStatus(401, () -> service.login(new LoginRequest("ann", "wrong")));
+        assertStatus(401, () -> service.login(new LoginRequest("bob", "secret")));
+        assertStatus(400, () -> service.login(new LoginRequest("ann", "")));
+        assertStatus(401, () -> service.logout("not a token"));
+        Assertions.assertEquals(2, hasher.getMetrics().completed(), "Only the registration and the wrong password should be hashed");
+    }
+
+    @Test
+    @DisplayName("Hash Failure Hides Its Cause From The Client")
+    public void hashFailure() {
+        ServiceException ex = Assertions.assertThrows(ServiceException.class,
+                () -> hasher.verify("secret", "not a bcrypt hash"));
+        Assertions.assertEquals(500, ex.getStatusCode());
+        Assertions.assertEquals("Error: failed to hash password", ex.getMessage());
+        Assertions.assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+    }
+
+    @Test
+    @DisplayName("Full Hash Queue Fails Fast With 503")
+    public void overload() throws Exception {
+        // one slow hash running and one waiting fill a hasher with one thread and a queue of one
+        PasswordHasher small = new PasswordHasher(1, 1, 13);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> running = new ArrayList<>();
+            running.add(callers.submit(() -> small.hash("first")));
+            waitFor(() -> small.getMetrics().active() == 1);
+            running.add(callers.submit(() -> small.hash("second")));
+            waitFor(() -> small.getMetrics().queued() == 1);
+
+            long start = System.nanoTime();
+            assertStatus(503, () -> small.hash("third"));
+            Assertions.assertTrue(System.nanoTime() - start < 100_000_000, "Overloaded hasher should not wait");
+            Assertions.assertEquals(1, small.getMetrics().rejected());
+
+            for (Future<String> hash : running) {
+                Assertions.assertNotNull(hash.get());
+            }
+            PasswordHasher.Metrics metrics = small.getMetrics();
+            Assertions.assertEquals(2, metrics.completed());
+            Assertions.assertTrue(metrics.maxQueueWaitMillis() > 0);
+            Assertions.assertTrue(metrics.totalHashMillis() >= metrics.maxHashMillis());
+        } finally {
+            callers.shutdownNow();
+            small.close();
+        }
+    }
+
+    private interface Call {
+        void run() throws ServiceException, DataAccessException;
+    }
+
+    private static void assertStatus(int status, Call call) {
+        ServiceException ex = Assertions.assertThrows(ServiceException.class, call::run);
+        Assertions.assertEquals(status, ex.getStatusCode());
+        Assertions.assertTrue(ex.getMessage().startsWith("Error:"));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Holds the positions of many live games in one block of off-heap memory.
+ * <p>
+ * Every game gets a fixed 64 byte slot:
+ * <pre>
+ * bytes  0-31   the board, one 4 bit piece code per square (0 empty, 1-6 white, 7-12 black)
+ * bytes 32-35   the packed game state, see GameState
+ * bytes 36-39   1 while the slot is in use
+ * bytes 40-47   the Zobrist key of the position
+ * bytes 48-63   reserved
+ * </pre>
+ * A game in the store costs no heap objects at all. To work with one, either
+ * read it through a {@link View} or load it into a reusable ChessGame, play
+ * the move and save it back. Repetition history is not kept in the slot, so a
+ * loaded game only knows about repeats from the point it was loaded.
+ * <p>
+ * Allocating and releasing slots is thread safe. Reads and writes of one slot
+ * are not synchronized, so callers must not update the same game from two
+ * threads at once.
+ */
+public class ActiveGameStore {
+
+    public static final int SLOT_BYTES = 64;
+
+    private static final int BOARD_OFFSET = 0;
+    private static final int STATE_OFFSET = 32;
+    private static final int IN_USE_OFFSET = 36;
+    private static final int KEY_OFFSET = 40;
+
+    // pieces never change, so every slot shares these 12 instances
+    private static final ChessPiece[] PIECES = new ChessPiece[13];
+
+    static {
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            PIECES[1 + type.ordinal()] = new ChessPiece(ChessGame.TeamColor.WHITE, type);
+            PIECES[7 + type.ordinal()] = new ChessPiece(ChessGame.TeamColor.BLACK, type);
+        }
+    }
+
+    // a slot in use holding the starting position, copied into every new slot
+    private static final byte[] START_SLOT = new byte[SLOT_BYTES];
+
+    static {
+        ByteBuffer start = ByteBuffer.wrap(START_SLOT);
+        write(start, 0, new ChessGame());
+        start.putInt(IN_USE_OFFSET, 1);
+    }
+
+    private final ByteBuffer slots;
+    private final int capacity;
+    private final int[] freeSlots;
+    private int freeCount;
+
+    /**
+     * @param capacity the most games the store can hold at once
+     */
+    public ActiveGameStore(int capacity) {
+        if (capacity <= 0 || (long) capacity * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        this.freeSlots = new int[capacity];
+        // hand out low slots first
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i;
+        }
+        this.freeCount = capacity;
+    }
+
+    /**
+     * Reserves a slot and puts a new game in it
+     *
+     * @return the slot number of the new game
+     * @throws IllegalStateException if every slot is in use
+     */
+    public int allocate() {
+        int slot;
+        synchronized (this) {
+            if (freeCount == 0) {
+                throw new IllegalStateException("Game store is full");
+            }
+            slot = freeSlots[--freeCount];
+            slots.put(slot * SLOT_BYTES, START_SLOT);
+        }
+        return slot;
+    }
+
+    /**
+     * Frees a slot so it can be handed out again
+     *
+     * @param slot a slot returned by allocate
+     */
+    public synchronized void release(int slot) {
+        checkInUse(slot);
+        slots.putInt(slot * SLOT_BYTES + IN_USE_OFFSET, 0);
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * @return how many slots are in use
+     */
+    public synchronized int size() {
+        return capacity - freeCount;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Copies a game's board and state into a slot
+     *
+     * @param slot the slot to write
+     * @param game the game to save
+     */
+    public void save(int slot, ChessGame game) {
+        checkInUse(slot);
+        write(slots, slot * SLOT_BYTES, game);
+    }
+
+    /**
+     * Overwrites a game with the position stored in a slot. Reusing the same
+     * ChessGame for many slots avoids building a board per request.
+     *
+     * @param slot the slot to read
+     * @param game the game to load the position into
+     */
+    public void load(int slot, ChessGame game) {
+        checkInUse(slot);
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            board.addPiece(positionOf(square), PIECES[pieceCodeAt(slot, square)]);
+        }
+        game.restoreState(slots.getInt(slot * SLOT_BYTES + STATE_OFFSET));
+    }
+
+    /**
+     * Loads a game, makes a move in it and saves the result back to its slot
+     *
+     * @param slot    the game to move in
+     * @param move    the move to make
+     * @param scratch a reusable game used to check and play the move
+     * @throws InvalidMoveException if the move is not legal in the stored position
+     */
+    public void makeMove(int slot, ChessMove move, ChessGame scratch) throws InvalidMoveException {
+        load(slot, scratch);
+        scratch.makeMove(move);
+        save(slot, scratch);
+    }
+
+    /**
+     * Gets a read-only view of a slot that reads straight from the store
+     *
+     * @param slot the slot to view
+     * @return a view over that slot
+     */
+    public View view(int slot) {
+        checkInUse(slot);
+        return new View(slot);
+    }
+
+    /**
+     * A flyweight over one slot. It holds nothing but the slot number, so
+     * reading a piece or the turn never copies the board.
+     */
+    public final class View {
+        private final int slot;
+
+        private View(int slot) {
+            this.slot = slot;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
+
+        public ChessPiece getPiece(ChessPosition position) {
+            return PIECES[pieceCodeAt(slot, (position.getRow() - 1) * 8 + position.getColumn() - 1)];
+        }
+
+        public ChessGame.TeamColor getTeamTurn() {
+            return GameState.sideToMove(getState());
+        }
+
+        public int getState() {
+            return slots.getInt(slot * SLOT_BYTES + STATE_OFFSET);
+        }
+
+        public long getPositionKey() {
+            return slots.getLong(slot * SLOT_BYTES + KEY_OFFSET);
+        }
+
+        /**
+         * @return a new ChessGame holding this slot's position
+         */
+        public ChessGame toGame() {
+            ChessGame game = new ChessGame();
+            load(slot, game);
+            return game;
+        }
+    }
+
+    private static void write(ByteBuffer buffer, int base, ChessGame game) {
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square += 2) {
+            int low = pieceCode(board.getPiece(positionOf(square)));
+            int high = pieceCode(board.getPiece(positionOf(square + 1)));
+            buffer.put(base + BOARD_OFFSET + square / 2, (byte) (low | (high << 4)));
+        }
+        buffer.putInt(base + STATE_OFFSET, game.getState());
+        buffer.putLong(base + KEY_OFFSET, game.getPositionKey());
+    }
+
+    private int pieceCodeAt(int slot, int square) {
+        int packed = slots.get(slot * SLOT_BYTES + BOARD_OFFSET + square / 2);
+        return (square & 1) == 0 ? packed & 0xF : (packed >>> 4) & 0xF;
+    }
+
+    private static int pieceCode(ChessPiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        int code = 1 + piece.getPieceType().ordinal();
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? code : code + 6;
+    }
+
+    private static ChessPosition positionOf(int square) {
+        return new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+
+    private void checkInUse(int slot) {
+        if (slot < 0 || slot >= capacity || slots.getInt(slot * SLOT_BYTES + IN_USE_OFFSET) == 0) {
+            throw new IllegalArgumentException("Slot " + slot + " is not in use");
+        }
+    }
+}
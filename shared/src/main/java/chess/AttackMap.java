@@ -0,0 +1,192 @@
+package chess;
+
+/**
+ * How many pieces of each team attack each square of a board, plus where
+ * each king is.
+ * <p>
+ * ChessBoard builds the map the first time it is asked about attacks and
+ * then updates it on every addPiece. A change only touches the attacks of
+ * the piece that left or arrived and of the rooks, bishops and queens whose
+ * lines run through the square, so a move costs a handful of short scans
+ * instead of regenerating every piece's moves.
+ */
+final class AttackMap {
+
+    private static final int[][] KNIGHT_JUMPS = {
+            {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}
+    };
+    // the first four directions are straight lines, the rest diagonals
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+
+    private final ChessPiece[][] squares;
+    // team ordinal * 64 + square, where square is (row - 1) * 8 + column - 1
+    private final int[] counts = new int[128];
+    private final long[] attacked = new long[2];
+    private final int[] kingCounts = new int[2];
+    private final int[] kingSquares = new int[2];
+
+    AttackMap(ChessPiece[][] squares) {
+        this.squares = squares;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = squares[row - 1][col - 1];
+                if (piece != null) {
+                    addAttacks(piece, row, col, 1);
+                    trackKing(piece, row, col, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the squares array this map describes
+     */
+    ChessPiece[][] squares() {
+        return squares;
+    }
+
+    /**
+     * Brings the map up to date after a square has changed. The squares
+     * array must already hold the new piece.
+     */
+    void pieceChanged(int row, int col, ChessPiece old, ChessPiece piece) {
+        if (old != null) {
+            addAttacks(old, row, col, -1);
+            trackKing(old, row, col, -1);
+        }
+        if ((old == null) != (piece == null)) {
+            // lines through the square are now blocked, or open again
+            updateLinesThrough(row, col, piece == null ? 1 : -1);
+        }
+        if (piece != null) {
+            addAttacks(piece, row, col, 1);
+            trackKing(piece, row, col, 1);
+        }
+    }
+
+    long attackedSquares(ChessGame.TeamColor team) {
+        return attacked[team.ordinal()];
+    }
+
+    int attackerCount(int row, int col, ChessGame.TeamColor team) {
+        return counts[team.ordinal() * 64 + (row - 1) * 8 + col - 1];
+    }
+
+    /**
+     * @return the square of the team's king, or -1 unless it has exactly one
+     */
+    int kingSquare(ChessGame.TeamColor team) {
+        return kingCounts[team.ordinal()] == 1 ? kingSquares[team.ordinal()] : -1;
+    }
+
+    private void addAttacks(ChessPiece piece, int row, int col, int delta) {
+        int team = piece.getTeamColor().ordinal();
+        switch (piece.getPieceType()) {
+            case PAWN -> {
+                int ahead = piece.getTeamColor() == ChessGame.TeamColor.WHITE ? row + 1 : row - 1;
+                mark(team, ahead, col - 1, delta);
+                mark(team, ahead, col + 1, delta);
+            }
+            case KNIGHT -> {
+                for (int[] jump : KNIGHT_JUMPS) {
+                    mark(team, row + jump[0], col + jump[1], delta);
+                }
+            }
+            case KING -> {
+                for (int[] step : DIRECTIONS) {
+                    mark(team, row + step[0], col + step[1], delta);
+                }
+            }
+            default -> {
+                for (int d = 0; d < DIRECTIONS.length; d++) {
+                    if (slidesAlong(piece, d)) {
+                        markLine(team, row, col, DIRECTIONS[d][0], DIRECTIONS[d][1], delta);
+                    }
+                }
+            }
+        }
+    }
+
+    // finds the slider behind the square in each direction and extends or cuts its line past the square
+    private void updateLinesThrough(int row, int col, int delta) {
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int rowStep = DIRECTIONS[d][0];
+            int colStep = DIRECTIONS[d][1];
+            int r = row + rowStep;
+            int c = col + colStep;
+            while (onBoard(r, c) && squares[r - 1][c - 1] == null) {
+                r += rowStep;
+                c += colStep;
+            }
+            if (!onBoard(r, c)) {
+                continue;
+            }
+            ChessPiece slider = squares[r - 1][c - 1];
+            if (slidesAlong(slider, d)) {
+                markLine(slider.getTeamColor().ordinal(), row, col, -rowStep, -colStep, delta);
+            }
+        }
+    }
+
+    // marks each square from the one after (row, col) up to and including the first piece
+    private void markLine(int team, int row, int col, int rowStep, int colStep, int delta) {
+        int r = row + rowStep;
+        int c = col + colStep;
+        while (onBoard(r, c)) {
+            mark(team, r, c, delta);
+            if (squares[r - 1][c - 1] != null) {
+                return;
+            }
+            r += rowStep;
+            c += colStep;
+        }
+    }
+
+    private void mark(int team, int row, int col, int delta) {
+        if (!onBoard(row, col)) {
+            return;
+        }
+        int square = (row - 1) * 8 + col - 1;
+        int count = counts[team * 64 + square] += delta;
+        if (count == 0) {
+            attacked[team] &= ~(1L << square);
+        } else {
+            attacked[team] |= 1L << square;
+        }
+    }
+
+    private void trackKing(ChessPiece piece, int row, int col, int delta) {
+        if (piece.getPieceType() != ChessPiece.PieceType.KING) {
+            return;
+        }
+        int team = piece.getTeamColor().ordinal();
+        kingCounts[team] += delta;
+        if (delta > 0) {
+            kingSquares[team] = (row - 1) * 8 + col - 1;
+        } else if (kingCounts[team] == 1) {
+            // two kings became one, so look for the one that is left
+            for (int square = 0; square < 64; square++) {
+                ChessPiece other = squares[square / 8][square % 8];
+                if (other != null && other.getPieceType() == ChessPiece.PieceType.KING
+                        && other.getTeamColor().ordinal() == team) {
+                    kingSquares[team] = square;
+                }
+            }
+        }
+    }
+
+    private static boolean slidesAlong(ChessPiece piece, int direction) {
+        return switch (piece.getPieceType()) {
+            case QUEEN -> true;
+            case ROOK -> direction < 4;
+            case BISHOP -> direction >= 4;
+            default -> false;
+        };
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+}
@@ -1,6 +1,8 @@
 package chess;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -12,6 +14,31 @@ import java.util.Objects;
 public class ChessBoard {
 
     ChessPiece[][] squares = new ChessPiece[8][8];
+    // Zobrist key of the pieces on the board, kept up to date by addPiece
+    private transient long zobristKey;
+    // the squares array zobristKey belongs to, so a replaced or deserialized array gets rehashed
+    private transient ChessPiece[][] keyedSquares;
+    // attack counts, built on first use and then kept up to date by addPiece
+    private transient AttackMap attackMap;
+    // told about every change, for evaluators that keep their own incremental state; null for none
+    private transient Listener[] listeners;
+
+    /**
+     * Receives every change made to a board
+     */
+    public interface Listener {
+
+        /**
+         * Called after a square changes
+         *
+         * @param row   the square's row, 1 to 8
+         * @param col   the square's column, 1 to 8
+         * @param old   the piece that was there, or null
+         * @param piece the piece now there, or null
+         */
+        void pieceChanged(int row, int col, ChessPiece old, ChessPiece piece);
+    }
+
     public ChessBoard() {
         
     }
@@ -23,7 +50,122 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        int row = position.getRow();
+        int col = position.getColumn();
+        ChessPiece old = squares[row-1][col-1];
+        squares[row-1][col-1] = piece;
+        if (keyedSquares == squares) {
+            zobristKey ^= Zobrist.pieceKey(old, row, col) ^ Zobrist.pieceKey(piece, row, col);
+        }
+        if (attackMap != null && attackMap.squares() == squares) {
+            attackMap.pieceChanged(row, col, old, piece);
+        }
+        if (listeners != null) {
+            for (Listener listener : listeners) {
+                listener.pieceChanged(row, col, old, piece);
+            }
+        }
+    }
+
+    /**
+     * Tells a listener about every later change to this board, along with
+     * any listeners already added. Listeners are not saved with the board.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(Listener listener) {
+        if (hasListener(listener)) {
+            return;
+        }
+        int count = listeners == null ? 0 : listeners.length;
+        Listener[] next = listeners == null ? new Listener[1] : Arrays.copyOf(listeners, count + 1);
+        next[count] = listener;
+        listeners = next;
+    }
+
+    /**
+     * Stops telling a listener about changes, leaving any others in place
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(Listener listener) {
+        if (!hasListener(listener)) {
+            return;
+        }
+        List<Listener> remaining = new ArrayList<>(Arrays.asList(listeners));
+        remaining.remove(listener);
+        listeners = remaining.isEmpty() ? null : remaining.toArray(new Listener[0]);
+    }
+
+    /**
+     * @return whether the listener has been added and not removed since
+     */
+    public boolean hasListener(Listener listener) {
+        return listeners != null && Arrays.asList(listeners).contains(listener);
+    }
+
+    /**
+     * Gets every square a team attacks, whether or not it holds a piece. A
+     * square behind the first piece on a line is not attacked.
+     *
+     * @param team the attacking team
+     * @return a bitboard with bit (row - 1) * 8 + (column - 1) set for each attacked square
+     */
+    public long attackedSquares(ChessGame.TeamColor team) {
+        return attackMap().attackedSquares(team);
+    }
+
+    /**
+     * Counts the pieces of a team that attack a square
+     *
+     * @param position the square
+     * @param team     the attacking team
+     * @return how many of the team's pieces attack it
+     */
+    public int attackerCount(ChessPosition position, ChessGame.TeamColor team) {
+        return attackMap().attackerCount(position.getRow(), position.getColumn(), team);
+    }
+
+    /**
+     * @return whether any piece of the team attacks the square
+     */
+    public boolean isAttacked(ChessPosition position, ChessGame.TeamColor team) {
+        return attackerCount(position, team) > 0;
+    }
+
+    /**
+     * @return where the team's king is, or null unless it has exactly one king
+     */
+    ChessPosition kingPosition(ChessGame.TeamColor team) {
+        int square = attackMap().kingSquare(team);
+        return square < 0 ? null : new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+
+    private AttackMap attackMap() {
+        if (attackMap == null || attackMap.squares() != squares) {
+            attackMap = new AttackMap(squares);
+        }
+        return attackMap;
+    }
+
+    /**
+     * Gets the Zobrist key of the pieces on the board. The key does not
+     * include whose turn it is or castling and en passant rights.
+     *
+     * @return the xor of the keys of every piece on its square
+     */
+    public long getZobristKey() {
+        if (keyedSquares != squares) {
+            long key = 0L;
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    key ^= Zobrist.pieceKey(squares[row-1][col-1], row, col);
+                }
+            }
+            zobristKey = key;
+            keyedSquares = squares;
+        }
+        return zobristKey;
     }
 
     /**
@@ -43,6 +185,18 @@ public class ChessBoard {
      */
     public void resetBoard() {
 
+        if (listeners != null) {
+            // the old array is dropped without going through addPiece, so report its pieces as removed
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    if (squares[row-1][col-1] != null) {
+                        for (Listener listener : listeners) {
+                            listener.pieceChanged(row, col, squares[row-1][col-1], null);
+                        }
+                    }
+                }
+            }
+        }
         squares = new ChessPiece[8][8];
 
         addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
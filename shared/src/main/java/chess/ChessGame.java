@@ -3,6 +3,8 @@ package chess;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -11,36 +13,72 @@ import java.util.ArrayList;
  * signature of the existing methods.
  */
 public class ChessGame {
-    private TeamColor turn;
+    // side to move, castling rights, en passant column and halfmove clock, see GameState
+    private int state;
     private ChessBoard board;
-    private ChessBoard testBoard;
+
+    // keys of every position reached in this game, oldest first
+    private long[] keyHistory = new long[16];
+    private int keyHistorySize;
+    // plies played before the oldest key kept, see trimHistory
+    private int trimmedPlies;
+    // what makeMove needs to put back on undoMove, not part of the saved game
+    private transient ArrayList<MoveRecord> moveRecords = new ArrayList<>();
+
+    // legal moves of positions seen by any game, or null to always generate them
+    private static volatile LegalMoveCache moveCache = new LegalMoveCache(4096);
+
+    private record MoveRecord(ChessMove move, ChessPiece moved, ChessPiece captured,
+                              ChessPosition capturedAt, int state) {
+    }
 
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof ChessGame chessGame)) {
             return false;
         }
-        return turn == chessGame.turn && Objects.equals(board, chessGame.board) && Objects.equals(testBoard, chessGame.testBoard);
+        return state == chessGame.state && Objects.equals(board, chessGame.board);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(turn, board, testBoard);
+        return Objects.hash(state, board);
     }
 
     public ChessGame() {
-        this.turn = TeamColor.WHITE;
+        this.state = GameState.INITIAL;
         this.board =  new ChessBoard();
         this.board.resetBoard();
+        // the same as getPositionKey, which a subclass could override before it is constructed
+        keyHistory[keyHistorySize++] = board.getZobristKey() ^ Zobrist.stateKey(state);
+    }
 
-
+    /**
+     * Copies a game with its history, so the copy can be played on, and its
+     * moves undone, without touching the original
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        this.state = other.state;
+        this.board = new ChessBoard();
+        // pieces are immutable, so copying the rows is enough; the copy's key and attacks are rebuilt on first use
+        for (int row = 0; row < 8; row++) {
+            board.squares[row] = other.board.squares[row].clone();
+        }
+        this.keyHistory = Arrays.copyOf(other.keyHistory, other.keyHistory.length);
+        this.keyHistorySize = other.keyHistorySize;
+        this.trimmedPlies = other.trimmedPlies;
+        if (other.moveRecords != null) {
+            moveRecords.addAll(other.moveRecords);
+        }
     }
 
     /**
      * @return Which team's turn it is
      */
     public TeamColor getTeamTurn() {
-        return turn;
+        return GameState.sideToMove(state);
     }
 
     /**
@@ -49,7 +87,32 @@ public class ChessGame {
      * @param team the team whose turn it is
      */
     public void setTeamTurn(TeamColor team) {
-        turn = team;
+        state = GameState.withSideToMove(state, team);
+        resetHistory();
+    }
+
+    /**
+     * @return the packed side to move, castling rights, en passant column and
+     * halfmove clock of this game, see GameState
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * @return the legal move cache shared by every game, or null if there is none
+     */
+    public static LegalMoveCache getMoveCache() {
+        return moveCache;
+    }
+
+    /**
+     * Replaces the legal move cache shared by every game
+     *
+     * @param cache the new cache, or null to turn caching off
+     */
+    public static void setMoveCache(LegalMoveCache cache) {
+        moveCache = cache;
     }
 
     /**
@@ -72,7 +135,20 @@ public class ChessGame {
         if(piece == null) {
             return null;
         }
-        Collection<ChessMove> allMoves = piece.pieceMoves(board, startPosition);
+        LegalMoveCache cache = moveCache;
+        if (cache != null && piece.getTeamColor() == getTeamTurn()) {
+            return legalMoveEntry(cache).movesFrom(startPosition);
+        }
+        return generateValidMoves(startPosition, piece);
+    }
+
+    private Collection<ChessMove> generateValidMoves(ChessPosition startPosition, ChessPiece piece) {
+        Collection<ChessMove> allMoves = new ArrayList<>(piece.pieceMoves(board, startPosition));
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            addEnPassantMove(allMoves, piece, startPosition);
+        } else if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+            addCastlingMoves(allMoves, piece, startPosition);
+        }
         Collection<ChessMove> validMoves = new ArrayList<>();
 
         for(ChessMove move : allMoves) {
@@ -83,6 +159,29 @@ public class ChessGame {
         return validMoves;
     }
 
+    /**
+     * Gets every legal move for the team whose turn it is
+     *
+     * @return all valid moves in the current position
+     */
+    public Collection<ChessMove> allValidMoves() {
+        LegalMoveCache cache = moveCache;
+        if (cache != null) {
+            return legalMoveEntry(cache).allMoves();
+        }
+        Collection<ChessMove> moves = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                ChessPosition currentPosition = new ChessPosition(i + 1, j + 1);
+                ChessPiece piece = board.getPiece(currentPosition);
+                if (piece != null && piece.getTeamColor() == getTeamTurn()) {
+                    moves.addAll(generateValidMoves(currentPosition, piece));
+                }
+            }
+        }
+        return moves;
+    }
+
     /**
      * Makes a move in a chess game
      *
@@ -97,7 +196,7 @@ public class ChessGame {
             throw new InvalidMoveException();
         }
 
-        if (piece.getTeamColor() != turn) {
+        if (piece.getTeamColor() != getTeamTurn()) {
             throw new InvalidMoveException();
         }
 
@@ -107,18 +206,163 @@ public class ChessGame {
             throw new InvalidMoveException();
         }
 
-        board.addPiece(move.getEndPosition(), piece);
-        board.addPiece(move.getStartPosition(), null);
+        applyMove(move);
+    }
 
-        if (move.getPromotionPiece() != null) {
-            board.addPiece(move.getEndPosition(),
-                    new ChessPiece(turn, move.getPromotionPiece()));
+    /**
+     * Makes a move the caller already knows is legal, such as one returned by
+     * a MovePicker, without checking it again. Searches use this to avoid
+     * generating every legal move of each position they visit.
+     *
+     * @param move a legal move for the side to move
+     */
+    public void makeLegalMove(ChessMove move) {
+        applyMove(move);
+    }
+
+    /**
+     * Takes back the last move made with makeMove, restoring the board and the
+     * game state exactly as they were before it
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        if (moveRecords == null || moveRecords.isEmpty()) {
+            throw new IllegalStateException("No move to undo");
         }
-        if (turn == TeamColor.WHITE) {
-            turn = TeamColor.BLACK;
-        } else {
-            turn = TeamColor.WHITE;
+        MoveRecord record = moveRecords.remove(moveRecords.size() - 1);
+        ChessPosition start = record.move().getStartPosition();
+        ChessPosition end = record.move().getEndPosition();
+
+        board.addPiece(start, record.moved());
+        board.addPiece(end, null);
+        if (record.capturedAt() != null) {
+            board.addPiece(record.capturedAt(), record.captured());
+        }
+        if (isCastle(record.moved(), start, end)) {
+            int row = start.getRow();
+            boolean kingSide = end.getColumn() == 7;
+            ChessPosition rookFrom = new ChessPosition(row, kingSide ? 8 : 1);
+            ChessPosition rookTo = new ChessPosition(row, kingSide ? 6 : 4);
+            board.addPiece(rookFrom, board.getPiece(rookTo));
+            board.addPiece(rookTo, null);
+        }
+
+        state = record.state();
+        keyHistorySize--;
+    }
+
+    /**
+     * Gets the moves made with makeMove since the game started or its board
+     * or turn was last set
+     *
+     * @return the moves in the order they were made
+     */
+    public List<ChessMove> getMoveHistory() {
+        List<ChessMove> moves = new ArrayList<>();
+        if (moveRecords != null) {
+            for (MoveRecord record : moveRecords) {
+                moves.add(record.move());
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Counts the moves made since the game started or its board or turn was
+     * last set. Unlike the move history, the count is saved with the game.
+     *
+     * @return the number of plies played
+     */
+    public int getPlyCount() {
+        return trimmedPlies + keyHistorySize - 1;
+    }
+
+    /**
+     * Forgets the positions from before the last capture or pawn move, which
+     * no repetition can reach, so a saved game does not grow with its length.
+     * The ply count is kept, but moves made before that point can no longer
+     * be undone.
+     */
+    public void trimHistory() {
+        int oldest = Math.max(0, keyHistorySize - 1 - getHalfmoveClock());
+        if (oldest == 0) {
+            return;
         }
+        keyHistorySize -= oldest;
+        keyHistory = Arrays.copyOfRange(keyHistory, oldest, oldest + Math.max(16, keyHistorySize));
+        trimmedPlies += oldest;
+        if (moveRecords != null && moveRecords.size() > keyHistorySize - 1) {
+            moveRecords.subList(0, moveRecords.size() - (keyHistorySize - 1)).clear();
+        }
+    }
+
+    /**
+     * Puts the game back to the starting position with white to move,
+     * reusing this object instead of building a new game
+     */
+    public void reset() {
+        board.resetBoard();
+        state = GameState.INITIAL;
+        resetHistory();
+    }
+
+    /**
+     * @return the number of halfmoves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return GameState.halfmoveClock(state);
+    }
+
+    /**
+     * @return the Zobrist key of the current position, including the side to
+     * move, castling rights and en passant column
+     */
+    public long getPositionKey() {
+        return board.getZobristKey() ^ Zobrist.stateKey(state);
+    }
+
+    /**
+     * Counts how many times the current position has occurred, including now.
+     * Only positions since the last irreversible move are looked at, and only
+     * every other one, since a repeat needs the same side to move.
+     *
+     * @return how many times the current position has been reached
+     */
+    public int getRepetitionCount() {
+        long positionKey = getPositionKey();
+        int count = 1;
+        int oldest = Math.max(0, keyHistorySize - 1 - getHalfmoveClock());
+        for (int i = keyHistorySize - 3; i >= oldest; i -= 2) {
+            if (keyHistory[i] == positionKey) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return True if the current position has occurred at least three times
+     */
+    public boolean isDrawByRepetition() {
+        return getRepetitionCount() >= 3;
+    }
+
+    /**
+     * @return True if fifty moves by each side have passed without a capture or pawn move
+     */
+    public boolean isDrawByFiftyMoveRule() {
+        return getHalfmoveClock() >= 100;
+    }
+
+    /**
+     * Determines if the game can be declared drawn by threefold repetition or
+     * the fifty-move rule. Stalemate is checked separately with isInStalemate.
+     *
+     * @return True if either draw rule applies to the current position
+     */
+    public boolean isDraw() {
+        return isDrawByFiftyMoveRule() || isDrawByRepetition();
     }
 
 
@@ -129,6 +373,10 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     private ChessPosition findKingPosition(TeamColor teamColor) {
+        ChessPosition tracked = board.kingPosition(teamColor);
+        if (tracked != null) {
+            return tracked;
+        }
         for (int i = 0; i < 8; i++) {
             for(int j = 0; j < 8; j++){
                 ChessPosition currentPosition = new ChessPosition(i +1, j + 1);
@@ -142,47 +390,11 @@ public class ChessGame {
         return null;
     }
     public boolean isInCheck(TeamColor teamColor) {
-
-        ChessPosition kingPosition = null;
-
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-
-                ChessPosition pos = new ChessPosition(i, j);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null &&
-                        piece.getTeamColor() == teamColor &&
-                        piece.getPieceType() == ChessPiece.PieceType.KING) {
-
-                    kingPosition = pos;
-                }
-            }
-        }
+        ChessPosition kingPosition = findKingPosition(teamColor);
         if (kingPosition == null) {
             return false;
         }
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-
-                ChessPosition pos = new ChessPosition(i, j);
-                ChessPiece piece = board.getPiece(pos);
-
-                if (piece != null &&
-                        piece.getTeamColor() != teamColor) {
-
-                    Collection<ChessMove> moves =
-                            piece.pieceMoves(board, pos);
-
-                    for (ChessMove move : moves) {
-                        if (move.getEndPosition().equals(kingPosition)) {
-                            return true;
-                        }
-                    }
-                }
-            }
-        }
-
-        return false;
+        return isSquareAttacked(kingPosition.getRow(), kingPosition.getColumn(), opponent(teamColor));
     }
 
     /**
@@ -192,6 +404,10 @@ public class ChessGame {
          * @return True if the specified team is in checkmate
          */
     public boolean isInCheckmate(TeamColor teamColor) {
+        LegalMoveCache cache = moveCache;
+        if (cache != null && teamColor == getTeamTurn()) {
+            return legalMoveEntry(cache).getStatus() == LegalMoveCache.Status.CHECKMATE;
+        }
         if (!isInCheck(teamColor)) {
             return false;
         }
@@ -218,6 +434,10 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
+            LegalMoveCache cache = moveCache;
+            if (cache != null && teamColor == getTeamTurn()) {
+                return legalMoveEntry(cache).getStatus() == LegalMoveCache.Status.STALEMATE;
+            }
             if (!isInCheck(teamColor)) {
 
                 for (int i = 0; i < 8; i++) {
@@ -249,6 +469,19 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        // a board handed to us has no history, so castling is allowed wherever
+        // the king and rook are still on their starting squares
+        int rights = 0;
+        if (isPieceAt(1, 5, TeamColor.WHITE, ChessPiece.PieceType.KING)) {
+            rights |= isPieceAt(1, 8, TeamColor.WHITE, ChessPiece.PieceType.ROOK) ? GameState.WHITE_KING_SIDE : 0;
+            rights |= isPieceAt(1, 1, TeamColor.WHITE, ChessPiece.PieceType.ROOK) ? GameState.WHITE_QUEEN_SIDE : 0;
+        }
+        if (isPieceAt(8, 5, TeamColor.BLACK, ChessPiece.PieceType.KING)) {
+            rights |= isPieceAt(8, 8, TeamColor.BLACK, ChessPiece.PieceType.ROOK) ? GameState.BLACK_KING_SIDE : 0;
+            rights |= isPieceAt(8, 1, TeamColor.BLACK, ChessPiece.PieceType.ROOK) ? GameState.BLACK_QUEEN_SIDE : 0;
+        }
+        state = GameState.withEnPassantColumn(GameState.withCastlingRights(state, rights), 0);
+        resetHistory();
     }
 
     /**
@@ -259,71 +492,288 @@ public class ChessGame {
     public ChessBoard getBoard() {
         return board;
     }
-    private boolean wouldLeaveKingInCheck(ChessMove move, TeamColor teamColor) {
-        ChessBoard testBoard = copyBoard();
 
-        ChessPiece piece = testBoard.getPiece(move.getStartPosition());
-        testBoard.addPiece(move.getEndPosition(), piece);
-        testBoard.addPiece(move.getStartPosition(), null);
+    // finds the position in the cache, or works out every legal move and adds it
+    private LegalMoveCache.Entry legalMoveEntry(LegalMoveCache cache) {
+        long key = getPositionKey();
+        LegalMoveCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        TeamColor team = getTeamTurn();
+        ChessMove[][] movesBySquare = new ChessMove[64][];
+        boolean hasMove = false;
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                ChessPosition currentPosition = new ChessPosition(i + 1, j + 1);
+                ChessPiece piece = board.getPiece(currentPosition);
+                if (piece != null && piece.getTeamColor() == team) {
+                    Collection<ChessMove> moves = generateValidMoves(currentPosition, piece);
+                    movesBySquare[i * 8 + j] = moves.toArray(new ChessMove[0]);
+                    hasMove |= !moves.isEmpty();
+                }
+            }
+        }
+        boolean inCheck = isInCheck(team);
+        LegalMoveCache.Status status;
+        if (hasMove) {
+            status = inCheck ? LegalMoveCache.Status.CHECK : LegalMoveCache.Status.IN_PROGRESS;
+        } else {
+            status = inCheck ? LegalMoveCache.Status.CHECKMATE : LegalMoveCache.Status.STALEMATE;
+        }
+        entry = new LegalMoveCache.Entry(key, movesBySquare, status);
+        cache.put(entry);
+        return entry;
+    }
+
+    // plays a move already known to be legal and records how to undo it
+    private void applyMove(ChessMove move) {
+        int oldState = state;
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        ChessPiece piece = board.getPiece(start);
+        TeamColor team = piece.getTeamColor();
+        boolean isPawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+
+        ChessPosition capturedAt = end;
+        ChessPiece captured = board.getPiece(end);
+        if (isPawn && captured == null && start.getColumn() != end.getColumn()) {
+            // en passant, the captured pawn is beside the start square
+            capturedAt = new ChessPosition(start.getRow(), end.getColumn());
+            captured = board.getPiece(capturedAt);
+            board.addPiece(capturedAt, null);
+        }
+        if (captured == null) {
+            capturedAt = null;
+        }
 
-        return isKinginCheckOnBoard(teamColor, testBoard);
+        ChessPiece placed = piece;
+        if (move.getPromotionPiece() != null) {
+            placed = new ChessPiece(team, move.getPromotionPiece());
+        }
+        board.addPiece(start, null);
+        board.addPiece(end, placed);
+
+        if (isCastle(piece, start, end)) {
+            int row = start.getRow();
+            boolean kingSide = end.getColumn() == 7;
+            ChessPosition rookFrom = new ChessPosition(row, kingSide ? 8 : 1);
+            ChessPosition rookTo = new ChessPosition(row, kingSide ? 6 : 4);
+            ChessPiece rook = board.getPiece(rookFrom);
+            board.addPiece(rookTo, rook);
+            board.addPiece(rookFrom, null);
+        }
+
+        int newState = GameState.withSideToMove(oldState, opponent(team));
+        newState = GameState.withCastlingRights(newState, GameState.castlingRights(oldState)
+                & ~GameState.rightsTouchedBy(start.getRow(), start.getColumn())
+                & ~GameState.rightsTouchedBy(end.getRow(), end.getColumn()));
+        int enPassantColumn = 0;
+        if (isPawn && Math.abs(end.getRow() - start.getRow()) == 2
+                && (isPieceAt(end.getRow(), end.getColumn() - 1, opponent(team), ChessPiece.PieceType.PAWN)
+                || isPieceAt(end.getRow(), end.getColumn() + 1, opponent(team), ChessPiece.PieceType.PAWN))) {
+            enPassantColumn = end.getColumn();
+        }
+        newState = GameState.withEnPassantColumn(newState, enPassantColumn);
+        // a capture or pawn move can never be undone, so no earlier position can repeat
+        newState = GameState.withHalfmoveClock(newState,
+                isPawn || captured != null ? 0 : GameState.halfmoveClock(oldState) + 1);
+
+        if (moveRecords == null) {
+            moveRecords = new ArrayList<>();
+        }
+        moveRecords.add(new MoveRecord(move, piece, captured, capturedAt, oldState));
+        state = newState;
+        pushKey(getPositionKey());
     }
-    private ChessBoard copyBoard() {
-        ChessBoard copy = new ChessBoard();
 
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                copy.addPiece(new ChessPosition(i, j), null);
-            }
+    void addEnPassantMove(Collection<ChessMove> moves, ChessPiece pawn, ChessPosition start) {
+        int column = GameState.enPassantColumn(state);
+        TeamColor team = pawn.getTeamColor();
+        int captureRow = team == TeamColor.WHITE ? 5 : 4;
+        if (column == 0 || team != getTeamTurn() || start.getRow() != captureRow
+                || Math.abs(start.getColumn() - column) != 1) {
+            return;
         }
-        for(int i = 1; i <= 8; i++) {
-            for(int j = 1; j <= 8; j++) {
-                ChessPosition pos = new ChessPosition(i, j);
-                ChessPiece piece = board.getPiece(pos);
-                if(piece != null) {
-                    copy.addPiece(pos,
-                            new ChessPiece(piece.getTeamColor(), piece.getPieceType()));
-                }
-            }
+        int direction = team == TeamColor.WHITE ? 1 : -1;
+        moves.add(new ChessMove(start, new ChessPosition(captureRow + direction, column), null));
+    }
+
+    void addCastlingMoves(Collection<ChessMove> moves, ChessPiece king, ChessPosition start) {
+        TeamColor team = king.getTeamColor();
+        int row = team == TeamColor.WHITE ? 1 : 8;
+        if (start.getRow() != row || start.getColumn() != 5) {
+            return;
+        }
+        TeamColor enemy = opponent(team);
+        if (isSquareAttacked(row, 5, enemy)) {
+            return;
+        }
+        int kingSide = team == TeamColor.WHITE ? GameState.WHITE_KING_SIDE : GameState.BLACK_KING_SIDE;
+        int queenSide = team == TeamColor.WHITE ? GameState.WHITE_QUEEN_SIDE : GameState.BLACK_QUEEN_SIDE;
+
+        if (GameState.canCastle(state, kingSide)
+                && isPieceAt(row, 8, team, ChessPiece.PieceType.ROOK)
+                && isEmpty(row, 6) && isEmpty(row, 7)
+                && !isSquareAttacked(row, 6, enemy)) {
+            moves.add(new ChessMove(start, new ChessPosition(row, 7), null));
+        }
+        if (GameState.canCastle(state, queenSide)
+                && isPieceAt(row, 1, team, ChessPiece.PieceType.ROOK)
+                && isEmpty(row, 2) && isEmpty(row, 3) && isEmpty(row, 4)
+                && !isSquareAttacked(row, 4, enemy)) {
+            moves.add(new ChessMove(start, new ChessPosition(row, 3), null));
         }
-        return copy;
     }
 
+    private static boolean isCastle(ChessPiece piece, ChessPosition start, ChessPosition end) {
+        return piece.getPieceType() == ChessPiece.PieceType.KING
+                && Math.abs(end.getColumn() - start.getColumn()) == 2;
+    }
 
-    private boolean isKinginCheckOnBoard(TeamColor teamColor, ChessBoard testBoard) {
-        ChessPosition kingPosition = findKingPositionOnBoard(teamColor, testBoard);
+    /**
+     * Replaces the game state word without looking at the board, for callers
+     * that saved it with getState. The board must already hold the matching
+     * position. Repetition history starts over from here.
+     *
+     * @param state a state word previously returned by getState
+     */
+    void restoreState(int state) {
+        this.state = state;
+        keyHistorySize = 0;
+        trimmedPlies = 0;
+        pushKey(getPositionKey());
+        if (moveRecords != null) {
+            moveRecords.clear();
+        }
+    }
 
-        if(kingPosition == null) {
-            return false;
+    // the current position becomes the start of a new history
+    private void resetHistory() {
+        state = GameState.withHalfmoveClock(state, 0);
+        keyHistorySize = 0;
+        trimmedPlies = 0;
+        pushKey(getPositionKey());
+        if (moveRecords != null) {
+            moveRecords.clear();
         }
-        for(int i = 0; i < 8; i++) {
-            for(int j = 0; j < 8; j++) {
-                ChessPosition currentPosition = new ChessPosition(i + 1, j + 1);
-                ChessPiece piece = testBoard.getPiece(currentPosition);
+    }
 
-                if(piece != null && piece.getTeamColor() != teamColor) {
-                    Collection<ChessMove> currentPieceMoves = piece.pieceMoves(testBoard, currentPosition);
+    private void pushKey(long key) {
+        if (keyHistorySize == keyHistory.length) {
+            keyHistory = Arrays.copyOf(keyHistory, keyHistorySize * 2);
+        }
+        keyHistory[keyHistorySize++] = key;
+    }
 
-                    for(ChessMove currentMove : currentPieceMoves) {
-                        if(currentMove.getEndPosition().equals(kingPosition)) {
-                            return true;
-                        }
-                    }
-                }
+    // plays the move on the board only, checks the king, then puts everything back
+    boolean wouldLeaveKingInCheck(ChessMove move, TeamColor teamColor) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        ChessPiece piece = board.getPiece(start);
+        ChessPiece captured = board.getPiece(end);
+
+        ChessPosition passedPawnAt = null;
+        ChessPiece passedPawn = null;
+        boolean enPassant = piece.getPieceType() == ChessPiece.PieceType.PAWN && captured == null
+                && start.getColumn() != end.getColumn();
+        if (!enPassant && piece.getPieceType() != ChessPiece.PieceType.KING) {
+            // with the king safe, only a pin can make the move illegal, and the attack map answers that without moving
+            ChessPosition king = findKingPosition(teamColor);
+            if (king != null && !isSquareAttacked(king.getRow(), king.getColumn(), opponent(teamColor))) {
+                return isPinnedOffLine(king, start, end, teamColor);
             }
         }
+        if (enPassant) {
+            passedPawnAt = new ChessPosition(start.getRow(), end.getColumn());
+            passedPawn = board.getPiece(passedPawnAt);
+            board.addPiece(passedPawnAt, null);
+        }
+        board.addPiece(end, piece);
+        board.addPiece(start, null);
+
+        boolean inCheck = isInCheck(teamColor);
+
+        board.addPiece(start, piece);
+        board.addPiece(end, captured);
+        if (passedPawnAt != null) {
+            board.addPiece(passedPawnAt, passedPawn);
+        }
+        return inCheck;
+    }
+
+    private boolean isSquareAttacked(int row, int col, TeamColor byTeam) {
+        return board.isAttacked(new ChessPosition(row, col), byTeam);
+    }
+
+    // whether the piece on start shields the king from an enemy slider and end leaves that line
+    private boolean isPinnedOffLine(ChessPosition king, ChessPosition start, ChessPosition end, TeamColor team) {
+        int rowOffset = start.getRow() - king.getRow();
+        int colOffset = start.getColumn() - king.getColumn();
+        if (rowOffset != 0 && colOffset != 0 && Math.abs(rowOffset) != Math.abs(colOffset)) {
+            return false;
+        }
+        int rowStep = Integer.signum(rowOffset);
+        int colStep = Integer.signum(colOffset);
+        if (!isOnRay(king, start, rowStep, colStep, true)) {
+            return false;
+        }
+        ChessPiece pinner = firstPieceAlong(start.getRow(), start.getColumn(), rowStep, colStep);
+        if (pinner == null || pinner.getTeamColor() == team) {
+            return false;
+        }
+        boolean straight = rowStep == 0 || colStep == 0;
+        ChessPiece.PieceType slider = straight ? ChessPiece.PieceType.ROOK : ChessPiece.PieceType.BISHOP;
+        if (pinner.getPieceType() != slider && pinner.getPieceType() != ChessPiece.PieceType.QUEEN) {
+            return false;
+        }
+        return !isOnRay(king, end, rowStep, colStep, false);
+    }
+
+    // whether target lies on the line from origin in the given direction; the nearest check requires no piece between
+    private boolean isOnRay(ChessPosition origin, ChessPosition target, int rowStep, int colStep, boolean nearest) {
+        int r = origin.getRow() + rowStep;
+        int c = origin.getColumn() + colStep;
+        while (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+            if (r == target.getRow() && c == target.getColumn()) {
+                return true;
+            }
+            if (nearest && !isEmpty(r, c)) {
+                return false;
+            }
+            r += rowStep;
+            c += colStep;
+        }
         return false;
     }
-    private ChessPosition findKingPositionOnBoard(TeamColor teamColor, ChessBoard testBoard) {
-        for(int i = 0; i < 8; i++) {
-            for(int j = 0; j < 8; j++) {
-                ChessPosition currentPosition = new ChessPosition(i + 1, j + 1);
-                ChessPiece piece = testBoard.getPiece(currentPosition);
-                if(piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == teamColor) {
-                    return currentPosition;
-                }
+
+    private ChessPiece firstPieceAlong(int row, int col, int rowStep, int colStep) {
+        int r = row + rowStep;
+        int c = col + colStep;
+        while (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+            ChessPiece piece = board.getPiece(new ChessPosition(r, c));
+            if (piece != null) {
+                return piece;
             }
+            r += rowStep;
+            c += colStep;
         }
         return null;
     }
+
+    private boolean isPieceAt(int row, int col, TeamColor team, ChessPiece.PieceType type) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return false;
+        }
+        ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+        return piece != null && piece.getTeamColor() == team && piece.getPieceType() == type;
+    }
+
+    private boolean isEmpty(int row, int col) {
+        return board.getPiece(new ChessPosition(row, col)) == null;
+    }
+
+    private static TeamColor opponent(TeamColor team) {
+        return team == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
 }
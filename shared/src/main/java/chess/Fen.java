@@ -0,0 +1,174 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, for example
+ * <pre>rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1</pre>
+ * ChessGame does not count full moves, so the last field is ignored when
+ * reading and written as 1.
+ */
+public final class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_LETTERS = "kqbnrp";
+
+    private Fen() {
+    }
+
+    /**
+     * Builds a game from a FEN string
+     *
+     * @param fen the position to load
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame parse(String fen) {
+        ChessGame game = new ChessGame();
+        load(fen, game);
+        return game;
+    }
+
+    /**
+     * Loads a FEN position into an existing game, replacing its board and state
+     *
+     * @param fen  the position to load
+     * @param game the game to overwrite
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static void load(String fen, ChessGame game) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+        ChessBoard board = new ChessBoard();
+        String[] ranks = fields[0].split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("Invalid FEN board: " + fields[0]);
+        }
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : ranks[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                    continue;
+                }
+                int index = PIECE_LETTERS.indexOf(Character.toLowerCase(c));
+                if (index < 0 || col > 8) {
+                    throw new IllegalArgumentException("Invalid FEN board: " + fields[0]);
+                }
+                ChessGame.TeamColor team = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                board.addPiece(new ChessPosition(row, col), new ChessPiece(team, ChessPiece.PieceType.values()[index]));
+                col++;
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("Invalid FEN board: " + fields[0]);
+            }
+        }
+
+        ChessGame.TeamColor sideToMove = switch (fields[1]) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Invalid FEN side to move: " + fields[1]);
+        };
+        int state = GameState.withSideToMove(GameState.INITIAL, sideToMove);
+        int rights = 0;
+        if (fields.length > 2) {
+            for (char c : fields[2].toCharArray()) {
+                rights |= switch (c) {
+                    case 'K' -> GameState.WHITE_KING_SIDE;
+                    case 'Q' -> GameState.WHITE_QUEEN_SIDE;
+                    case 'k' -> GameState.BLACK_KING_SIDE;
+                    case 'q' -> GameState.BLACK_QUEEN_SIDE;
+                    case '-' -> 0;
+                    default -> throw new IllegalArgumentException("Invalid FEN castling rights: " + fields[2]);
+                };
+            }
+        }
+        state = GameState.withCastlingRights(state, rights);
+        if (fields.length > 3 && !fields[3].equals("-")) {
+            state = GameState.withEnPassantColumn(state, enPassantColumn(fields[3], board, sideToMove));
+        }
+        if (fields.length > 4) {
+            int halfmoveClock = Integer.parseInt(fields[4]);
+            if (halfmoveClock < 0) {
+                throw new IllegalArgumentException("Invalid FEN halfmove clock: " + fields[4]);
+            }
+            state = GameState.withHalfmoveClock(state, halfmoveClock);
+        }
+
+        game.setBoard(board);
+        game.restoreState(state);
+    }
+
+    // the file of the en passant square, or 0 if no pawn can take there, as ChessGame records it after a move,
+    // so the same position gets the same key however it was reached
+    private static int enPassantColumn(String square, ChessBoard board, ChessGame.TeamColor sideToMove) {
+        if (square.length() != 2 || square.charAt(0) < 'a' || square.charAt(0) > 'h'
+                || square.charAt(1) != (sideToMove == ChessGame.TeamColor.WHITE ? '6' : '3')) {
+            throw new IllegalArgumentException("Invalid FEN en passant square: " + square);
+        }
+        int column = square.charAt(0) - 'a' + 1;
+        int row = sideToMove == ChessGame.TeamColor.WHITE ? 5 : 4;
+        for (int side = column - 1; side <= column + 1; side += 2) {
+            ChessPiece piece = side < 1 || side > 8 ? null : board.getPiece(new ChessPosition(row, side));
+            if (piece != null && piece.getTeamColor() == sideToMove && piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+                return column;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes a game's current position as FEN
+     *
+     * @param game the game to describe
+     * @return the FEN string
+     */
+    public static String toFen(ChessGame game) {
+        StringBuilder fen = new StringBuilder();
+        ChessBoard board = game.getBoard();
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char letter = PIECE_LETTERS.charAt(piece.getPieceType().ordinal());
+                fen.append(piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+
+        int state = game.getState();
+        fen.append(GameState.sideToMove(state) == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        if (GameState.castlingRights(state) == 0) {
+            fen.append('-');
+        } else {
+            fen.append(GameState.canCastle(state, GameState.WHITE_KING_SIDE) ? "K" : "");
+            fen.append(GameState.canCastle(state, GameState.WHITE_QUEEN_SIDE) ? "Q" : "");
+            fen.append(GameState.canCastle(state, GameState.BLACK_KING_SIDE) ? "k" : "");
+            fen.append(GameState.canCastle(state, GameState.BLACK_QUEEN_SIDE) ? "q" : "");
+        }
+        int column = GameState.enPassantColumn(state);
+        if (column == 0) {
+            fen.append(" -");
+        } else {
+            int row = GameState.sideToMove(state) == ChessGame.TeamColor.WHITE ? 6 : 3;
+            fen.append(' ').append((char) ('a' + column - 1)).append(row);
+        }
+        fen.append(' ').append(GameState.halfmoveClock(state)).append(" 1");
+        return fen.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package chess;
+
+/**
+ * Packs everything about a game that is not on the board into a single int:
+ * <pre>
+ * bit  0      side to move (0 white, 1 black)
+ * bits 1-4    castling rights (white king side, white queen side, black king side, black queen side)
+ * bits 5-8    en passant column, 1-8, or 0 when no en passant capture is possible
+ * bits 9-31   halfmove clock
+ * </pre>
+ * Because the whole state is one primitive, saving it before a move and
+ * restoring it on undo is a single assignment.
+ */
+public final class GameState {
+
+    public static final int WHITE_KING_SIDE = 1 << 1;
+    public static final int WHITE_QUEEN_SIDE = 1 << 2;
+    public static final int BLACK_KING_SIDE = 1 << 3;
+    public static final int BLACK_QUEEN_SIDE = 1 << 4;
+    public static final int ALL_CASTLING = WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE;
+
+    private static final int SIDE_MASK = 1;
+    private static final int CASTLING_SHIFT = 1;
+    private static final int EN_PASSANT_SHIFT = 5;
+    private static final int EN_PASSANT_MASK = 0xF << EN_PASSANT_SHIFT;
+    private static final int CLOCK_SHIFT = 9;
+    private static final int CLOCK_MAX = (1 << 23) - 1;
+
+    /**
+     * The state at the start of a normal game: white to move, every castle allowed
+     */
+    public static final int INITIAL = ALL_CASTLING;
+
+    private GameState() {
+    }
+
+    public static ChessGame.TeamColor sideToMove(int state) {
+        return (state & SIDE_MASK) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    public static int withSideToMove(int state, ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.WHITE ? state & ~SIDE_MASK : state | SIDE_MASK;
+    }
+
+    /**
+     * @return the castling right bits of the state, still in place
+     */
+    public static int castlingRights(int state) {
+        return state & ALL_CASTLING;
+    }
+
+    /**
+     * @return the castling rights as a number from 0 to 15
+     */
+    public static int castlingIndex(int state) {
+        return (state & ALL_CASTLING) >>> CASTLING_SHIFT;
+    }
+
+    public static boolean canCastle(int state, int right) {
+        return (state & right) != 0;
+    }
+
+    public static int withCastlingRights(int state, int rights) {
+        return (state & ~ALL_CASTLING) | (rights & ALL_CASTLING);
+    }
+
+    /**
+     * @return the column a pawn can be captured en passant on, or 0 if there is none
+     */
+    public static int enPassantColumn(int state) {
+        return (state & EN_PASSANT_MASK) >>> EN_PASSANT_SHIFT;
+    }
+
+    public static int withEnPassantColumn(int state, int column) {
+        return (state & ~EN_PASSANT_MASK) | (column << EN_PASSANT_SHIFT);
+    }
+
+    public static int halfmoveClock(int state) {
+        return state >>> CLOCK_SHIFT;
+    }
+
+    public static int withHalfmoveClock(int state, int clock) {
+        return (state & ((1 << CLOCK_SHIFT) - 1)) | (Math.min(clock, CLOCK_MAX) << CLOCK_SHIFT);
+    }
+
+    /**
+     * The castling right that is lost when a piece leaves or is captured on a square
+     *
+     * @return the right tied to that square, or 0 if the square is not a king or rook home
+     */
+    public static int rightsTouchedBy(int row, int col) {
+        if (row == 1) {
+            return switch (col) {
+                case 1 -> WHITE_QUEEN_SIDE;
+                case 5 -> WHITE_KING_SIDE | WHITE_QUEEN_SIDE;
+                case 8 -> WHITE_KING_SIDE;
+                default -> 0;
+            };
+        }
+        if (row == 8) {
+            return switch (col) {
+                case 1 -> BLACK_QUEEN_SIDE;
+                case 5 -> BLACK_KING_SIDE | BLACK_QUEEN_SIDE;
+                case 8 -> BLACK_KING_SIDE;
+                default -> 0;
+            };
+        }
+        return 0;
+    }
+}
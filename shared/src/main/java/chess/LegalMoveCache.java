@@ -0,0 +1,175 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of legal moves shared by every game, keyed by the Zobrist
+ * key of the position.
+ * <p>
+ * Many games pass through the same opening positions, so the legal moves and
+ * status of a position are worked out once and reused by any game that
+ * reaches it. Lookups are lock free. When the cache is full an entry is
+ * evicted with the CLOCK algorithm: entries that were read since the hand
+ * last passed them get a second chance.
+ */
+public class LegalMoveCache {
+
+    /**
+     * The state of a position for the side to move
+     */
+    public enum Status {
+        IN_PROGRESS,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
+    /**
+     * The legal moves and status of one position, for the side to move
+     */
+    public static final class Entry {
+        private final long key;
+        private final ChessMove[][] movesBySquare;
+        private final Status status;
+        private volatile boolean referenced;
+
+        Entry(long key, ChessMove[][] movesBySquare, Status status) {
+            this.key = key;
+            this.movesBySquare = movesBySquare;
+            this.status = status;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return a new list of the legal moves of the piece on that square
+         */
+        public Collection<ChessMove> movesFrom(ChessPosition position) {
+            ChessMove[] moves = movesBySquare[(position.getRow() - 1) * 8 + position.getColumn() - 1];
+            return moves == null ? new ArrayList<>() : new ArrayList<>(List.of(moves));
+        }
+
+        /**
+         * @return a new list of every legal move in the position
+         */
+        public List<ChessMove> allMoves() {
+            List<ChessMove> all = new ArrayList<>();
+            for (ChessMove[] moves : movesBySquare) {
+                if (moves != null) {
+                    all.addAll(List.of(moves));
+                }
+            }
+            return all;
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Entry> entries;
+    private final Entry[] clock;
+    private int hand;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity the most positions the cache holds
+     */
+    public LegalMoveCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.entries = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+        this.clock = new Entry[capacity];
+    }
+
+    /**
+     * Looks up a position, counting a hit or a miss
+     *
+     * @param key the Zobrist key of the position
+     * @return the cached entry, or null if the position is not cached
+     */
+    public Entry get(long key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        entry.referenced = true;
+        return entry;
+    }
+
+    /**
+     * Adds a position, evicting another one if the cache is full
+     *
+     * @param entry the position to add
+     */
+    public void put(Entry entry) {
+        synchronized (clock) {
+            if (entries.containsKey(entry.key)) {
+                return;
+            }
+            while (true) {
+                Entry current = clock[hand];
+                if (current == null || !current.referenced) {
+                    if (current != null) {
+                        entries.remove(current.key);
+                    }
+                    clock[hand] = entry;
+                    entries.put(entry.key, entry);
+                    hand = (hand + 1) % clock.length;
+                    return;
+                }
+                current.referenced = false;
+                hand = (hand + 1) % clock.length;
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the fraction of lookups that were hits, or 0 before any lookup
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return clock.length;
+    }
+
+    /**
+     * Drops every entry and resets the counters
+     */
+    public void clear() {
+        synchronized (clock) {
+            entries.clear();
+            Arrays.fill(clock, null);
+            hand = 0;
+            hits.reset();
+            misses.reset();
+        }
+    }
+}
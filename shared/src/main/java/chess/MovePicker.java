@@ -0,0 +1,341 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hands out the legal moves of a position one at a time, in the order a
+ * search wants to try them:
+ * <ol>
+ * <li>the hash move, the best move found the last time the position was searched</li>
+ * <li>captures, most valuable victim first and then least valuable attacker (MVV-LVA)</li>
+ * <li>promotions that do not capture</li>
+ * <li>every other move</li>
+ * </ol>
+ * A stage is only generated once the one before it has run out, so a search
+ * that cuts off on the hash move or a capture never builds the quiet moves.
+ * Every move returned is legal. The game must be back in the same position
+ * each time next is called.
+ */
+public class MovePicker {
+
+    /**
+     * The group of moves the picker is handing out
+     */
+    public enum Stage {
+        HASH_MOVE,
+        CAPTURES,
+        PROMOTIONS,
+        QUIETS,
+        DONE
+    }
+
+    // ordering values by PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    private static final int[] ORDER_VALUES = {6, 5, 3, 2, 4, 1};
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP
+    };
+    private static final int[][] KNIGHT_JUMPS = {
+            {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}
+    };
+    private static final int[][] STRAIGHT = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] DIAGONAL = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] ALL_DIRECTIONS = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+
+    private final ChessGame game;
+    private final ChessPiece[][] squares;
+    private final ChessGame.TeamColor team;
+    private final ChessMove hashMove;
+    private final boolean capturesOnly;
+
+    private Stage stage = Stage.HASH_MOVE;
+    private boolean generated;
+    private ChessMove[] moves = new ChessMove[64];
+    private int[] scores = new int[64];
+    private int count;
+    private int index;
+
+    /**
+     * @param game     the position to pick moves in
+     * @param hashMove a move to try first, or null; it is skipped if not legal
+     */
+    public MovePicker(ChessGame game, ChessMove hashMove) {
+        this(game, hashMove, false);
+    }
+
+    private MovePicker(ChessGame game, ChessMove hashMove, boolean capturesOnly) {
+        this.game = game;
+        this.squares = game.getBoard().squares;
+        this.team = game.getTeamTurn();
+        this.hashMove = hashMove;
+        this.capturesOnly = capturesOnly;
+    }
+
+    /**
+     * Makes a picker that stops after the captures and promotions, for
+     * quiescence search
+     *
+     * @param game the position to pick moves in
+     * @return the picker
+     */
+    public static MovePicker capturesOnly(ChessGame game) {
+        return new MovePicker(game, null, true);
+    }
+
+    /**
+     * Lists every legal move. Unlike ChessGame.allValidMoves, it does not go
+     * through the shared legal move cache, which searches and random playouts
+     * would only fill with positions never seen again.
+     *
+     * @param game the position
+     * @return the legal moves, in the order a picker without a hash move hands them out
+     */
+    public static List<ChessMove> legalMoves(ChessGame game) {
+        List<ChessMove> legal = new ArrayList<>();
+        MovePicker picker = new MovePicker(game, null);
+        for (ChessMove move = picker.next(); move != null; move = picker.next()) {
+            legal.add(move);
+        }
+        return legal;
+    }
+
+    /**
+     * @return the next legal move, or null when there are none left
+     */
+    public ChessMove next() {
+        while (stage != Stage.DONE) {
+            if (!generated) {
+                count = 0;
+                index = 0;
+                generate();
+                generated = true;
+            }
+            while (index < count) {
+                ChessMove move = stage == Stage.CAPTURES ? pickBest() : moves[index++];
+                if (stage != Stage.HASH_MOVE && move.equals(hashMove)) {
+                    continue;
+                }
+                if (!game.wouldLeaveKingInCheck(move, team)) {
+                    return move;
+                }
+            }
+            stage = nextStage();
+            generated = false;
+        }
+        return null;
+    }
+
+    /**
+     * @return the stage of the move last returned by next, or DONE
+     */
+    public Stage getStage() {
+        return stage;
+    }
+
+    private Stage nextStage() {
+        return switch (stage) {
+            case HASH_MOVE -> Stage.CAPTURES;
+            case CAPTURES -> Stage.PROMOTIONS;
+            case PROMOTIONS -> capturesOnly ? Stage.DONE : Stage.QUIETS;
+            default -> Stage.DONE;
+        };
+    }
+
+    private void generate() {
+        if (stage == Stage.HASH_MOVE) {
+            if (hashMove != null && isPseudoLegal(hashMove)) {
+                count = 0;
+                add(hashMove, 0);
+            }
+            return;
+        }
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = squares[row - 1][col - 1];
+                if (piece != null && piece.getTeamColor() == team) {
+                    generateFrom(row, col, piece, stage);
+                }
+            }
+        }
+    }
+
+    // builds the hash move's stage for its start square and looks for it there
+    private boolean isPseudoLegal(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPiece piece = game.getBoard().getPiece(start);
+        if (piece == null || piece.getTeamColor() != team) {
+            return false;
+        }
+        for (Stage candidate : new Stage[]{Stage.CAPTURES, Stage.PROMOTIONS, Stage.QUIETS}) {
+            count = 0;
+            generateFrom(start.getRow(), start.getColumn(), piece, candidate);
+            for (int i = 0; i < count; i++) {
+                if (moves[i].equals(move)) {
+                    return true;
+                }
+            }
+        }
+        count = 0;
+        return false;
+    }
+
+    private void generateFrom(int row, int col, ChessPiece piece, Stage wanted) {
+        ChessPosition start = new ChessPosition(row, col);
+        switch (piece.getPieceType()) {
+            case PAWN -> generatePawn(start, piece, wanted);
+            case KNIGHT -> generateSteps(start, piece, KNIGHT_JUMPS, wanted);
+            case BISHOP -> generateRays(start, piece, DIAGONAL, wanted);
+            case ROOK -> generateRays(start, piece, STRAIGHT, wanted);
+            case QUEEN -> generateRays(start, piece, ALL_DIRECTIONS, wanted);
+            case KING -> {
+                generateSteps(start, piece, ALL_DIRECTIONS, wanted);
+                if (wanted == Stage.QUIETS) {
+                    List<ChessMove> castles = new ArrayList<>(2);
+                    game.addCastlingMoves(castles, piece, start);
+                    for (ChessMove castle : castles) {
+                        add(castle, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    private void generatePawn(ChessPosition start, ChessPiece pawn, Stage wanted) {
+        int row = start.getRow();
+        int col = start.getColumn();
+        int direction = team == ChessGame.TeamColor.WHITE ? 1 : -1;
+        int lastRow = team == ChessGame.TeamColor.WHITE ? 8 : 1;
+        int homeRow = team == ChessGame.TeamColor.WHITE ? 2 : 7;
+        int ahead = row + direction;
+        if (ahead < 1 || ahead > 8) {
+            return;
+        }
+
+        if (wanted == Stage.CAPTURES) {
+            for (int side = -1; side <= 1; side += 2) {
+                ChessPiece victim = pieceAt(ahead, col + side);
+                if (victim == null || victim.getTeamColor() == team) {
+                    continue;
+                }
+                ChessPosition end = new ChessPosition(ahead, col + side);
+                if (ahead == lastRow) {
+                    for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                        add(new ChessMove(start, end, promotion), captureScore(victim, pawn)
+                                + (promotion == ChessPiece.PieceType.QUEEN ? 8 : 0));
+                    }
+                } else {
+                    add(new ChessMove(start, end, null), captureScore(victim, pawn));
+                }
+            }
+            List<ChessMove> enPassant = new ArrayList<>(1);
+            game.addEnPassantMove(enPassant, pawn, start);
+            for (ChessMove move : enPassant) {
+                add(move, captureScore(pawn, pawn));
+            }
+            return;
+        }
+
+        if (pieceAt(ahead, col) != null) {
+            return;
+        }
+        ChessPosition end = new ChessPosition(ahead, col);
+        if (ahead == lastRow) {
+            if (wanted == Stage.PROMOTIONS) {
+                for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                    add(new ChessMove(start, end, promotion), 0);
+                }
+            }
+        } else if (wanted == Stage.QUIETS) {
+            add(new ChessMove(start, end, null), 0);
+            if (row == homeRow && pieceAt(ahead + direction, col) == null) {
+                add(new ChessMove(start, new ChessPosition(ahead + direction, col), null), 0);
+            }
+        }
+    }
+
+    private void generateSteps(ChessPosition start, ChessPiece piece, int[][] steps, Stage wanted) {
+        if (wanted == Stage.PROMOTIONS) {
+            return;
+        }
+        for (int[] step : steps) {
+            int row = start.getRow() + step[0];
+            int col = start.getColumn() + step[1];
+            if (row < 1 || row > 8 || col < 1 || col > 8) {
+                continue;
+            }
+            addTarget(start, piece, row, col, wanted);
+        }
+    }
+
+    private void generateRays(ChessPosition start, ChessPiece piece, int[][] directions, Stage wanted) {
+        if (wanted == Stage.PROMOTIONS) {
+            return;
+        }
+        for (int[] direction : directions) {
+            int row = start.getRow() + direction[0];
+            int col = start.getColumn() + direction[1];
+            while (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+                if (!addTarget(start, piece, row, col, wanted)) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+    }
+
+    // adds the move to an empty or enemy square if it belongs to the stage, returns whether the square was empty
+    private boolean addTarget(ChessPosition start, ChessPiece piece, int row, int col, Stage wanted) {
+        ChessPiece target = squares[row - 1][col - 1];
+        if (target == null) {
+            if (wanted == Stage.QUIETS) {
+                add(new ChessMove(start, new ChessPosition(row, col), null), 0);
+            }
+            return true;
+        }
+        if (target.getTeamColor() != team && wanted == Stage.CAPTURES) {
+            add(new ChessMove(start, new ChessPosition(row, col), null), captureScore(target, piece));
+        }
+        return false;
+    }
+
+    private static int captureScore(ChessPiece victim, ChessPiece attacker) {
+        return ORDER_VALUES[victim.getPieceType().ordinal()] * 16 - ORDER_VALUES[attacker.getPieceType().ordinal()];
+    }
+
+    private ChessPiece pieceAt(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return null;
+        }
+        return squares[row - 1][col - 1];
+    }
+
+    private void add(ChessMove move, int score) {
+        if (count == moves.length) {
+            moves = Arrays.copyOf(moves, count * 2);
+            scores = Arrays.copyOf(scores, count * 2);
+        }
+        moves[count] = move;
+        scores[count] = score;
+        count++;
+    }
+
+    // selection sort one step at a time, so unsearched captures are never sorted
+    private ChessMove pickBest() {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        ChessMove move = moves[best];
+        moves[best] = moves[index];
+        scores[best] = scores[index];
+        moves[index] = move;
+        index++;
+        return move;
+    }
+}
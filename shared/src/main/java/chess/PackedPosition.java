@@ -0,0 +1,104 @@
+package chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A position squeezed into {@value #BYTES} bytes, for storing positions by
+ * the billion where FEN would take three times the space.
+ * <p>
+ * The occupancy bitboard has bit (row - 1) * 8 + column - 1 set for every
+ * occupied square. The pieces on those squares follow as 4 bit codes, in
+ * square order, 16 to a long: 1-6 for white and 7-12 for black, in
+ * PieceType order. A legal position has at most 32 pieces, so two longs hold
+ * them all. The state is the game state word with the halfmove clock capped
+ * at 127 so it fits in 16 bits.
+ *
+ * @param occupancy  the occupied squares
+ * @param lowPieces  codes of the first 16 pieces
+ * @param highPieces codes of the next 16 pieces
+ * @param state      the side to move, castling rights, en passant column and halfmove clock
+ */
+public record PackedPosition(long occupancy, long lowPieces, long highPieces, short state) {
+
+    public static final int BYTES = 26;
+
+    private static final int STATE_BITS = 9;
+    private static final int MAX_CLOCK = 127;
+
+    /**
+     * Packs the current position of a game
+     *
+     * @param game the game
+     * @return the packed position
+     * @throws IllegalArgumentException if the board has more than 32 pieces
+     */
+    public static PackedPosition of(ChessGame game) {
+        ChessPiece[][] squares = game.getBoard().squares;
+        long occupancy = 0;
+        long[] pieces = new long[2];
+        int count = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = squares[square / 8][square % 8];
+            if (piece == null) {
+                continue;
+            }
+            if (count == 32) {
+                throw new IllegalArgumentException("Too many pieces to pack");
+            }
+            occupancy |= 1L << square;
+            long code = piece.getPieceType().ordinal() + (piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 1 : 7);
+            pieces[count / 16] |= code << (count % 16 * 4);
+            count++;
+        }
+        int state = game.getState();
+        int clock = Math.min(GameState.halfmoveClock(state), MAX_CLOCK);
+        short packedState = (short) ((state & ((1 << STATE_BITS) - 1)) | clock << STATE_BITS);
+        return new PackedPosition(occupancy, pieces[0], pieces[1], packedState);
+    }
+
+    /**
+     * @return a new game in this position, with no move history
+     */
+    public ChessGame toGame() {
+        ChessBoard board = new ChessBoard();
+        long remaining = occupancy;
+        int count = 0;
+        while (remaining != 0) {
+            int square = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            int code = (int) ((count < 16 ? lowPieces : highPieces) >>> (count % 16 * 4)) & 0xF;
+            if (code < 1 || code > 12) {
+                throw new IllegalArgumentException("Invalid piece code " + code);
+            }
+            ChessGame.TeamColor team = code <= 6 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            ChessPiece.PieceType type = ChessPiece.PieceType.values()[(code - 1) % 6];
+            board.addPiece(new ChessPosition(square / 8 + 1, square % 8 + 1), new ChessPiece(team, type));
+            count++;
+        }
+        int bits = state & 0xFFFF;
+        int gameState = GameState.withHalfmoveClock(bits & ((1 << STATE_BITS) - 1), bits >>> STATE_BITS);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.restoreState(gameState);
+        return game;
+    }
+
+    /**
+     * Writes the position at the buffer's position, in the buffer's byte order
+     *
+     * @param out the buffer, with at least {@value #BYTES} bytes left
+     */
+    public void write(ByteBuffer out) {
+        out.putLong(occupancy).putLong(lowPieces).putLong(highPieces).putShort(state);
+    }
+
+    /**
+     * Reads a position written by write
+     *
+     * @param in the buffer, with at least {@value #BYTES} bytes left
+     * @return the position
+     */
+    public static PackedPosition read(ByteBuffer in) {
+        return new PackedPosition(in.getLong(), in.getLong(), in.getLong(), in.getShort());
+    }
+}
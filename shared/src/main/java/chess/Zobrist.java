@@ -0,0 +1,93 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys used to give every chess position a 64 bit hash.
+ * <p>
+ * The key of a position is the xor of one random number per piece on the board
+ * plus numbers for the side to move, the castling rights and the en passant
+ * column, so a move only has to xor in what it touches instead of rehashing
+ * the whole board.
+ */
+public final class Zobrist {
+
+    // fixed seed so keys are the same on every run and every machine
+    private static final long SEED = 0x240C4E55L;
+
+    private static final long[][] PIECE_KEYS = new long[12][64];
+    private static final long BLACK_TO_MOVE;
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[9];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int piece = 0; piece < 12; piece++) {
+            for (int square = 0; square < 64; square++) {
+                PIECE_KEYS[piece][square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        // no rights and no en passant column hash to 0
+        for (int rights = 1; rights < 16; rights++) {
+            CASTLING_KEYS[rights] = random.nextLong();
+        }
+        for (int col = 1; col <= 8; col++) {
+            EN_PASSANT_KEYS[col] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Gets the key for a single piece standing on a square
+     *
+     * @param piece the piece on the square
+     * @param row   row of the square, 1 codes for the bottom row
+     * @param col   column of the square, 1 codes for the left column
+     * @return the key for that piece on that square, or 0 if piece is null
+     */
+    public static long pieceKey(ChessPiece piece, int row, int col) {
+        if (piece == null) {
+            return 0L;
+        }
+        return PIECE_KEYS[pieceIndex(piece)][(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * Gets the part of the key that comes from the packed game state
+     *
+     * @param state a state word, see GameState
+     * @return the xor of the side to move, castling and en passant keys
+     */
+    public static long stateKey(int state) {
+        long key = CASTLING_KEYS[GameState.castlingIndex(state)] ^ EN_PASSANT_KEYS[GameState.enPassantColumn(state)];
+        if (GameState.sideToMove(state) == ChessGame.TeamColor.BLACK) {
+            key ^= BLACK_TO_MOVE;
+        }
+        return key;
+    }
+
+    /**
+     * Hashes a whole board from scratch
+     *
+     * @param board the board to hash
+     * @param state the packed game state, see GameState
+     * @return the Zobrist key of the position
+     */
+    public static long hash(ChessBoard board, int state) {
+        long key = 0L;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                key ^= pieceKey(board.getPiece(new ChessPosition(row, col)), row, col);
+            }
+        }
+        return key ^ stateKey(state);
+    }
+
+    private static int pieceIndex(ChessPiece piece) {
+        int index = piece.getPieceType().ordinal();
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? index : index + 6;
+    }
+}
@@ -0,0 +1,75 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Scores every position in a {@link PositionBatch} with the same material
+ * and piece-square terms as {@link PieceSquareEvaluator}.
+ * <p>
+ * With the jdk.incubator.vector module present, each square is handled for
+ * a whole vector of positions at a time: the piece codes index a gather
+ * from a per-square table and the results are added lane by lane. Without
+ * it the same table is read one position at a time.
+ */
+public class BatchEvaluator {
+
+    // signed value, white positive, of code c on square s at s * 13 + c
+    static final int[] TABLE = new int[64 * 13];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                int row = square / 8 + 1;
+                int col = square % 8 + 1;
+                ChessPiece white = new ChessPiece(ChessGame.TeamColor.WHITE, type);
+                ChessPiece black = new ChessPiece(ChessGame.TeamColor.BLACK, type);
+                TABLE[square * 13 + PositionBatch.pieceCode(white)] = PieceSquareEvaluator.squareValue(white, row, col);
+                TABLE[square * 13 + PositionBatch.pieceCode(black)] = -PieceSquareEvaluator.squareValue(black, row, col);
+            }
+        }
+    }
+
+    private final boolean vectorized;
+
+    /**
+     * Makes an evaluator that uses the Vector API if this JVM has it
+     */
+    public BatchEvaluator() {
+        this(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+    }
+
+    BatchEvaluator(boolean vectorized) {
+        this.vectorized = vectorized;
+    }
+
+    /**
+     * Scores every position in the batch
+     *
+     * @param batch  the positions
+     * @param scores receives the score of position i at index i, in
+     *               centipawns for the side to move
+     * @throws IllegalArgumentException if scores is shorter than the batch
+     */
+    public void evaluate(PositionBatch batch, int[] scores) {
+        int count = batch.size();
+        if (scores.length < count) {
+            throw new IllegalArgumentException("Need room for " + count + " scores");
+        }
+        int done = vectorized ? VectorBatchKernel.evaluate(batch.codes, batch.signs, count, scores) : 0;
+        for (int i = done; i < count; i++) {
+            int score = 0;
+            for (int square = 0; square < 64; square++) {
+                score += TABLE[square * 13 + batch.codes[square][i]];
+            }
+            scores[i] = score * batch.signs[i];
+        }
+    }
+
+    /**
+     * @return whether this evaluator uses the Vector API
+     */
+    public boolean isVectorized() {
+        return vectorized;
+    }
+}
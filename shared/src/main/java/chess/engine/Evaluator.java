@@ -0,0 +1,15 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Scores a position for the search
+ */
+public interface Evaluator {
+
+    /**
+     * @param game the position to score
+     * @return the score in centipawns from the point of view of the side to move
+     */
+    int evaluate(ChessGame game);
+}
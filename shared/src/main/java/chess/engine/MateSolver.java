@@ -0,0 +1,324 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MovePicker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Proves or disproves that the side to move can force mate in N moves, using
+ * depth-first proof-number search (df-pn), for checking that generated
+ * puzzles have exactly one solution.
+ * <p>
+ * Every position in the search is either an OR node, where the attacker
+ * needs one move that mates, or an AND node, where every defender move must
+ * still lose. Each node carries a proof number and a disproof number: how
+ * many more leaves at least must be shown to be mates, or escapes, to settle
+ * it. The search always goes into the child that is cheapest to settle and
+ * only comes back up when the numbers pass its thresholds, so it spends its
+ * time on the forcing lines and leaves quiet sidelines alone, where an
+ * alpha-beta search would look at them all.
+ * <p>
+ * Numbers are kept in a fixed size table keyed by position and moves left,
+ * so memory is bounded however long the search runs. When two entries want
+ * the same slot the newer one wins. A node budget stops searches that run
+ * too long. Repetitions and the fifty-move rule are ignored.
+ * <p>
+ * A solver is not thread safe. The game is back in its starting position
+ * when solve returns.
+ */
+public class MateSolver {
+
+    /**
+     * What a search found out about a position
+     */
+    public enum Status {
+        PROVEN,
+        DISPROVEN,
+        UNKNOWN
+    }
+
+    /**
+     * The outcome of a search
+     *
+     * @param status whether a forced mate was found, ruled out, or the node budget ran out first
+     * @param mateIn the fewest moves the attacker needs to mate, or 0 if not proven
+     * @param lines  one line per winning first move, shortest mates first, each with the defender holding out
+     *               longest and ending in mate
+     * @param nodes  positions visited
+     * @param millis time taken
+     */
+    public record Solution(Status status, int mateIn, List<List<ChessMove>> lines, long nodes, long millis) {
+
+        /**
+         * @return whether exactly one first move forces mate, as a puzzle needs
+         */
+        public boolean isUnique() {
+            return status == Status.PROVEN && lines.size() == 1;
+        }
+    }
+
+    private static final int INFINITY = 1 << 28;
+
+    private final long[] keys;
+    // moves left for the attacker, plus one so that 0 marks an empty slot
+    private final byte[] depths;
+    private final int[] proofs;
+    private final int[] disproofs;
+    private final int mask;
+
+    private long maxNodes = Long.MAX_VALUE;
+    private long nodes;
+    // numbers of the node the last call to search settled on
+    private int lastProof;
+    private int lastDisproof;
+
+    /**
+     * @param tableBits the table holds 2^tableBits entries of 17 bytes each
+     */
+    public MateSolver(int tableBits) {
+        if (tableBits < 4 || tableBits > 28) {
+            throw new IllegalArgumentException("Table bits must be between 4 and 28: " + tableBits);
+        }
+        int size = 1 << tableBits;
+        this.keys = new long[size];
+        this.depths = new byte[size];
+        this.proofs = new int[size];
+        this.disproofs = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param maxNodes the most positions one solve may visit before giving up, default unlimited
+     */
+    public void setMaxNodes(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Finds every first move with which the side to move forces mate in at
+     * most the given number of its own moves
+     *
+     * @param game   the position
+     * @param mateIn the most moves the attacker may take, 1 to 100
+     * @return whether there is a forced mate, and the winning lines
+     */
+    public Solution solve(ChessGame game, int mateIn) {
+        if (mateIn < 1 || mateIn > 100) {
+            throw new IllegalArgumentException("Mate in must be between 1 and 100: " + mateIn);
+        }
+        long start = System.currentTimeMillis();
+        nodes = 0;
+        List<ChessMove> rootMoves = MovePicker.legalMoves(game);
+        List<ChessMove> winning = new ArrayList<>();
+        List<Integer> distances = new ArrayList<>();
+        boolean unknown = false;
+        for (ChessMove move : rootMoves) {
+            game.makeLegalMove(move);
+            Status status = prove(game, false, mateIn - 1);
+            if (status == Status.PROVEN) {
+                winning.add(move);
+                distances.add(1 + shortestMate(game, false, mateIn - 1));
+            } else if (status == Status.UNKNOWN) {
+                unknown = true;
+            }
+            game.undoMove();
+        }
+
+        List<List<ChessMove>> lines = new ArrayList<>();
+        int shortest = Integer.MAX_VALUE;
+        for (int i = 0; i < winning.size(); i++) {
+            int at = 0;
+            while (at < lines.size() && lines.get(at).size() <= 2 * distances.get(i) - 1) {
+                at++;
+            }
+            lines.add(at, line(game, winning.get(i), distances.get(i)));
+            shortest = Math.min(shortest, distances.get(i));
+        }
+        Status status = !winning.isEmpty() ? Status.PROVEN : unknown ? Status.UNKNOWN : Status.DISPROVEN;
+        return new Solution(status, winning.isEmpty() ? 0 : shortest, lines, nodes,
+                System.currentTimeMillis() - start);
+    }
+
+    // settles a node if the budget allows
+    private Status prove(ChessGame game, boolean attacker, int movesLeft) {
+        search(game, attacker, movesLeft, INFINITY, INFINITY);
+        return lastProof == 0 ? Status.PROVEN : lastDisproof == 0 ? Status.DISPROVEN : Status.UNKNOWN;
+    }
+
+    // the fewest attacker moves that still mate from a node proven with movesLeft
+    private int shortestMate(ChessGame game, boolean attacker, int movesLeft) {
+        for (int fewer = 0; fewer < movesLeft; fewer++) {
+            if (prove(game, attacker, fewer) == Status.PROVEN) {
+                return fewer;
+            }
+        }
+        return movesLeft;
+    }
+
+    // plays out a proven first move: the attacker mates fastest and the defender holds out longest
+    private List<ChessMove> line(ChessGame game, ChessMove first, int mateIn) {
+        List<ChessMove> line = new ArrayList<>();
+        line.add(first);
+        game.makeLegalMove(first);
+        int movesLeft = mateIn - 1;
+        boolean attacker = false;
+        while (true) {
+            ChessMove best = null;
+            int bestLeft = 0;
+            for (ChessMove move : MovePicker.legalMoves(game)) {
+                game.makeLegalMove(move);
+                int childLeft = attacker ? movesLeft - 1 : movesLeft;
+                if (prove(game, !attacker, childLeft) == Status.PROVEN) {
+                    int left = shortestMate(game, !attacker, childLeft);
+                    if (best == null || (attacker ? left < bestLeft : left > bestLeft)) {
+                        best = move;
+                        bestLeft = left;
+                    }
+                }
+                game.undoMove();
+            }
+            if (best == null) {
+                break;
+            }
+            line.add(best);
+            game.makeLegalMove(best);
+            movesLeft = bestLeft;
+            attacker = !attacker;
+        }
+        for (int i = 0; i < line.size(); i++) {
+            game.undoMove();
+        }
+        return line;
+    }
+
+    // df-pn: works on a node until its numbers pass the thresholds, then stores and reports them
+    private void search(ChessGame game, boolean attacker, int movesLeft, int proofLimit, int disproofLimit) {
+        long key = game.getPositionKey();
+        int slot = probe(key, movesLeft);
+        if (slot >= 0 && (proofs[slot] == 0 || disproofs[slot] == 0)) {
+            report(proofs[slot], disproofs[slot]);
+            return;
+        }
+        nodes++;
+        if (attacker && movesLeft == 0) {
+            store(key, movesLeft, INFINITY, 0);
+            return;
+        }
+        List<ChessMove> moves = MovePicker.legalMoves(game);
+        if (moves.isEmpty()) {
+            // no moves: the player to move is mated or stalemated
+            boolean mated = game.isInCheck(game.getTeamTurn());
+            boolean proven = !attacker && mated;
+            store(key, movesLeft, proven ? 0 : INFINITY, proven ? INFINITY : 0);
+            return;
+        }
+        if (!attacker && movesLeft == 0) {
+            store(key, movesLeft, INFINITY, 0);
+            return;
+        }
+
+        int childLeft = attacker ? movesLeft - 1 : movesLeft;
+        int count = moves.size();
+        int[] childProofs = new int[count];
+        int[] childDisproofs = new int[count];
+        orderChildren(game, attacker, childLeft, moves, childProofs, childDisproofs);
+
+        while (true) {
+            int proof = attacker ? INFINITY : 0;
+            int disproof = attacker ? 0 : INFINITY;
+            int best = 0;
+            int second = INFINITY;
+            for (int i = 0; i < count; i++) {
+                // an OR node is as cheap to prove as its cheapest child and an AND node as cheap to disprove
+                int cheap = attacker ? childProofs[i] : childDisproofs[i];
+                int bestCheap = attacker ? childProofs[best] : childDisproofs[best];
+                if (i > 0 && cheap < bestCheap) {
+                    second = bestCheap;
+                    best = i;
+                } else if (i > 0 && cheap < second) {
+                    second = cheap;
+                }
+                if (attacker) {
+                    proof = Math.min(proof, childProofs[i]);
+                    disproof = Math.min(INFINITY, disproof + childDisproofs[i]);
+                } else {
+                    proof = Math.min(INFINITY, proof + childProofs[i]);
+                    disproof = Math.min(disproof, childDisproofs[i]);
+                }
+            }
+            if (proof >= proofLimit || disproof >= disproofLimit || proof == 0 || disproof == 0
+                    || nodes >= maxNodes) {
+                store(key, movesLeft, proof, disproof);
+                return;
+            }
+
+            int childProofLimit;
+            int childDisproofLimit;
+            if (attacker) {
+                childProofLimit = Math.min(proofLimit, second == INFINITY ? INFINITY : second + 1);
+                childDisproofLimit = disproofLimit - disproof + childDisproofs[best];
+            } else {
+                childProofLimit = proofLimit - proof + childProofs[best];
+                childDisproofLimit = Math.min(disproofLimit, second == INFINITY ? INFINITY : second + 1);
+            }
+            game.makeLegalMove(moves.get(best));
+            search(game, !attacker, childLeft, childProofLimit, childDisproofLimit);
+            game.undoMove();
+            childProofs[best] = lastProof;
+            childDisproofs[best] = lastDisproof;
+        }
+    }
+
+    // seeds the children's numbers from the table and puts checks first for the attacker
+    private void orderChildren(ChessGame game, boolean attacker, int childLeft, List<ChessMove> moves,
+                               int[] childProofs, int[] childDisproofs) {
+        List<ChessMove> checks = new ArrayList<>();
+        List<ChessMove> others = new ArrayList<>();
+        List<int[]> checkNumbers = new ArrayList<>();
+        List<int[]> otherNumbers = new ArrayList<>();
+        for (ChessMove move : moves) {
+            game.makeLegalMove(move);
+            int slot = probe(game.getPositionKey(), childLeft);
+            int[] numbers = slot >= 0 ? new int[]{proofs[slot], disproofs[slot]} : new int[]{1, 1};
+            boolean check = attacker && game.isInCheck(game.getTeamTurn());
+            game.undoMove();
+            (check ? checks : others).add(move);
+            (check ? checkNumbers : otherNumbers).add(numbers);
+        }
+        moves.clear();
+        moves.addAll(checks);
+        moves.addAll(others);
+        checkNumbers.addAll(otherNumbers);
+        for (int i = 0; i < moves.size(); i++) {
+            childProofs[i] = checkNumbers.get(i)[0];
+            childDisproofs[i] = checkNumbers.get(i)[1];
+        }
+    }
+
+    private int probe(long key, int movesLeft) {
+        int slot = slot(key, movesLeft);
+        return keys[slot] == key && depths[slot] == movesLeft + 1 ? slot : -1;
+    }
+
+    private void store(long key, int movesLeft, int proof, int disproof) {
+        int slot = slot(key, movesLeft);
+        keys[slot] = key;
+        depths[slot] = (byte) (movesLeft + 1);
+        proofs[slot] = proof;
+        disproofs[slot] = disproof;
+        report(proof, disproof);
+    }
+
+    private void report(int proof, int disproof) {
+        lastProof = proof;
+        lastDisproof = disproof;
+    }
+
+    private int slot(long key, int movesLeft) {
+        long mixed = key ^ (movesLeft * 0x9E3779B97F4A7C15L);
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+}
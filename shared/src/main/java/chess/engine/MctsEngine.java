@@ -0,0 +1,316 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.MovePicker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Monte Carlo tree search engine, a weaker and more human-feeling
+ * alternative to {@link Search} for casual bots.
+ * <p>
+ * Each playout walks down the tree choosing children by UCT, adds the
+ * children of the leaf it reaches, and plays random legal moves from there
+ * until the game ends or the playout depth runs out, when the position is
+ * scored by the piece-square evaluator. Strength is tuned by the playout or
+ * time budget, the exploration constant and the playout depth.
+ * <p>
+ * The tree lives in parallel primitive arrays indexed by node number, with
+ * a node's children stored next to each other, so a tree of a million nodes
+ * is a handful of arrays rather than a million objects. Several threads run
+ * playouts at once. Tree updates are short and done under one lock, and a
+ * thread walking down adds a virtual loss to each node on its path, so the
+ * other threads spread out over different lines instead of all piling into
+ * the same one.
+ */
+public class MctsEngine implements AutoCloseable {
+
+    private static final int UNEXPANDED = -1;
+    private static final int VIRTUAL_LOSS = 3;
+
+    private final int maxNodes;
+    private final int threads;
+    private final ExecutorService pool;
+    private final PieceSquareEvaluator evaluator = new PieceSquareEvaluator();
+
+    private final Object treeLock = new Object();
+    // the tree, one entry per node
+    private final int[] parents;
+    private final int[] moves;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] visits;
+    private final double[] wins;
+    private int nodeCount;
+
+    private double exploration = 1.4;
+    private int playoutDepth = 60;
+
+    private volatile boolean stopped;
+    // playouts handed out to workers, and playouts finished
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong playouts = new AtomicLong();
+
+    /**
+     * The outcome of a search
+     *
+     * @param bestMove          the most visited move, or null if there is no legal move
+     * @param winRate           how often playouts through that move were won by the side to move
+     * @param playouts          playouts run
+     * @param nodes             tree nodes used
+     * @param millis            time taken
+     * @param playoutsPerSecond playouts divided by time
+     */
+    public record Result(ChessMove bestMove, double winRate, long playouts, int nodes, long millis,
+                         double playoutsPerSecond) {
+    }
+
+    /**
+     * @param maxNodes the most tree nodes a search may use; the tree stops growing when full
+     * @param threads  how many threads run playouts
+     */
+    public MctsEngine(int maxNodes, int threads) {
+        if (maxNodes < 2 || threads < 1) {
+            throw new IllegalArgumentException("Need at least 2 nodes and 1 thread");
+        }
+        this.maxNodes = maxNodes;
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.parents = new int[maxNodes];
+        this.moves = new int[maxNodes];
+        this.firstChild = new int[maxNodes];
+        this.childCount = new int[maxNodes];
+        this.visits = new int[maxNodes];
+        this.wins = new double[maxNodes];
+    }
+
+    /**
+     * @param exploration the UCT exploration constant; higher tries more moves, default 1.4
+     */
+    public void setExploration(double exploration) {
+        this.exploration = exploration;
+    }
+
+    /**
+     * @param playoutDepth random moves played before a playout is scored by the evaluator, default 60
+     */
+    public void setPlayoutDepth(int playoutDepth) {
+        this.playoutDepth = playoutDepth;
+    }
+
+    /**
+     * Searches a position until a budget runs out. The game is not changed.
+     *
+     * @param game        the position to search
+     * @param maxPlayouts how many playouts to run, or 0 for no limit
+     * @param maxMillis   how long to search, or 0 for no limit
+     * @return the most visited move and search statistics
+     * @throws IllegalArgumentException if neither budget is set
+     */
+    public synchronized Result search(ChessGame game, long maxPlayouts, long maxMillis) {
+        if (maxPlayouts <= 0 && maxMillis <= 0) {
+            throw new IllegalArgumentException("A playout or time budget is needed");
+        }
+        long start = System.currentTimeMillis();
+        long deadline = maxMillis > 0 ? start + maxMillis : Long.MAX_VALUE;
+        long budget = maxPlayouts > 0 ? maxPlayouts : Long.MAX_VALUE;
+        String rootFen = Fen.toFen(game);
+        stopped = false;
+        claimed.set(0);
+        playouts.set(0);
+        nodeCount = 1;
+        parents[0] = -1;
+        childCount[0] = UNEXPANDED;
+        visits[0] = 0;
+        wins[0] = 0;
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = start * 31 + t;
+            workers.add(pool.submit(() -> runPlayouts(Fen.parse(rootFen), budget, deadline, new SplittableRandom(seed))));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (Exception ex) {
+                throw new IllegalStateException("MCTS worker failed", ex);
+            }
+        }
+
+        long millis = System.currentTimeMillis() - start;
+        long done = playouts.get();
+        synchronized (treeLock) {
+            int best = -1;
+            for (int child = firstChild[0]; childCount[0] > 0 && child < firstChild[0] + childCount[0]; child++) {
+                if (best < 0 || visits[child] > visits[best]) {
+                    best = child;
+                }
+            }
+            ChessMove bestMove = best < 0 ? null : decode(moves[best]);
+            double winRate = best < 0 || visits[best] == 0 ? 0.0 : wins[best] / visits[best];
+            return new Result(bestMove, winRate, done, nodeCount, millis, done / Math.max(millis / 1000.0, 1e-3));
+        }
+    }
+
+    /**
+     * Asks a running search to return as soon as it can
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private void runPlayouts(ChessGame game, long budget, long deadline, SplittableRandom random) {
+        int[] path = new int[256];
+        while (!stopped && System.currentTimeMillis() < deadline && claimed.getAndIncrement() < budget) {
+            int length = select(path);
+            for (int i = 1; i < length; i++) {
+                game.makeLegalMove(decode(moves[path[i]]));
+            }
+
+            int leaf = path[length - 1];
+            // only a leaf nobody has expanded yet needs its moves
+            List<ChessMove> legal = childCount[leaf] == UNEXPANDED ? MovePicker.legalMoves(game) : null;
+            int child = expand(leaf, legal, random);
+            if (child >= 0 && length < path.length) {
+                path[length++] = child;
+                game.makeLegalMove(decode(moves[child]));
+            }
+
+            ChessGame.TeamColor leafSide = game.getTeamTurn();
+            double reward = playout(game, random);
+            if (game.getTeamTurn() != leafSide) {
+                // the playout scores the position for whoever is to move where it stopped
+                reward = 1 - reward;
+            }
+            for (int undo = game.getMoveHistory().size(); undo > 0; undo--) {
+                game.undoMove();
+            }
+            backPropagate(path, length, reward);
+            playouts.incrementAndGet();
+        }
+    }
+
+    // walks down by UCT from the root, adding a virtual loss to each node, and returns the path length
+    private int select(int[] path) {
+        synchronized (treeLock) {
+            int node = 0;
+            int length = 0;
+            path[length++] = node;
+            visits[node] += VIRTUAL_LOSS;
+            while (childCount[node] > 0 && length < path.length) {
+                node = bestChild(node);
+                path[length++] = node;
+                visits[node] += VIRTUAL_LOSS;
+            }
+            return length;
+        }
+    }
+
+    private int bestChild(int node) {
+        double logVisits = Math.log(Math.max(visits[node], 1));
+        int best = firstChild[node];
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = firstChild[node]; child < firstChild[node] + childCount[node]; child++) {
+            if (visits[child] == 0) {
+                return child;
+            }
+            double value = wins[child] / visits[child] + exploration * Math.sqrt(logVisits / visits[child]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    // adds the leaf's children if there is room, returns one to play out from or -1
+    private int expand(int leaf, List<ChessMove> legal, SplittableRandom random) {
+        synchronized (treeLock) {
+            if (childCount[leaf] == UNEXPANDED) {
+                if (legal == null || nodeCount + legal.size() > maxNodes) {
+                    return -1;
+                }
+                firstChild[leaf] = nodeCount;
+                childCount[leaf] = legal.size();
+                for (ChessMove move : legal) {
+                    int child = nodeCount++;
+                    parents[child] = leaf;
+                    moves[child] = encode(move);
+                    childCount[child] = UNEXPANDED;
+                    visits[child] = 0;
+                    wins[child] = 0;
+                }
+            }
+            if (childCount[leaf] <= 0) {
+                return -1;
+            }
+            int child = firstChild[leaf] + random.nextInt(childCount[leaf]);
+            visits[child] += VIRTUAL_LOSS;
+            return child;
+        }
+    }
+
+    // plays random moves, returns 1, 0.5 or 0 for the side to move at the end, or a guess from the evaluator
+    private double playout(ChessGame game, SplittableRandom random) {
+        for (int ply = 0; ply < playoutDepth; ply++) {
+            if (game.isDraw()) {
+                return 0.5;
+            }
+            List<ChessMove> legal = MovePicker.legalMoves(game);
+            if (legal.isEmpty()) {
+                return game.isInCheck(game.getTeamTurn()) ? 0.0 : 0.5;
+            }
+            game.makeLegalMove(legal.get(random.nextInt(legal.size())));
+        }
+        if (new MovePicker(game, null).next() == null) {
+            return game.isInCheck(game.getTeamTurn()) ? 0.0 : 0.5;
+        }
+        return 1 / (1 + Math.pow(10, -evaluator.evaluate(game) / 400.0));
+    }
+
+    // reward is for the side to move at the end of the path; each node stores wins for the side that moved into it
+    private void backPropagate(int[] path, int length, double reward) {
+        synchronized (treeLock) {
+            double forMover = 1 - reward;
+            for (int i = length - 1; i >= 0; i--) {
+                int node = path[i];
+                visits[node] += 1 - VIRTUAL_LOSS;
+                wins[node] += forMover;
+                forMover = 1 - forMover;
+            }
+        }
+    }
+
+    // from square, to square and promotion piece packed into one int
+    private static int encode(ChessMove move) {
+        ChessPosition from = move.getStartPosition();
+        ChessPosition to = move.getEndPosition();
+        int promotion = move.getPromotionPiece() == null ? 0 : move.getPromotionPiece().ordinal() + 1;
+        return ((from.getRow() - 1) * 8 + from.getColumn() - 1)
+                | ((to.getRow() - 1) * 8 + to.getColumn() - 1) << 6
+                | promotion << 12;
+    }
+
+    private static ChessMove decode(int move) {
+        int from = move & 63;
+        int to = (move >>> 6) & 63;
+        int promotion = move >>> 12;
+        return new ChessMove(new ChessPosition(from / 8 + 1, from % 8 + 1), new ChessPosition(to / 8 + 1, to % 8 + 1),
+                promotion == 0 ? null : ChessPiece.PieceType.values()[promotion - 1]);
+    }
+}
@@ -0,0 +1,111 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Scores positions with an {@link NnueNetwork}.
+ * <p>
+ * The evaluator listens to the board of the game it last scored, so every
+ * addPiece made by makeMove or undoMove adds or subtracts one weight column
+ * per side instead of rebuilding the accumulators. Scoring then only costs
+ * the output layer. Moving to a different board rebuilds them once.
+ * <p>
+ * An evaluator follows one board at a time and is not thread safe, so give
+ * each search thread its own.
+ */
+public class NnueEvaluator implements Evaluator, ChessBoard.Listener {
+
+    private final NnueNetwork network;
+    private final NnueKernels kernels;
+    private final short[][] accumulators;
+    private ChessBoard board;
+
+    public NnueEvaluator(NnueNetwork network) {
+        this(network, NnueKernels.best());
+    }
+
+    NnueEvaluator(NnueNetwork network, NnueKernels kernels) {
+        this.network = network;
+        this.kernels = kernels;
+        this.accumulators = new short[2][network.hiddenSize];
+    }
+
+    /**
+     * Loads a network from a weights file and makes an evaluator for it
+     *
+     * @param weights the network file
+     * @return the evaluator
+     * @throws IOException if the file cannot be read
+     */
+    public static NnueEvaluator load(Path weights) throws IOException {
+        return new NnueEvaluator(NnueNetwork.load(weights));
+    }
+
+    @Override
+    public int evaluate(ChessGame game) {
+        ChessBoard current = game.getBoard();
+        if (current != board || !current.hasListener(this)) {
+            follow(current);
+        }
+        int us = game.getTeamTurn().ordinal();
+        int hidden = network.hiddenSize;
+        int sum = kernels.clippedDot(accumulators[us], network.outputWeights, 0, NnueNetwork.ACTIVATION_MAX)
+                + kernels.clippedDot(accumulators[1 - us], network.outputWeights, hidden, NnueNetwork.ACTIVATION_MAX);
+        long scaled = ((long) sum + network.outputBias) * NnueNetwork.EVAL_SCALE;
+        return (int) (scaled / (NnueNetwork.ACTIVATION_MAX * NnueNetwork.OUTPUT_SCALE));
+    }
+
+    /**
+     * @return whether this evaluator uses the Vector API
+     */
+    public boolean isVectorized() {
+        return kernels.isVectorized();
+    }
+
+    @Override
+    public void pieceChanged(int row, int col, ChessPiece old, ChessPiece piece) {
+        if (old != null) {
+            update(old, row, col, false);
+        }
+        if (piece != null) {
+            update(piece, row, col, true);
+        }
+    }
+
+    // starts listening to a board and rebuilds both accumulators from its pieces
+    private void follow(ChessBoard next) {
+        if (board != null) {
+            board.removeListener(this);
+        }
+        board = next;
+        for (short[] accumulator : accumulators) {
+            System.arraycopy(network.inputBiases, 0, accumulator, 0, accumulator.length);
+        }
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = next.getPiece(new ChessPosition(row, col));
+                if (piece != null) {
+                    update(piece, row, col, true);
+                }
+            }
+        }
+        next.addListener(this);
+    }
+
+    private void update(ChessPiece piece, int row, int col, boolean add) {
+        for (ChessGame.TeamColor perspective : ChessGame.TeamColor.values()) {
+            int offset = NnueNetwork.inputIndex(perspective, piece, row, col) * network.hiddenSize;
+            if (add) {
+                kernels.add(accumulators[perspective.ordinal()], network.inputWeights, offset);
+            } else {
+                kernels.subtract(accumulators[perspective.ordinal()], network.inputWeights, offset);
+            }
+        }
+    }
+}
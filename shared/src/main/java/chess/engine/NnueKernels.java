@@ -0,0 +1,48 @@
+package chess.engine;
+
+/**
+ * The arithmetic an NNUE evaluation spends its time in. The Vector API
+ * version is used when the jdk.incubator.vector module is present, the
+ * plain loops otherwise.
+ */
+abstract class NnueKernels {
+
+    /**
+     * Adds weights[offset .. offset + accumulator.length) to the accumulator
+     */
+    abstract void add(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * Subtracts weights[offset .. offset + accumulator.length) from the accumulator
+     */
+    abstract void subtract(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * @return the sum of each accumulator entry, clipped to 0..max, times the
+     * matching entry of weights starting at offset
+     */
+    abstract int clippedDot(short[] accumulator, short[] weights, int offset, int max);
+
+    /**
+     * @return whether these kernels use the Vector API
+     */
+    abstract boolean isVectorized();
+
+    /**
+     * @return the fastest kernels this JVM can run
+     */
+    static NnueKernels best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorNnueKernels();
+            } catch (LinkageError ex) {
+                // fall through to the scalar loops
+            }
+        }
+        return scalar();
+    }
+
+    static NnueKernels scalar() {
+        return new ScalarNnueKernels();
+    }
+}
@@ -0,0 +1,158 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * The weights of a small efficiently updatable neural network (NNUE).
+ * <p>
+ * Each side sees the board through 768 inputs, one per piece kind and
+ * square, with its own pieces first and the board flipped for black. The
+ * first layer turns those into a hidden vector of 16 bit integers per side,
+ * the accumulator, which a move changes by adding and subtracting a few
+ * weight columns. The output layer takes both accumulators, clipped to
+ * 0..{@value #ACTIVATION_MAX}, side to move first.
+ * <p>
+ * Weights are stored little endian:
+ * <pre>
+ * int     magic 0x554E4E43 ("CNNU")
+ * int     hidden size H, a multiple of 32
+ * short   768 * H first layer weights, one run of H per input
+ * short   H first layer biases
+ * short   2 * H output weights, side to move first
+ * int     output bias
+ * </pre>
+ */
+public final class NnueNetwork {
+
+    public static final int INPUTS = 768;
+    public static final int ACTIVATION_MAX = 255;
+    static final int OUTPUT_SCALE = 64;
+    static final int EVAL_SCALE = 400;
+
+    private static final int MAGIC = 0x554E4E43;
+
+    final int hiddenSize;
+    final short[] inputWeights;
+    final short[] inputBiases;
+    final short[] outputWeights;
+    final int outputBias;
+
+    private NnueNetwork(int hiddenSize, short[] inputWeights, short[] inputBiases, short[] outputWeights, int outputBias) {
+        if (hiddenSize <= 0 || hiddenSize % 32 != 0) {
+            throw new IllegalArgumentException("Hidden size must be a positive multiple of 32: " + hiddenSize);
+        }
+        this.hiddenSize = hiddenSize;
+        this.inputWeights = inputWeights;
+        this.inputBiases = inputBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Reads a network from a weights file
+     *
+     * @param file the weights, in the format described above
+     * @return the network
+     * @throws IOException if the file cannot be read or is not a network
+     */
+    public static NnueNetwork load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a network file: " + file);
+        }
+        int hiddenSize = buffer.getInt();
+        long expected = 2L * (INPUTS * (long) hiddenSize + hiddenSize + 2L * hiddenSize) + 4;
+        if (hiddenSize <= 0 || hiddenSize % 32 != 0 || buffer.remaining() != expected) {
+            throw new IOException("Network file has the wrong size: " + file);
+        }
+        short[] inputWeights = new short[INPUTS * hiddenSize];
+        short[] inputBiases = new short[hiddenSize];
+        short[] outputWeights = new short[2 * hiddenSize];
+        buffer.asShortBuffer().get(inputWeights);
+        buffer.position(buffer.position() + inputWeights.length * 2);
+        buffer.asShortBuffer().get(inputBiases);
+        buffer.position(buffer.position() + inputBiases.length * 2);
+        buffer.asShortBuffer().get(outputWeights);
+        buffer.position(buffer.position() + outputWeights.length * 2);
+        return new NnueNetwork(hiddenSize, inputWeights, inputBiases, outputWeights, buffer.getInt());
+    }
+
+    /**
+     * Writes the network in the format load reads
+     *
+     * @param file where to write it
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 2 * (inputWeights.length + inputBiases.length + outputWeights.length) + 4)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(hiddenSize);
+        for (short weight : inputWeights) {
+            buffer.putShort(weight);
+        }
+        for (short bias : inputBiases) {
+            buffer.putShort(bias);
+        }
+        for (short weight : outputWeights) {
+            buffer.putShort(weight);
+        }
+        buffer.putInt(outputBias);
+        Files.write(file, buffer.array());
+    }
+
+    /**
+     * Makes a network with small random weights, for tests and benchmarks.
+     * It plays no better than chance.
+     *
+     * @param hiddenSize the accumulator length, a multiple of 32
+     * @param seed       the random seed
+     * @return the network
+     */
+    public static NnueNetwork random(int hiddenSize, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        short[] inputWeights = new short[INPUTS * hiddenSize];
+        short[] inputBiases = new short[hiddenSize];
+        short[] outputWeights = new short[2 * hiddenSize];
+        for (int i = 0; i < inputWeights.length; i++) {
+            inputWeights[i] = (short) random.nextInt(-32, 33);
+        }
+        for (int i = 0; i < inputBiases.length; i++) {
+            inputBiases[i] = (short) random.nextInt(0, 64);
+        }
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) random.nextInt(-64, 65);
+        }
+        return new NnueNetwork(hiddenSize, inputWeights, inputBiases, outputWeights, 0);
+    }
+
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+    /**
+     * Gets the input a piece on a square switches on, as seen by one side
+     *
+     * @param perspective the side looking at the board
+     * @param piece       the piece
+     * @param row         its row, 1 to 8
+     * @param col         its column, 1 to 8
+     * @return the input number, 0 to 767
+     */
+    static int inputIndex(ChessGame.TeamColor perspective, ChessPiece piece, int row, int col) {
+        int square = (row - 1) * 8 + col - 1;
+        if (perspective == ChessGame.TeamColor.BLACK) {
+            // flip the board so black sees its pieces from its own side
+            square ^= 56;
+        }
+        int kind = piece.getPieceType().ordinal() + (piece.getTeamColor() == perspective ? 0 : 6);
+        return kind * 64 + square;
+    }
+}
@@ -0,0 +1,75 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Many positions stored square by square (structure of arrays) so one SIMD
+ * instruction can work on the same square of several boards at once.
+ * <p>
+ * For each of the 64 squares there is one int array holding a piece code
+ * per position: 0 for empty, 1 to 6 for white pieces and 7 to 12 for black,
+ * in PieceType order. A batch is filled once and can be cleared and reused.
+ */
+public final class PositionBatch {
+
+    final int[][] codes;
+    // 1 when white is to move, -1 when black is
+    final int[] signs;
+    private int size;
+
+    /**
+     * @param capacity the most positions the batch holds
+     */
+    public PositionBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.codes = new int[64][capacity];
+        this.signs = new int[capacity];
+    }
+
+    /**
+     * Copies a game's position into the next free place
+     *
+     * @param game the position to add
+     * @return its index in the batch
+     * @throws IllegalStateException if the batch is full
+     */
+    public int add(ChessGame game) {
+        if (size == signs.length) {
+            throw new IllegalStateException("Position batch is full");
+        }
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            codes[square][size] = pieceCode(board.getPiece(new ChessPosition(square / 8 + 1, square % 8 + 1)));
+        }
+        signs[size] = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 1 : -1;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return signs.length;
+    }
+
+    /**
+     * Empties the batch without freeing its arrays
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    static int pieceCode(ChessPiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        int code = 1 + piece.getPieceType().ordinal();
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? code : code + 6;
+    }
+}
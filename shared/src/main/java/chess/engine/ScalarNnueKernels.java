@@ -0,0 +1,36 @@
+package chess.engine;
+
+/**
+ * NNUE arithmetic as plain loops, for JVMs started without the
+ * jdk.incubator.vector module
+ */
+final class ScalarNnueKernels extends NnueKernels {
+
+    @Override
+    void add(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    void subtract(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    int clippedDot(short[] accumulator, short[] weights, int offset, int max) {
+        int sum = 0;
+        for (int i = 0; i < accumulator.length; i++) {
+            sum += Math.min(Math.max(accumulator[i], 0), max) * weights[offset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    boolean isVectorized() {
+        return false;
+    }
+}
@@ -0,0 +1,255 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MovePicker;
+
+/**
+ * An alpha-beta search with iterative deepening and a quiescence search of
+ * captures at the leaves.
+ * <p>
+ * Moves come from a {@link MovePicker}, so the best move of the previous
+ * iteration is tried first and captures are tried before quiet moves. Most
+ * cutoffs happen before the quiet moves of a position are ever generated,
+ * and the quiescence search never generates them at all.
+ * <p>
+ * A search is not thread safe, but stop may be called from another thread.
+ * A stop holds until reset, so one sent before the searching thread gets
+ * going is not lost; callers that search on another thread reset before
+ * starting it.
+ */
+public class Search {
+
+    public static final int MATE_SCORE = 100_000;
+
+    private static final int INFINITY = 1_000_000;
+    private static final int HASH_MOVE_SLOTS = 1 << 16;
+    // how often, in nodes, the clock is looked at
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    private final Evaluator evaluator;
+    // best move found for each position, indexed by the low bits of its key
+    private final long[] hashKeys = new long[HASH_MOVE_SLOTS];
+    private final ChessMove[] hashMoves = new ChessMove[HASH_MOVE_SLOTS];
+
+    // set by stop, from any thread
+    private volatile boolean stopRequested;
+    // set once this search has to return, by a stop or a limit
+    private boolean stopped;
+    private long deadline;
+    private long maxNodes = Long.MAX_VALUE;
+    private long nodes;
+    private ChessMove rootBestMove;
+    private Listener listener;
+
+    /**
+     * The outcome of a search
+     *
+     * @param bestMove the move to play, or null if the side to move has none
+     * @param score    its score in centipawns for the side to move
+     * @param depth    the deepest iteration that finished
+     * @param nodes    positions visited
+     * @param millis   time taken
+     */
+    public record Result(ChessMove bestMove, int score, int depth, long nodes, long millis) {
+    }
+
+    /**
+     * Hears about each iteration of a search as it finishes, for showing
+     * progress while the search goes on
+     */
+    public interface Listener {
+
+        /**
+         * Called on the searching thread after each iteration
+         *
+         * @param result the best move and score so far, and the nodes and time used so far
+         */
+        void iterationFinished(Result result);
+    }
+
+    public Search(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Searches a position one ply deeper at a time until the depth or the
+     * time runs out. The game is back in its starting position on return.
+     *
+     * @param game      the position to search
+     * @param maxDepth  the deepest iteration to run
+     * @param maxMillis how long to search, or 0 for no limit
+     * @return the best move of the last iteration that finished
+     */
+    public Result search(ChessGame game, int maxDepth, long maxMillis) {
+        long start = System.currentTimeMillis();
+        deadline = maxMillis > 0 ? start + maxMillis : Long.MAX_VALUE;
+        stopped = false;
+        nodes = 0;
+        rootBestMove = null;
+
+        ChessMove bestMove = null;
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int score = negamax(game, depth, -INFINITY, INFINITY, 0);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (listener != null) {
+                listener.iterationFinished(new Result(bestMove, bestScore, depth, nodes,
+                        System.currentTimeMillis() - start));
+            }
+            if (bestMove == null || Math.abs(score) >= MATE_SCORE - maxDepth) {
+                // no legal move, or a forced mate, will not change with more depth
+                break;
+            }
+        }
+        if (bestMove == null) {
+            // stopped before the first iteration finished
+            bestMove = new MovePicker(game, null).next();
+        }
+        return new Result(bestMove, bestScore, completedDepth, nodes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Limits every search to a number of nodes, for node based time controls
+     * that play the same on any machine. The last iteration that finished
+     * decides the move, as when time runs out.
+     *
+     * @param maxNodes the most positions a search may visit, or 0 for no limit
+     */
+    public void setMaxNodes(long maxNodes) {
+        this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+    }
+
+    /**
+     * @param listener told about each finished iteration, or null
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Asks the running search, or the next one if none is running yet, to
+     * return as soon as it can. Later searches stop too until reset is
+     * called.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Clears a stop, so the next search runs. Call it before handing the
+     * search to another thread, not on that thread, or a stop sent in
+     * between is lost.
+     */
+    public void reset() {
+        stopRequested = false;
+    }
+
+    /**
+     * @return positions visited by the current or last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    private int negamax(ChessGame game, int depth, int alpha, int beta, int ply) {
+        if (ply > 0 && (game.getRepetitionCount() >= 2 || game.isDrawByFiftyMoveRule())) {
+            return 0;
+        }
+        if (depth <= 0) {
+            return quiescence(game, alpha, beta, ply);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        long key = game.getPositionKey();
+        MovePicker picker = new MovePicker(game, probe(key));
+        ChessMove bestMove = null;
+        int bestScore = -INFINITY;
+        for (ChessMove move = picker.next(); move != null; move = picker.next()) {
+            game.makeLegalMove(move);
+            int score = -negamax(game, depth - 1, -beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBestMove = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (bestMove == null) {
+            // no legal move: checkmate, scored so nearer mates are preferred, or stalemate
+            return game.isInCheck(game.getTeamTurn()) ? -MATE_SCORE + ply : 0;
+        }
+        store(key, bestMove);
+        return bestScore;
+    }
+
+    // only captures and promotions, until the position is quiet enough to trust the evaluator
+    private int quiescence(ChessGame game, int alpha, int beta, int ply) {
+        if (countNode()) {
+            return 0;
+        }
+        int standPat = evaluator.evaluate(game);
+        if (standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+        MovePicker picker = MovePicker.capturesOnly(game);
+        for (ChessMove move = picker.next(); move != null; move = picker.next()) {
+            game.makeLegalMove(move);
+            int score = -quiescence(game, -beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    // counts a node and returns whether the search should stop
+    private boolean countNode() {
+        nodes++;
+        if (stopRequested || nodes >= maxNodes
+                || nodes % TIME_CHECK_INTERVAL == 0 && System.currentTimeMillis() >= deadline) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private ChessMove probe(long key) {
+        int slot = (int) key & (HASH_MOVE_SLOTS - 1);
+        return hashKeys[slot] == key ? hashMoves[slot] : null;
+    }
+
+    private void store(long key, ChessMove move) {
+        int slot = (int) key & (HASH_MOVE_SLOTS - 1);
+        hashKeys[slot] = key;
+        hashMoves[slot] = move;
+    }
+}
@@ -0,0 +1,48 @@
+package chess.engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The Vector API loop of BatchEvaluator, kept in its own class so it is only
+ * loaded when the jdk.incubator.vector module is present
+ */
+final class VectorBatchKernel {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    // positions summed square by square before moving on, small enough to stay in cache
+    private static final int BLOCK = 1024;
+
+    private VectorBatchKernel() {
+    }
+
+    /**
+     * Scores whole vectors of positions
+     *
+     * @return how many positions were scored; the caller does the rest
+     */
+    static int evaluate(int[][] codes, int[] signs, int count, int[] scores) {
+        int[] table = BatchEvaluator.TABLE;
+        int bound = INTS.loopBound(count);
+        for (int blockStart = 0; blockStart < bound; blockStart += BLOCK) {
+            int blockEnd = Math.min(blockStart + BLOCK, bound);
+            for (int i = blockStart; i < blockEnd; i += INTS.length()) {
+                IntVector.zero(INTS).intoArray(scores, i);
+            }
+            for (int square = 0; square < 64; square++) {
+                int[] squareCodes = codes[square];
+                int offset = square * 13;
+                for (int i = blockStart; i < blockEnd; i += INTS.length()) {
+                    // each lane looks up its own position's piece on this square
+                    IntVector.fromArray(INTS, scores, i)
+                            .add(IntVector.fromArray(INTS, table, offset, squareCodes, i))
+                            .intoArray(scores, i);
+                }
+            }
+            for (int i = blockStart; i < blockEnd; i += INTS.length()) {
+                IntVector.fromArray(INTS, scores, i).mul(IntVector.fromArray(INTS, signs, i)).intoArray(scores, i);
+            }
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,71 @@
+package chess.engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * NNUE arithmetic with the Vector API. Only loaded when the
+ * jdk.incubator.vector module is present, so the JVM needs
+ * --add-modules jdk.incubator.vector to use it.
+ */
+final class VectorNnueKernels extends NnueKernels {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    // same vector width, so each short vector widens into two int vectors
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    void add(short[] accumulator, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    void subtract(short[] accumulator, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    int clippedDot(short[] accumulator, short[] weights, int offset, int max) {
+        IntVector sum = IntVector.zero(INTS);
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector clipped = ShortVector.fromArray(SHORTS, accumulator, i)
+                    .max((short) 0)
+                    .min((short) max);
+            ShortVector weight = ShortVector.fromArray(SHORTS, weights, offset + i);
+            for (int part = 0; part < 2; part++) {
+                IntVector wideClipped = (IntVector) clipped.convertShape(VectorOperators.S2I, INTS, part);
+                IntVector wideWeight = (IntVector) weight.convertShape(VectorOperators.S2I, INTS, part);
+                sum = sum.add(wideClipped.mul(wideWeight));
+            }
+        }
+        int total = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < accumulator.length; i++) {
+            total += Math.min(Math.max(accumulator[i], 0), max) * weights[offset + i];
+        }
+        return total;
+    }
+
+    @Override
+    boolean isVectorized() {
+        return true;
+    }
+}
@@ -0,0 +1,293 @@
+package chess.index;
+
+import chess.ChessGame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * An on-disk index from position keys to the IDs of the games that reached
+ * them, answering "which games passed through this position?" without
+ * replaying any game.
+ * <p>
+ * The index is a directory holding two files:
+ * <pre>
+ * positions.idx   (key, game ID) pairs sorted by key, 12 bytes each
+ * positions.log   pairs added since the last flush, in arrival order
+ * </pre>
+ * A lookup is a binary search of the sorted file plus a hash lookup of the
+ * pairs added since the last flush. New pairs are appended to the log and
+ * kept in memory until flush merges them into the sorted file, so the index
+ * can be fed one move at a time as games are played.
+ */
+public class PositionIndex implements Closeable {
+
+    private static final int ENTRY_BYTES = 12;
+
+    private final Path indexPath;
+    private final Path logPath;
+    private FileChannel index;
+    private long entryCount;
+    private DataOutputStream log;
+    private final Map<Long, TreeSet<Integer>> pending = new HashMap<>();
+    private int pendingCount;
+
+    /**
+     * Opens the index in a directory, creating it if needed. Pairs left in the
+     * log by an earlier run are loaded back into memory, and a pair the run
+     * died in the middle of writing is cut off the end of the log.
+     *
+     * @param directory where the index files live
+     * @throws IOException if the files cannot be opened
+     */
+    public PositionIndex(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.indexPath = directory.resolve("positions.idx");
+        this.logPath = directory.resolve("positions.log");
+        if (!Files.exists(indexPath)) {
+            Files.createFile(indexPath);
+        }
+        openIndex();
+        replayLog();
+        this.log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(logPath,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    /**
+     * Records that a game reached a position
+     *
+     * @param gameId      the game
+     * @param positionKey the Zobrist key of the position
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void add(int gameId, long positionKey) throws IOException {
+        if (pending.computeIfAbsent(positionKey, key -> new TreeSet<>()).add(gameId)) {
+            pendingCount++;
+            log.writeLong(positionKey);
+            log.writeInt(gameId);
+        }
+    }
+
+    /**
+     * Records a game's current position. Call it after each makeMove to keep
+     * the index up to date as a game is played.
+     *
+     * @param gameId the game
+     * @param game   the game after its latest move
+     * @throws IOException if the log cannot be written
+     */
+    public void add(int gameId, ChessGame game) throws IOException {
+        add(gameId, game.getPositionKey());
+    }
+
+    /**
+     * Finds every game that reached a position
+     *
+     * @param positionKey the Zobrist key of the position
+     * @return the IDs of those games in ascending order
+     * @throws IOException if the index cannot be read
+     */
+    public synchronized List<Integer> find(long positionKey) throws IOException {
+        TreeSet<Integer> ids = new TreeSet<>();
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES);
+        for (long i = lowerBound(positionKey, entry); i < entryCount; i++) {
+            readEntry(i, entry);
+            if (entry.getLong(0) != positionKey) {
+                break;
+            }
+            ids.add(entry.getInt(8));
+        }
+        TreeSet<Integer> recent = pending.get(positionKey);
+        if (recent != null) {
+            ids.addAll(recent);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * @return the number of pairs added since the last flush
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * @return the number of pairs in the sorted file
+     */
+    public synchronized long getIndexedCount() {
+        return entryCount;
+    }
+
+    /**
+     * Writes buffered log entries to disk without merging them
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void sync() throws IOException {
+        log.flush();
+    }
+
+    /**
+     * Merges the pairs added since the last flush into the sorted file and
+     * empties the log
+     *
+     * @throws IOException if the files cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        log.flush();
+        if (pendingCount == 0) {
+            return;
+        }
+        long[] keys = new long[pendingCount];
+        int[] ids = new int[pendingCount];
+        Long[] sortedKeys = pending.keySet().toArray(new Long[0]);
+        Arrays.sort(sortedKeys);
+        int n = 0;
+        for (Long key : sortedKeys) {
+            for (int id : pending.get(key)) {
+                keys[n] = key;
+                ids[n] = id;
+                n++;
+            }
+        }
+
+        Path merged = indexPath.resolveSibling("positions.idx.tmp");
+        long written = 0;
+        try (DataInputStream old = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath), 1 << 16));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(merged), 1 << 16))) {
+            long remaining = entryCount;
+            long oldKey = 0;
+            int oldId = 0;
+            boolean hasOld = remaining > 0;
+            if (hasOld) {
+                oldKey = old.readLong();
+                oldId = old.readInt();
+                remaining--;
+            }
+            int next = 0;
+            while (hasOld || next < n) {
+                boolean takeOld = hasOld && (next == n || compare(oldKey, oldId, keys[next], ids[next]) <= 0);
+                if (takeOld) {
+                    if (next < n && compare(oldKey, oldId, keys[next], ids[next]) == 0) {
+                        // already indexed before the last flush
+                        next++;
+                    }
+                    out.writeLong(oldKey);
+                    out.writeInt(oldId);
+                    hasOld = remaining > 0;
+                    if (hasOld) {
+                        oldKey = old.readLong();
+                        oldId = old.readInt();
+                        remaining--;
+                    }
+                } else {
+                    out.writeLong(keys[next]);
+                    out.writeInt(ids[next]);
+                    next++;
+                }
+                written++;
+            }
+        } catch (EOFException ex) {
+            throw new IOException("Position index file is truncated", ex);
+        }
+
+        index.close();
+        Files.move(merged, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openIndex();
+        if (entryCount != written) {
+            throw new IOException("Position index merge wrote " + written + " entries but found " + entryCount);
+        }
+
+        log.close();
+        log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(logPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+        pending.clear();
+        pendingCount = 0;
+    }
+
+    /**
+     * Flushes and closes the index
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        log.close();
+        index.close();
+    }
+
+    private void openIndex() throws IOException {
+        index = FileChannel.open(indexPath, StandardOpenOption.READ);
+        entryCount = index.size() / ENTRY_BYTES;
+    }
+
+    private void replayLog() throws IOException {
+        if (!Files.exists(logPath)) {
+            return;
+        }
+        long size = Files.size(logPath);
+        long complete = size / ENTRY_BYTES;
+        if (size != complete * ENTRY_BYTES) {
+            // appending after a torn pair would leave every later pair misaligned
+            try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+                channel.truncate(complete * ENTRY_BYTES);
+            }
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath)))) {
+            for (long i = 0; i < complete; i++) {
+                long key = in.readLong();
+                int id = in.readInt();
+                if (pending.computeIfAbsent(key, k -> new TreeSet<>()).add(id)) {
+                    pendingCount++;
+                }
+            }
+        }
+    }
+
+    // index of the first entry whose key is not less than the given key
+    private long lowerBound(long key, ByteBuffer entry) throws IOException {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            readEntry(mid, entry);
+            if (entry.getLong(0) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void readEntry(long i, ByteBuffer entry) throws IOException {
+        entry.clear();
+        long position = i * ENTRY_BYTES;
+        while (entry.hasRemaining()) {
+            if (index.read(entry, position + entry.position()) < 0) {
+                throw new EOFException("Position index file is truncated");
+            }
+        }
+    }
+
+    private static int compare(long keyA, int idA, long keyB, int idB) {
+        int byKey = Long.compare(keyA, keyB);
+        return byKey != 0 ? byKey : Integer.compare(idA, idB);
+    }
+}
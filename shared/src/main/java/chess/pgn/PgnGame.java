@@ -0,0 +1,104 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.InvalidMoveException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game read from a PGN file: its tags, its moves as SAN text and its
+ * result. The moves are only checked against the rules when the game is
+ * replayed.
+ */
+public class PgnGame {
+
+    private final Map<String, String> tags;
+    private final List<String> moves;
+    private final String result;
+    private final long lineNumber;
+
+    public PgnGame(Map<String, String> tags, List<String> moves, String result, long lineNumber) {
+        this.tags = Collections.unmodifiableMap(tags);
+        this.moves = Collections.unmodifiableList(moves);
+        this.result = result;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * @return the tag pairs in the order they appeared
+     */
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    /**
+     * @return the value of a tag, or null if the game does not have it
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    /**
+     * @return the moves in SAN, without move numbers, comments or variations
+     */
+    public List<String> getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return the game termination marker: "1-0", "0-1", "1/2-1/2" or "*"
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * @return the line of the file the game started on, counting from 1
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Sets up the game's starting position, from the FEN tag if there is one
+     *
+     * @param game the game to overwrite
+     */
+    public void setUp(ChessGame game) {
+        String fen = tags.get("FEN");
+        if (fen == null) {
+            game.reset();
+        } else {
+            Fen.load(fen, game);
+        }
+    }
+
+    /**
+     * Plays every move of this game
+     *
+     * @param game a game to reuse, overwritten with the final position
+     * @return the legal moves the SAN text described
+     * @throws InvalidMoveException if a move is illegal; the message says which one
+     */
+    public List<ChessMove> replay(ChessGame game) throws InvalidMoveException {
+        setUp(game);
+        List<ChessMove> played = new ArrayList<>(moves.size());
+        for (int ply = 0; ply < moves.size(); ply++) {
+            String san = moves.get(ply);
+            try {
+                ChessMove move = San.parse(game, san);
+                game.makeMove(move);
+                played.add(move);
+            } catch (InvalidMoveException ex) {
+                throw new InvalidMoveException(String.format("%s at ply %d (%s) of the game on line %d",
+                        ex.getMessage(), ply + 1, san, lineNumber));
+            }
+        }
+        return played;
+    }
+}
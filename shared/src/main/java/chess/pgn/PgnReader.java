@@ -0,0 +1,309 @@
+package chess.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads PGN games one at a time, so a file of any size can be processed
+ * while only one game is held in memory.
+ * <p>
+ * Input comes either from an InputStream, read through a fixed buffer, or
+ * from a file mapped into memory a window at a time. Comments, variations
+ * and numeric annotations are skipped.
+ * <br/>
+ * <code>
+ * try (var reader = PgnReader.open(path)) {
+ * for (var game = reader.next(); game != null; game = reader.next()) { ... }
+ * }
+ * </code>
+ */
+public class PgnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MAP_WINDOW = 1L << 28;
+
+    private final ByteSource source;
+    private int peeked = -2;
+    private long line = 1;
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    public PgnReader(InputStream in) {
+        this.source = new StreamSource(in);
+    }
+
+    private PgnReader(ByteSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Opens a PGN file by mapping it into memory instead of copying it
+     * through a buffer
+     *
+     * @param path the file to read
+     * @return a reader positioned at the first game
+     * @throws IOException if the file cannot be opened
+     */
+    public static PgnReader open(Path path) throws IOException {
+        return new PgnReader(new MappedSource(FileChannel.open(path, StandardOpenOption.READ)));
+    }
+
+    /**
+     * Reads the next game
+     *
+     * @return the game, or null at the end of the input
+     * @throws IOException if the input cannot be read or a tag is malformed
+     */
+    public PgnGame next() throws IOException {
+        skipWhitespace();
+        if (peek() < 0) {
+            return null;
+        }
+        long startLine = line;
+        Map<String, String> tags = new LinkedHashMap<>();
+        while (peek() == '[') {
+            readTag(tags);
+            skipWhitespace();
+        }
+
+        List<String> moves = new ArrayList<>();
+        String result = null;
+        while (result == null) {
+            skipWhitespace();
+            int c = peek();
+            if (c < 0 || c == '[') {
+                // a game with no termination marker
+                break;
+            }
+            if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipUntil('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == '$') {
+                read();
+                while (Character.isDigit(peek())) {
+                    read();
+                }
+            } else {
+                readToken();
+                String text = tokenText();
+                if (isResult(text)) {
+                    result = text;
+                    continue;
+                }
+                String san = stripMoveNumber(text);
+                if (!san.isEmpty()) {
+                    moves.add(san);
+                }
+            }
+        }
+        if (result == null) {
+            result = tags.getOrDefault("Result", "*");
+        }
+        return new PgnGame(tags, moves, result, startLine);
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        read();
+        skipWhitespace();
+        tokenLength = 0;
+        while (peek() >= 0 && peek() != '"' && peek() != ']' && !isWhitespace(peek())) {
+            append(read());
+        }
+        String name = tokenText();
+        skipWhitespace();
+        if (read() != '"') {
+            throw new IOException("Malformed tag " + name + " on line " + line);
+        }
+        tokenLength = 0;
+        for (int c = read(); c != '"'; c = read()) {
+            if (c < 0 || c == '\n') {
+                throw new IOException("Unterminated tag " + name + " on line " + line);
+            }
+            append(c == '\\' ? read() : c);
+        }
+        tags.put(name, new String(token, 0, tokenLength, StandardCharsets.UTF_8));
+        skipUntil(']');
+    }
+
+    private void readToken() throws IOException {
+        tokenLength = 0;
+        int c = peek();
+        while (c >= 0 && !isWhitespace(c) && "{}();[".indexOf(c) < 0) {
+            append(read());
+            c = peek();
+        }
+        if (tokenLength == 0) {
+            // a stray closing bracket or similar, skip it
+            read();
+        }
+    }
+
+    private String tokenText() {
+        return new String(token, 0, tokenLength, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isResult(String text) {
+        return text.equals("1-0") || text.equals("0-1") || text.equals("1/2-1/2") || text.equals("*");
+    }
+
+    // "12.", "12..." and "12.e4" all number a move
+    private static String stripMoveNumber(String text) {
+        if (text.startsWith("0-0")) {
+            return text;
+        }
+        int i = 0;
+        while (i < text.length() && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i == 0) {
+            return text;
+        }
+        while (i < text.length() && text.charAt(i) == '.') {
+            i++;
+        }
+        return text.substring(i);
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        do {
+            int c = read();
+            if (c < 0) {
+                return;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '{') {
+                skipUntil('}');
+            }
+        } while (depth > 0);
+    }
+
+    private void skipUntil(int end) throws IOException {
+        for (int c = read(); c >= 0 && c != end; c = read()) {
+            // skip
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (isWhitespace(peek())) {
+            read();
+        }
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0xFEFF;
+    }
+
+    private void append(int c) {
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, token.length * 2);
+        }
+        token[tokenLength++] = (byte) c;
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = source.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        peeked = -2;
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private interface ByteSource extends Closeable {
+        /**
+         * @return the next byte as 0-255, or -1 at the end
+         */
+        int read() throws IOException;
+    }
+
+    private static class StreamSource implements ByteSource {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        StreamSource(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // maps the file a window at a time, since one mapping cannot exceed 2 GB
+    private static class MappedSource implements ByteSource {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedSource(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                if (window != null) {
+                    windowStart += window.capacity();
+                }
+                if (windowStart >= size) {
+                    return -1;
+                }
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(MAP_WINDOW, size - windowStart));
+            }
+            return window.get() & 0xFF;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.InvalidMoveException;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games as PGN. Moves are replayed from the starting position so each
+ * one can be written in SAN.
+ */
+public class PgnWriter implements Closeable, Flushable {
+
+    // the tags every PGN game has, in the order the standard requires
+    private static final List<String> SEVEN_TAG_ROSTER = List.of("Event", "Site", "Date", "Round", "White", "Black", "Result");
+    private static final int LINE_LENGTH = 79;
+
+    private final Writer out;
+    private final ChessGame scratch = new ChessGame();
+    private final StringBuilder line = new StringBuilder();
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes one game
+     *
+     * @param tags   tag pairs; missing roster tags are written as "?" and Result
+     *               is always set from the result argument
+     * @param moves  the moves of the game, starting from the standard position
+     *               or from the FEN tag if there is one
+     * @param result "1-0", "0-1", "1/2-1/2" or "*"
+     * @throws IOException          if the output cannot be written
+     * @throws InvalidMoveException if one of the moves is not legal
+     */
+    public void writeGame(Map<String, String> tags, List<ChessMove> moves, String result)
+            throws IOException, InvalidMoveException {
+        for (String name : SEVEN_TAG_ROSTER) {
+            String value = name.equals("Result") ? result : tags.getOrDefault(name, "?");
+            writeTag(name, value);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!SEVEN_TAG_ROSTER.contains(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        String fen = tags.get("FEN");
+        if (fen == null) {
+            scratch.reset();
+        } else {
+            Fen.load(fen, scratch);
+        }
+        int moveNumber = 1;
+        line.setLength(0);
+        for (int ply = 0; ply < moves.size(); ply++) {
+            ChessMove move = moves.get(ply);
+            boolean white = scratch.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            if (white) {
+                addToken(moveNumber + ".");
+            } else if (ply == 0) {
+                addToken(moveNumber + "...");
+            }
+            addToken(San.toSan(scratch, move));
+            scratch.makeMove(move);
+            if (!white) {
+                moveNumber++;
+            }
+        }
+        addToken(result);
+        out.write(line.toString());
+        out.write("\n\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        out.write(value.replace("\\", "\\\\").replace("\"", "\\\""));
+        out.write("\"]\n");
+    }
+
+    private void addToken(String token) throws IOException {
+        if (line.length() > 0 && line.length() + 1 + token.length() > LINE_LENGTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+}
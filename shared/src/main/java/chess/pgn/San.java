@@ -0,0 +1,209 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+import java.util.Collection;
+
+/**
+ * Converts moves to and from Standard Algebraic Notation (SAN), such as
+ * "e4", "Nbd7", "exd6", "O-O" or "e8=Q+". SAN only makes sense against a
+ * position, so every method takes the game the move is played in.
+ */
+public final class San {
+
+    private static final String PIECE_LETTERS = "KQBNR";
+
+    private San() {
+    }
+
+    /**
+     * Writes a move in SAN, including a check or mate suffix
+     *
+     * @param game the game before the move is made, left unchanged
+     * @param move a legal move in that game
+     * @return the move in SAN
+     * @throws InvalidMoveException if the move is not legal
+     */
+    public static String toSan(ChessGame game, ChessMove move) throws InvalidMoveException {
+        String san = toSanWithoutSuffix(game, move);
+        game.makeMove(move);
+        ChessGame.TeamColor defender = game.getTeamTurn();
+        String suffix = "";
+        if (game.isInCheckmate(defender)) {
+            suffix = "#";
+        } else if (game.isInCheck(defender)) {
+            suffix = "+";
+        }
+        game.undoMove();
+        return san + suffix;
+    }
+
+    /**
+     * Finds the legal move a SAN string describes. Check, mate and annotation
+     * suffixes are ignored, and castling may be written with letter O or zero.
+     *
+     * @param game the game the move is played in
+     * @param san  the move text
+     * @return the matching legal move
+     * @throws InvalidMoveException if no legal move, or more than one, matches
+     */
+    public static ChessMove parse(ChessGame game, String san) throws InvalidMoveException {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        String text = san.substring(0, end);
+        ChessGame.TeamColor team = game.getTeamTurn();
+        // castling is the king's two-square move from the e-file, not any king move to the g- or c-file
+        int homeRow = team == ChessGame.TeamColor.WHITE ? 1 : 8;
+        if (text.equals("O-O") || text.equals("0-0")) {
+            return findMove(game, san, ChessPiece.PieceType.KING, homeRow, 7, homeRow, 5, null);
+        }
+        if (text.equals("O-O-O") || text.equals("0-0-0")) {
+            return findMove(game, san, ChessPiece.PieceType.KING, homeRow, 3, homeRow, 5, null);
+        }
+
+        ChessPiece.PieceType promotion = null;
+        int equals = text.indexOf('=');
+        if (equals >= 0 && equals == text.length() - 2) {
+            promotion = pieceType(text.charAt(equals + 1), san);
+            text = text.substring(0, equals);
+        } else if (text.length() > 2 && PIECE_LETTERS.indexOf(text.charAt(text.length() - 1)) > 0
+                && Character.isDigit(text.charAt(text.length() - 2))) {
+            // promotion written without '=', as in e8Q
+            promotion = pieceType(text.charAt(text.length() - 1), san);
+            text = text.substring(0, text.length() - 1);
+        }
+        if (text.length() < 2) {
+            throw new InvalidMoveException("Invalid move: " + san);
+        }
+
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        int start = 0;
+        if (PIECE_LETTERS.indexOf(text.charAt(0)) >= 0) {
+            type = pieceType(text.charAt(0), san);
+            start = 1;
+        }
+        int toCol = text.charAt(text.length() - 2) - 'a' + 1;
+        int toRow = text.charAt(text.length() - 1) - '0';
+        if (toCol < 1 || toCol > 8 || toRow < 1 || toRow > 8) {
+            throw new InvalidMoveException("Invalid move: " + san);
+        }
+
+        int fromCol = 0;
+        int fromRow = 0;
+        for (int i = start; i < text.length() - 2; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromCol = c - 'a' + 1;
+            } else if (c >= '1' && c <= '8') {
+                fromRow = c - '0';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw new InvalidMoveException("Invalid move: " + san);
+            }
+        }
+        return findMove(game, san, type, toRow, toCol, fromRow, fromCol, promotion);
+    }
+
+    private static ChessMove findMove(ChessGame game, String san, ChessPiece.PieceType type, int toRow, int toCol,
+                                      int fromRow, int fromCol, ChessPiece.PieceType promotion)
+            throws InvalidMoveException {
+        ChessMove found = null;
+        for (ChessMove move : game.allValidMoves()) {
+            ChessPosition from = move.getStartPosition();
+            ChessPosition to = move.getEndPosition();
+            if (to.getRow() != toRow || to.getColumn() != toCol || move.getPromotionPiece() != promotion
+                    || (fromRow != 0 && from.getRow() != fromRow) || (fromCol != 0 && from.getColumn() != fromCol)
+                    || game.getBoard().getPiece(from).getPieceType() != type) {
+                continue;
+            }
+            if (found != null) {
+                throw new InvalidMoveException("Ambiguous move: " + san);
+            }
+            found = move;
+        }
+        if (found == null) {
+            throw new InvalidMoveException("Illegal move: " + san);
+        }
+        return found;
+    }
+
+    private static String toSanWithoutSuffix(ChessGame game, ChessMove move) throws InvalidMoveException {
+        ChessPosition from = move.getStartPosition();
+        ChessPosition to = move.getEndPosition();
+        ChessPiece piece = game.getBoard().getPiece(from);
+        if (piece == null) {
+            throw new InvalidMoveException("No piece at " + from);
+        }
+        ChessPiece.PieceType type = piece.getPieceType();
+        if (type == ChessPiece.PieceType.KING && Math.abs(to.getColumn() - from.getColumn()) == 2) {
+            return to.getColumn() == 7 ? "O-O" : "O-O-O";
+        }
+
+        StringBuilder san = new StringBuilder();
+        boolean capture = game.getBoard().getPiece(to) != null;
+        if (type == ChessPiece.PieceType.PAWN) {
+            // a pawn changing columns always captures, en passant included
+            if (from.getColumn() != to.getColumn()) {
+                san.append(file(from));
+                capture = true;
+            }
+        } else {
+            san.append(PIECE_LETTERS.charAt(type.ordinal()));
+            appendDisambiguation(san, game, move, type);
+        }
+        if (capture) {
+            san.append('x');
+        }
+        san.append(file(to)).append(to.getRow());
+        if (move.getPromotionPiece() != null) {
+            san.append('=').append(PIECE_LETTERS.charAt(move.getPromotionPiece().ordinal()));
+        }
+        return san.toString();
+    }
+
+    private static void appendDisambiguation(StringBuilder san, ChessGame game, ChessMove move,
+                                             ChessPiece.PieceType type) {
+        ChessPosition from = move.getStartPosition();
+        boolean ambiguous = false;
+        boolean sameColumn = false;
+        boolean sameRow = false;
+        Collection<ChessMove> moves = game.allValidMoves();
+        for (ChessMove other : moves) {
+            ChessPosition otherFrom = other.getStartPosition();
+            if (!other.getEndPosition().equals(move.getEndPosition()) || otherFrom.equals(from)
+                    || game.getBoard().getPiece(otherFrom).getPieceType() != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameColumn |= otherFrom.getColumn() == from.getColumn();
+            sameRow |= otherFrom.getRow() == from.getRow();
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameColumn) {
+            san.append(file(from));
+        } else if (!sameRow) {
+            san.append(from.getRow());
+        } else {
+            san.append(file(from)).append(from.getRow());
+        }
+    }
+
+    private static ChessPiece.PieceType pieceType(char letter, String san) throws InvalidMoveException {
+        int index = PIECE_LETTERS.indexOf(letter);
+        if (index < 0) {
+            throw new InvalidMoveException("Invalid piece in move: " + san);
+        }
+        return ChessPiece.PieceType.values()[index];
+    }
+
+    private static char file(ChessPosition position) {
+        return (char) ('a' + position.getColumn() - 1);
+    }
+}
@@ -0,0 +1,100 @@
+package chess.tournament;
+
+/**
+ * Wins, draws and losses of one engine against another, with the Elo
+ * difference they point to.
+ *
+ * @param wins   games the engine won
+ * @param draws  games drawn
+ * @param losses games the engine lost
+ */
+public record MatchScore(int wins, int draws, int losses) {
+
+    /**
+     * The normal quantile of a two sided 95% interval
+     */
+    private static final double Z_95 = 1.959964;
+
+    public static final MatchScore EMPTY = new MatchScore(0, 0, 0);
+
+    /**
+     * @param points 1 for a win, 0.5 for a draw, 0 for a loss
+     * @return this score with one more game
+     */
+    public MatchScore plus(double points) {
+        if (points == 1) {
+            return new MatchScore(wins + 1, draws, losses);
+        } else if (points == 0.5) {
+            return new MatchScore(wins, draws + 1, losses);
+        } else if (points == 0) {
+            return new MatchScore(wins, draws, losses + 1);
+        }
+        throw new IllegalArgumentException("Invalid points: " + points);
+    }
+
+    public int games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * @return the average points per game, 0 to 1, or 0.5 before any game
+     */
+    public double score() {
+        return games() == 0 ? 0.5 : (wins + draws / 2.0) / games();
+    }
+
+    /**
+     * @return the variance of the points of one game
+     */
+    public double variance() {
+        if (games() == 0) {
+            return 0;
+        }
+        double mean = score();
+        return (wins * (1 - mean) * (1 - mean) + draws * (0.5 - mean) * (0.5 - mean) + losses * mean * mean) / games();
+    }
+
+    /**
+     * @return the Elo difference the score points to; infinite after only wins or only losses
+     */
+    public double elo() {
+        return toElo(score());
+    }
+
+    /**
+     * @return half the width of the 95% confidence interval of elo
+     */
+    public double eloError() {
+        if (games() == 0 || wins == games() || losses == games()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double margin = Z_95 * Math.sqrt(variance() / games());
+        return (toElo(score() + margin) - toElo(score() - margin)) / 2;
+    }
+
+    /**
+     * @param score average points per game, 0 to 1
+     * @return the Elo difference that gives that score under the logistic model
+     */
+    public static double toElo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        } else if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * @param elo an Elo difference
+     * @return the average points per game it predicts under the logistic model
+     */
+    public static double toScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("+%d =%d -%d", wins, draws, losses);
+    }
+}
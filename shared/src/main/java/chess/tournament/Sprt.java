@@ -0,0 +1,88 @@
+package chess.tournament;
+
+/**
+ * A sequential probability ratio test (SPRT) for deciding, game by game,
+ * whether an engine is stronger than another.
+ * <p>
+ * The test weighs H0, "the engine is elo0 better", against H1, "the engine
+ * is elo1 better". After each game the log-likelihood ratio of the two is
+ * worked out from the wins, draws and losses so far, using the normal
+ * approximation of the generalized SPRT. The match stops as soon as the
+ * ratio passes one of the bounds set by alpha, the chance of accepting H1
+ * when H0 holds, and beta, the chance of accepting H0 when H1 holds. A
+ * clear difference is settled in a few dozen games; a close one takes
+ * thousands.
+ */
+public class Sprt {
+
+    /**
+     * What the test says so far
+     */
+    public enum Decision {
+        ACCEPT_H0,
+        ACCEPT_H1,
+        CONTINUE
+    }
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    /**
+     * @param elo0  the Elo difference of H0, often 0
+     * @param elo1  the Elo difference of H1, larger than elo0
+     * @param alpha the accepted chance of a false positive, such as 0.05
+     * @param beta  the accepted chance of a false negative, such as 0.05
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("Invalid SPRT parameters");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * @param score the match so far
+     * @return the log-likelihood ratio of H1 over H0, or 0 while every game has had the same result
+     */
+    public double llr(MatchScore score) {
+        double variance = score.variance();
+        if (variance == 0) {
+            return 0;
+        }
+        double score0 = MatchScore.toScore(elo0);
+        double score1 = MatchScore.toScore(elo1);
+        return score.games() * (score1 - score0) * (2 * score.score() - score0 - score1) / (2 * variance);
+    }
+
+    /**
+     * @param score the match so far
+     * @return whether to stop, and which hypothesis to accept
+     */
+    public Decision decide(MatchScore score) {
+        double llr = llr(score);
+        if (llr >= upperBound) {
+            return Decision.ACCEPT_H1;
+        } else if (llr <= lowerBound) {
+            return Decision.ACCEPT_H0;
+        }
+        return Decision.CONTINUE;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SPRT elo0=%.1f elo1=%.1f bounds [%.2f, %.2f]", elo0, elo1, lowerBound, upperBound);
+    }
+}
@@ -0,0 +1,88 @@
+package chess.training;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MovePicker;
+import chess.PackedPosition;
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.Search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Plays games of the engine against itself and labels the positions they
+ * pass through with the search score and the final result.
+ * <p>
+ * Each game opens with a few random moves so games do not repeat, then the
+ * engine plays both sides at a fixed depth. The random opening and positions
+ * where the side to move is in check are not recorded, since their scores
+ * say little about the position. Games still going after
+ * {@value #MAX_PLIES} plies are scored as draws.
+ * <p>
+ * A SelfPlay is not thread safe; give each thread its own.
+ */
+public class SelfPlay {
+
+    private static final int MAX_PLIES = 400;
+
+    private final Search search = new Search(new PieceSquareEvaluator());
+    private final int depth;
+    private final int randomPlies;
+    private final SplittableRandom random;
+
+    /**
+     * @param depth       the search depth for every move
+     * @param randomPlies how many random moves open each game
+     * @param seed        the random seed for the openings
+     */
+    public SelfPlay(int depth, int randomPlies, long seed) {
+        this.depth = depth;
+        this.randomPlies = randomPlies;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Plays one game
+     *
+     * @return the labeled positions of the game, in the order they were played
+     */
+    public List<TrainingRecord> playGame() {
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < randomPlies; ply++) {
+            List<ChessMove> moves = MovePicker.legalMoves(game);
+            if (moves.isEmpty()) {
+                // a random opening that already ended is no use
+                game = new ChessGame();
+                ply = -1;
+                continue;
+            }
+            game.makeLegalMove(moves.get(random.nextInt(moves.size())));
+        }
+
+        List<PackedPosition> positions = new ArrayList<>();
+        List<Short> scores = new ArrayList<>();
+        byte result = 0;
+        for (int ply = randomPlies; ply < MAX_PLIES && !game.isDraw(); ply++) {
+            Search.Result found = search.search(game, depth, 0);
+            if (found.bestMove() == null) {
+                if (game.isInCheck(game.getTeamTurn())) {
+                    result = (byte) (game.getTeamTurn() == ChessGame.TeamColor.WHITE ? -1 : 1);
+                }
+                break;
+            }
+            if (!game.isInCheck(game.getTeamTurn())) {
+                positions.add(PackedPosition.of(game));
+                scores.add(TrainingRecord.clampScore(found.score()));
+            }
+            game.makeLegalMove(found.bestMove());
+        }
+
+        List<TrainingRecord> records = new ArrayList<>(positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            records.add(new TrainingRecord(positions.get(i), scores.get(i), result));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,100 @@
+package chess.training;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records of a file written by {@link TrainingWriter} one at a
+ * time, through a fixed buffer, so files of any size can be streamed.
+ * A partly written record at the end of the file is ignored.
+ * <br/>
+ * <code>
+ * try (var reader = TrainingReader.open(path)) {
+ * for (var record = reader.next(); record != null; record = reader.next()) { ... }
+ * }
+ * </code>
+ */
+public class TrainingReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private boolean ended;
+
+    private TrainingReader(FileChannel channel) {
+        this.channel = channel;
+        buffer.flip();
+    }
+
+    /**
+     * Opens a training file for reading
+     *
+     * @param path the file
+     * @return the reader, positioned at the first record
+     * @throws IOException if the file cannot be opened or is not a training file
+     */
+    public static TrainingReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            checkHeader(channel, path);
+            channel.position(TrainingWriter.HEADER_BYTES);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+        return new TrainingReader(channel);
+    }
+
+    /**
+     * @return the next record, or null at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    public TrainingRecord next() throws IOException {
+        if (buffer.remaining() < TrainingRecord.BYTES && !fill()) {
+            return null;
+        }
+        return TrainingRecord.read(buffer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // tops the buffer up, returns whether a whole record is now available
+    private boolean fill() throws IOException {
+        if (!ended) {
+            buffer.compact();
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    ended = true;
+                    break;
+                }
+            }
+            buffer.flip();
+        }
+        return buffer.remaining() >= TrainingRecord.BYTES;
+    }
+
+    static void checkHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(TrainingWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        header.flip();
+        if (header.remaining() < TrainingWriter.HEADER_BYTES || header.getInt() != TrainingWriter.MAGIC) {
+            throw new IOException("Not a training file: " + path);
+        }
+        if (header.getInt() != TrainingRecord.BYTES) {
+            throw new IOException("Training file has a different record size: " + path);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package chess.training;
+
+import chess.PackedPosition;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One labeled position for training or tuning an evaluator
+ *
+ * @param position the position
+ * @param score    the search score in centipawns for the side to move, clamped to a short
+ * @param result   how the game ended: 1 white won, 0 drawn, -1 black won
+ */
+public record TrainingRecord(PackedPosition position, short score, byte result) {
+
+    public static final int BYTES = PackedPosition.BYTES + 3;
+
+    public TrainingRecord {
+        if (result < -1 || result > 1) {
+            throw new IllegalArgumentException("Invalid result: " + result);
+        }
+    }
+
+    /**
+     * @param score a score in centipawns
+     * @return the score clamped into a short
+     */
+    public static short clampScore(int score) {
+        return (short) Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, score));
+    }
+
+    void write(ByteBuffer out) {
+        position.write(out);
+        out.putShort(score).put(result);
+    }
+
+    static TrainingRecord read(ByteBuffer in) {
+        return new TrainingRecord(PackedPosition.read(in), in.getShort(), in.get());
+    }
+}
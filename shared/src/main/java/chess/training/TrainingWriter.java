@@ -0,0 +1,102 @@
+package chess.training;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends {@link TrainingRecord}s to a file.
+ * <p>
+ * The file starts with an 8 byte header, the magic number 0x54524E31
+ * ("TRN1") and the record size, followed by fixed size little endian
+ * records. Records are gathered in a direct buffer and written to the
+ * channel a megabyte at a time. Opening a file that already has records
+ * appends to it; a partly written record left at the end by a crash is cut
+ * off first.
+ * <p>
+ * A writer is not thread safe. Threads producing records in parallel should
+ * each write their own file, so they never wait on each other.
+ */
+public class TrainingWriter implements Closeable, Flushable {
+
+    static final int MAGIC = 0x54524E31;
+    static final int HEADER_BYTES = 8;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long count;
+
+    /**
+     * Opens a file for appending, creating it if needed
+     *
+     * @param path the file
+     * @throws IOException if the file cannot be opened or is not a training file
+     */
+    public TrainingWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                channel.truncate(0);
+                buffer.putInt(MAGIC).putInt(TrainingRecord.BYTES);
+            } else {
+                TrainingReader.checkHeader(channel, path);
+                count = (size - HEADER_BYTES) / TrainingRecord.BYTES;
+                channel.truncate(HEADER_BYTES + count * TrainingRecord.BYTES);
+            }
+            channel.position(channel.size());
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Adds a record to the end of the file
+     *
+     * @param record the record
+     * @throws IOException if the buffer had to be written and that failed
+     */
+    public void write(TrainingRecord record) throws IOException {
+        if (buffer.remaining() < TrainingRecord.BYTES) {
+            drain();
+        }
+        record.write(buffer);
+        count++;
+    }
+
+    /**
+     * @return how many records the file holds, counting ones still buffered
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
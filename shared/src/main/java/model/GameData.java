@@ -0,0 +1,9 @@
+package model;
+
+import chess.ChessGame;
+
+/**
+ * A game, its players and its board
+ */
+public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+}
@@ -0,0 +1,7 @@
+package model;
+
+/**
+ * A game's ID, name and players, without its board, for listing games
+ */
+public record GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName) {
+}
@@ -0,0 +1,7 @@
+package model;
+
+/**
+ * The body of a login request
+ */
+public record LoginRequest(String username, String password) {
+}
@@ -0,0 +1,9 @@
+package model;
+
+import chess.ChessMove;
+
+/**
+ * A move and the game as it stands after it
+ */
+public record MoveData(GameData game, ChessMove move) {
+}
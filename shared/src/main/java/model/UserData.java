@@ -0,0 +1,7 @@
+package model;
+
+/**
+ * A registered user. The password is the bcrypt hash once stored.
+ */
+public record UserData(String username, String password, String email) {
+}
@@ -0,0 +1,56 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ActiveGameStoreTests {
+
+    @Test
+    @DisplayName("Saved Game Loads Back The Same")
+    public void roundTrip() throws InvalidMoveException {
+        ActiveGameStore store = new ActiveGameStore(4);
+        int slot = store.allocate();
+
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        store.save(slot, game);
+
+        ChessGame loaded = new ChessGame();
+        store.load(slot, loaded);
+        Assertions.assertEquals(game, loaded);
+        Assertions.assertEquals(game.getPositionKey(), loaded.getPositionKey());
+
+        ActiveGameStore.View view = store.view(slot);
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, view.getTeamTurn());
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT),
+                view.getPiece(new ChessPosition(6, 6)));
+        Assertions.assertNull(view.getPiece(new ChessPosition(2, 5)));
+    }
+
+    @Test
+    @DisplayName("Moves Are Checked Against The Stored Position")
+    public void makeMoveInSlot() throws InvalidMoveException {
+        ActiveGameStore store = new ActiveGameStore(2);
+        int first = store.allocate();
+        int second = store.allocate();
+        ChessGame scratch = new ChessGame();
+
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        store.makeMove(first, e4, scratch);
+        Assertions.assertThrows(InvalidMoveException.class, () -> store.makeMove(first, e4, scratch));
+        store.makeMove(second, e4, scratch);
+        Assertions.assertEquals(store.view(first).getPositionKey(), store.view(second).getPositionKey());
+
+        Assertions.assertThrows(IllegalStateException.class, store::allocate);
+        store.release(first);
+        Assertions.assertEquals(1, store.size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> store.view(first));
+
+        int reused = store.allocate();
+        Assertions.assertEquals(first, reused);
+        Assertions.assertEquals(new ChessGame(), store.view(reused).toGame());
+        Assertions.assertEquals(new ChessGame().getPositionKey(), store.view(reused).getPositionKey());
+    }
+}
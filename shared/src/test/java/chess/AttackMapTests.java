@@ -0,0 +1,95 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class AttackMapTests {
+
+    @Test
+    @DisplayName("Attacks In The Starting Position")
+    public void startingPosition() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        Assertions.assertEquals(0xFF0000L, board.attackedSquares(ChessGame.TeamColor.WHITE) & 0xFF0000L);
+        Assertions.assertEquals(0xFFL << 40, board.attackedSquares(ChessGame.TeamColor.BLACK) & (0xFFL << 40));
+        Assertions.assertEquals(0L, board.attackedSquares(ChessGame.TeamColor.WHITE) & ~0xFFFF7EL);
+        Assertions.assertEquals(2, board.attackerCount(new ChessPosition(3, 5), ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(3, board.attackerCount(new ChessPosition(3, 3), ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(board.isAttacked(new ChessPosition(4, 5), ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Incremental Attacks Match A Rebuilt Map")
+    public void matchesRebuild() {
+        Random random = new Random(240);
+        for (int gameNumber = 0; gameNumber < 40; gameNumber++) {
+            ChessGame game = new ChessGame();
+            // build the map before any move so every later move updates it
+            game.getBoard().attackedSquares(ChessGame.TeamColor.WHITE);
+            for (int ply = 0; ply < 80; ply++) {
+                List<ChessMove> moves = new ArrayList<>(game.allValidMoves());
+                if (moves.isEmpty()) {
+                    break;
+                }
+                game.makeLegalMove(moves.get(random.nextInt(moves.size())));
+                if (random.nextInt(5) == 0) {
+                    game.undoMove();
+                }
+                assertSameAttacks(game.getBoard());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Move Counts Unchanged With Pin Detection")
+    public void perft() {
+        LegalMoveCache previous = ChessGame.getMoveCache();
+        ChessGame.setMoveCache(null);
+        try {
+            Assertions.assertEquals(8902, perft(new ChessGame(), 3));
+            Assertions.assertEquals(97862, perft(Fen.parse(
+                    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"), 3));
+            Assertions.assertEquals(43238, perft(Fen.parse("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"), 4));
+        } finally {
+            ChessGame.setMoveCache(previous);
+        }
+    }
+
+    private static long perft(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (ChessMove move : game.allValidMoves()) {
+            game.makeLegalMove(move);
+            nodes += perft(game, depth - 1);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    private static void assertSameAttacks(ChessBoard board) {
+        ChessBoard copy = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                copy.addPiece(position, board.getPiece(position));
+            }
+        }
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            Assertions.assertEquals(copy.attackedSquares(team), board.attackedSquares(team));
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPosition position = new ChessPosition(row, col);
+                    Assertions.assertEquals(copy.attackerCount(position, team), board.attackerCount(position, team));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrawRuleTests {
+
+    private static final ChessMove WHITE_OUT = move(1, 7, 3, 6);
+    private static final ChessMove WHITE_BACK = move(3, 6, 1, 7);
+    private static final ChessMove BLACK_OUT = move(8, 7, 6, 6);
+    private static final ChessMove BLACK_BACK = move(6, 6, 8, 7);
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = game.getPositionKey();
+
+        shuffleKnights(game);
+        Assertions.assertEquals(start, game.getPositionKey(), "Same position should have the same key");
+        Assertions.assertEquals(2, game.getRepetitionCount());
+        Assertions.assertFalse(game.isDrawByRepetition());
+
+        shuffleKnights(game);
+        Assertions.assertEquals(3, game.getRepetitionCount());
+        Assertions.assertTrue(game.isDrawByRepetition());
+        Assertions.assertTrue(game.isDraw());
+    }
+
+    @Test
+    @DisplayName("Pawn Move Clears Repetition Window")
+    public void pawnMoveResets() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        Assertions.assertEquals(4, game.getHalfmoveClock());
+
+        game.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getRepetitionCount());
+    }
+
+    @Test
+    @DisplayName("Trimmed History Keeps Ply Count And Repetitions")
+    public void trimHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 5, 5, 5));
+        shuffleKnights(game);
+        game.trimHistory();
+        Assertions.assertEquals(10, game.getPlyCount());
+        Assertions.assertEquals(2, game.getRepetitionCount());
+
+        ChessGame copy = new ChessGame(game);
+        Assertions.assertEquals(10, copy.getPlyCount());
+        shuffleKnights(copy);
+        Assertions.assertTrue(copy.isDrawByRepetition());
+
+        for (int i = 0; i < 4; i++) {
+            game.undoMove();
+        }
+        Assertions.assertEquals(6, game.getPlyCount());
+        Assertions.assertThrows(IllegalStateException.class, game::undoMove);
+    }
+
+    @Test
+    @DisplayName("Fifty Move Rule")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (int i = 0; i < 24; i++) {
+            shuffleKnights(game);
+        }
+        Assertions.assertEquals(96, game.getHalfmoveClock());
+        Assertions.assertFalse(game.isDrawByFiftyMoveRule());
+
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isDrawByFiftyMoveRule());
+    }
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        game.makeMove(WHITE_OUT);
+        game.makeMove(BLACK_OUT);
+        game.makeMove(WHITE_BACK);
+        game.makeMove(BLACK_BACK);
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
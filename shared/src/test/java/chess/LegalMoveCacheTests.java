@@ -0,0 +1,51 @@
+package chess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LegalMoveCacheTests {
+
+    private final LegalMoveCache previous = ChessGame.getMoveCache();
+
+    @AfterEach
+    public void restoreCache() {
+        ChessGame.setMoveCache(previous);
+    }
+
+    @Test
+    @DisplayName("Second Game Hits The Cache")
+    public void sharedAcrossGames() throws InvalidMoveException {
+        LegalMoveCache cache = new LegalMoveCache(16);
+        ChessGame.setMoveCache(cache);
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+
+        ChessGame first = new ChessGame();
+        first.makeMove(e4);
+        Assertions.assertEquals(0, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+
+        ChessGame second = new ChessGame();
+        second.makeMove(e4);
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(first.validMoves(new ChessPosition(7, 4)), second.validMoves(new ChessPosition(7, 4)));
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Cache Never Grows Past Capacity")
+    public void bounded() throws InvalidMoveException {
+        LegalMoveCache cache = new LegalMoveCache(2);
+        ChessGame.setMoveCache(cache);
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(3, 1), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 1), new ChessPosition(6, 1), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 2), new ChessPosition(3, 2), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(6, 2), null));
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,84 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+public class MovePickerTests {
+
+    // castling both ways, en passant, promotions with and without capture, pins
+    private static final String[] POSITIONS = {
+            Fen.START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "4k3/8/8/8/8/8/4r3/R3K2R w KQ - 0 1"
+    };
+
+    @Test
+    @DisplayName("Picker Returns Exactly The Legal Moves")
+    public void sameMovesAsValidMoves() {
+        for (String fen : POSITIONS) {
+            ChessGame game = Fen.parse(fen);
+            List<ChessMove> picked = drain(new MovePicker(game, null));
+            Assertions.assertEquals(picked.size(), new HashSet<>(picked).size(), "duplicate move in " + fen);
+            Assertions.assertEquals(new HashSet<>(game.allValidMoves()), new HashSet<>(picked), fen);
+        }
+    }
+
+    @Test
+    @DisplayName("Hash Move First, Then Captures By Victim Value")
+    public void stageOrder() {
+        // the white queen can take a rook or a pawn, the knight can take the same pawn
+        ChessGame game = Fen.parse("4k3/8/8/8/3r4/p7/8/QN2K3 w - - 0 1");
+        ChessMove hashMove = new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null);
+        MovePicker picker = new MovePicker(game, hashMove);
+
+        Assertions.assertEquals(hashMove, picker.next());
+        Assertions.assertEquals(MovePicker.Stage.HASH_MOVE, picker.getStage());
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(4, 4), null), picker.next());
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 1), null), picker.next());
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(3, 1), null), picker.next());
+        Assertions.assertEquals(MovePicker.Stage.CAPTURES, picker.getStage());
+
+        ChessMove quiet = picker.next();
+        Assertions.assertEquals(MovePicker.Stage.QUIETS, picker.getStage());
+        Assertions.assertNull(game.getBoard().getPiece(quiet.getEndPosition()));
+        Assertions.assertNotEquals(hashMove, quiet);
+    }
+
+    @Test
+    @DisplayName("Illegal Hash Move Is Skipped")
+    public void badHashMove() {
+        ChessGame game = new ChessGame();
+        ChessMove illegal = new ChessMove(new ChessPosition(1, 1), new ChessPosition(5, 1), null);
+        List<ChessMove> picked = drain(new MovePicker(game, illegal));
+        Assertions.assertFalse(picked.contains(illegal));
+        Assertions.assertEquals(20, picked.size());
+    }
+
+    @Test
+    @DisplayName("Captures Only Stops Before Quiet Moves")
+    public void capturesOnly() {
+        ChessGame game = Fen.parse("1n2k3/P7/8/3p4/4P3/8/8/4K3 w - - 0 1");
+        List<ChessMove> picked = drain(MovePicker.capturesOnly(game));
+        // exd5, axb8 with four promotions, a8 with four promotions
+        Assertions.assertEquals(9, picked.size());
+        Assertions.assertEquals(ChessPiece.PieceType.QUEEN, picked.get(0).getPromotionPiece());
+        Assertions.assertEquals(new ChessPosition(8, 2), picked.get(0).getEndPosition());
+    }
+
+    private static List<ChessMove> drain(MovePicker picker) {
+        List<ChessMove> moves = new ArrayList<>();
+        for (ChessMove move = picker.next(); move != null; move = picker.next()) {
+            moves.add(move);
+        }
+        return moves;
+    }
+}
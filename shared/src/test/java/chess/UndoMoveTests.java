@@ -0,0 +1,98 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class UndoMoveTests {
+
+    @Test
+    @DisplayName("Undo Restores Board, State and Key")
+    public void undoRestoresEverything() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessBoard startBoard = new ChessBoard();
+        startBoard.resetBoard();
+        int startState = game.getState();
+        long startKey = game.getPositionKey();
+
+        // 1. e4 d5 2. e5 f5 3. exf6 (en passant) Nc6 4. Nf3 Bd7 5. Be2 Qc8 6. O-O
+        List<ChessMove> moves = List.of(
+                move(2, 5, 4, 5), move(7, 4, 5, 4),
+                move(4, 5, 5, 5), move(7, 6, 5, 6),
+                move(5, 5, 6, 6), move(8, 2, 6, 3),
+                move(1, 7, 3, 6), move(8, 3, 7, 4),
+                move(1, 6, 2, 5), move(8, 4, 8, 3),
+                move(1, 5, 1, 7));
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+        }
+        Assertions.assertNull(game.getBoard().getPiece(new ChessPosition(5, 6)), "En passant should remove the pawn");
+        Assertions.assertEquals(ChessPiece.PieceType.ROOK,
+                game.getBoard().getPiece(new ChessPosition(1, 6)).getPieceType(), "Castling should move the rook");
+        Assertions.assertFalse(GameState.canCastle(game.getState(), GameState.WHITE_KING_SIDE));
+        Assertions.assertEquals(Zobrist.hash(game.getBoard(), game.getState()), game.getPositionKey(),
+                "Incremental key should match a full rehash");
+
+        for (int i = 0; i < moves.size(); i++) {
+            game.undoMove();
+        }
+        Assertions.assertEquals(startBoard, game.getBoard());
+        Assertions.assertEquals(startState, game.getState());
+        Assertions.assertEquals(startKey, game.getPositionKey());
+        Assertions.assertThrows(IllegalStateException.class, game::undoMove);
+    }
+
+    @Test
+    @DisplayName("En Passant Column Only Set When Capturable")
+    public void enPassantColumn() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals(0, GameState.enPassantColumn(game.getState()));
+
+        game.makeMove(move(7, 1, 6, 1));
+        game.makeMove(move(4, 5, 5, 5));
+        game.makeMove(move(7, 4, 5, 4));
+        Assertions.assertEquals(4, GameState.enPassantColumn(game.getState()));
+    }
+
+    @Test
+    @DisplayName("FEN En Passant Square Gives The Same Key As Play")
+    public void fenEnPassant() throws InvalidMoveException {
+        ChessGame played = new ChessGame();
+        played.makeMove(move(2, 5, 4, 5));
+        ChessGame loaded = Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        Assertions.assertEquals(played.getState(), loaded.getState());
+        Assertions.assertEquals(played.getPositionKey(), loaded.getPositionKey());
+
+        ChessGame capturable = Fen.parse("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        Assertions.assertEquals(5, GameState.enPassantColumn(capturable.getState()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq z3 0 1"));
+    }
+
+    @Test
+    @DisplayName("Copy Plays And Undoes Without Touching The Original")
+    public void copyIsIndependent() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 5, 5, 5));
+        String fen = Fen.toFen(game);
+
+        ChessGame copy = new ChessGame(game);
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.getPositionKey(), copy.getPositionKey());
+        copy.makeMove(move(1, 7, 3, 6));
+        Assertions.assertEquals(fen, Fen.toFen(game));
+        copy.undoMove();
+        copy.undoMove();
+        Assertions.assertEquals(fen, Fen.toFen(game));
+        Assertions.assertEquals(List.of(move(2, 5, 4, 5)), copy.getMoveHistory());
+        Assertions.assertEquals(2, game.getMoveHistory().size());
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
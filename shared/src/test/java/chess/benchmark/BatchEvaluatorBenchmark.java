@@ -0,0 +1,73 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.engine.BatchEvaluator;
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.PositionBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares scoring a batch of positions one game at a time with the
+ * piece-square evaluator against BatchEvaluator on one thread.
+ * <p>
+ * Run with: java --add-modules jdk.incubator.vector -cp shared/target/classes:shared/target/test-classes
+ * chess.benchmark.BatchEvaluatorBenchmark [positions]
+ * <br/>
+ * Leave out --add-modules to measure the scalar batch loop.
+ */
+public class BatchEvaluatorBenchmark {
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<ChessGame> games = randomPositions(count);
+        PositionBatch batch = new PositionBatch(count);
+        for (ChessGame game : games) {
+            batch.add(game);
+        }
+        BatchEvaluator evaluator = new BatchEvaluator();
+        PieceSquareEvaluator single = new PieceSquareEvaluator();
+        int[] scores = new int[count];
+        System.out.printf("%,d positions, %s batch loop%n", count, evaluator.isVectorized() ? "Vector API" : "scalar");
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long sink = 0;
+            for (ChessGame game : games) {
+                sink += single.evaluate(game);
+            }
+            long singleNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            evaluator.evaluate(batch, scores);
+            long batchNanos = System.nanoTime() - start;
+            for (int score : scores) {
+                sink -= score;
+            }
+            System.out.printf("one at a time %,13.0f positions/s   batch %,13.0f positions/s   (check %d)%n",
+                    count / (singleNanos / 1e9), count / (batchNanos / 1e9), sink);
+        }
+    }
+
+    private static List<ChessGame> randomPositions(int count) {
+        Random random = new Random(36);
+        List<ChessGame> positions = new ArrayList<>(count);
+        ChessGame game = new ChessGame();
+        while (positions.size() < count) {
+            List<ChessMove> moves = new ArrayList<>(game.allValidMoves());
+            if (moves.isEmpty() || game.getMoveHistory().size() > 80) {
+                game = new ChessGame();
+                continue;
+            }
+            game.makeLegalMove(moves.get(random.nextInt(moves.size())));
+            positions.add(Fen.parse(Fen.toFen(game)));
+        }
+        return positions;
+    }
+}
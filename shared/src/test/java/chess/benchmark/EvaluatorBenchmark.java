@@ -0,0 +1,95 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.engine.Evaluator;
+import chess.engine.NnueEvaluator;
+import chess.engine.NnueNetwork;
+import chess.engine.PieceSquareEvaluator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares evaluations per second of the piece-square-table evaluator and the
+ * NNUE evaluator, the way a search uses them: make a move, evaluate, and
+ * later undo it. The time of making and undoing the moves alone is measured
+ * first and taken off.
+ * <p>
+ * Run with: java --add-modules jdk.incubator.vector -cp shared/target/classes:shared/target/test-classes
+ * chess.benchmark.EvaluatorBenchmark [weights.nnue]
+ * <br/>
+ * Leave out --add-modules to measure the scalar NNUE kernels.
+ */
+public class EvaluatorBenchmark {
+
+    private static final int LINES = 2_000;
+    private static final int LINE_LENGTH = 40;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        NnueNetwork network = args.length > 0 ? NnueNetwork.load(Path.of(args[0])) : NnueNetwork.random(256, 1);
+        List<List<ChessMove>> lines = randomLines();
+        NnueEvaluator nnue = new NnueEvaluator(network);
+        System.out.printf("NNUE hidden size %d, %s kernels%n", network.getHiddenSize(),
+                nnue.isVectorized() ? "Vector API" : "scalar");
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long moveNanos = run(lines, null);
+            report("piece-square", run(lines, new PieceSquareEvaluator()) - moveNanos);
+            report("NNUE", run(lines, nnue) - moveNanos);
+        }
+    }
+
+    private static void report(String name, long nanos) {
+        long evaluations = (long) LINES * LINE_LENGTH;
+        System.out.printf("%-13s %,12.0f evaluations/s%n", name, evaluations / (Math.max(nanos, 1) / 1e9));
+    }
+
+    private static long run(List<List<ChessMove>> lines, Evaluator evaluator) {
+        ChessGame game = new ChessGame();
+        long sink = 0;
+        long start = System.nanoTime();
+        for (List<ChessMove> line : lines) {
+            for (ChessMove move : line) {
+                game.makeLegalMove(move);
+                if (evaluator != null) {
+                    sink += evaluator.evaluate(game);
+                }
+            }
+            for (int i = 0; i < line.size(); i++) {
+                game.undoMove();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return elapsed;
+    }
+
+    private static List<List<ChessMove>> randomLines() {
+        Random random = new Random(36);
+        List<List<ChessMove>> lines = new ArrayList<>();
+        while (lines.size() < LINES) {
+            ChessGame game = new ChessGame();
+            List<ChessMove> line = new ArrayList<>();
+            while (line.size() < LINE_LENGTH) {
+                List<ChessMove> moves = new ArrayList<>(game.allValidMoves());
+                if (moves.isEmpty()) {
+                    break;
+                }
+                ChessMove move = moves.get(random.nextInt(moves.size()));
+                game.makeLegalMove(move);
+                line.add(move);
+            }
+            if (line.size() == LINE_LENGTH) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
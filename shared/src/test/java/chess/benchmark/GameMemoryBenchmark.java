@@ -0,0 +1,57 @@
+package chess.benchmark;
+
+import chess.ActiveGameStore;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares how much memory a live game costs as a heap ChessGame and as a
+ * slot in an ActiveGameStore.
+ * <p>
+ * Run with: java -cp shared/target/classes:shared/target/test-classes chess.benchmark.GameMemoryBenchmark [games]
+ */
+public class GameMemoryBenchmark {
+
+    public static void main(String[] args) throws InvalidMoveException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        ChessMove opening = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+
+        long before = usedHeap();
+        List<ChessGame> heapGames = new ArrayList<>(games);
+        for (int i = 0; i < games; i++) {
+            ChessGame game = new ChessGame();
+            game.makeMove(opening);
+            heapGames.add(game);
+        }
+        long heapBytes = usedHeap() - before - (long) games * 4;
+        System.out.printf("heap ChessGame:  %,d games, %,d bytes/game%n", heapGames.size(), heapBytes / games);
+        heapGames = null;
+
+        before = usedHeap();
+        ActiveGameStore store = new ActiveGameStore(games);
+        ChessGame scratch = new ChessGame();
+        long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            int slot = store.allocate();
+            store.makeMove(slot, opening, scratch);
+        }
+        long elapsed = System.nanoTime() - start;
+        long storeHeap = Math.max(0, usedHeap() - before);
+        System.out.printf("ActiveGameStore: %,d games, %d off-heap bytes/game, %,d heap bytes/game%n",
+                store.size(), ActiveGameStore.SLOT_BYTES, storeHeap / games);
+        System.out.printf("ActiveGameStore: %.0f ns per allocate + makeMove%n", (double) elapsed / games);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,35 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.engine.MctsEngine;
+
+/**
+ * Measures MCTS playouts per second from the start position and kiwipete
+ * with one thread and with one thread per core, to see how well playouts
+ * scale with virtual loss spreading the threads out.
+ * <p>
+ * Run with: java -cp shared/target/classes:shared/target/test-classes chess.benchmark.MctsBenchmark [millis]
+ */
+public class MctsBenchmark {
+
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+    };
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 5_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (String fen : POSITIONS) {
+            ChessGame game = Fen.parse(fen);
+            for (int threads : cores > 1 ? new int[]{1, cores} : new int[]{1}) {
+                try (MctsEngine engine = new MctsEngine(1 << 20, threads)) {
+                    MctsEngine.Result result = engine.search(game, 0, millis);
+                    System.out.printf("%-70s %2d threads %,10.0f playouts/s %,9d nodes  best %s%n", fen, threads,
+                            result.playoutsPerSecond(), result.nodes(), result.bestMove());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.PgnWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures how many games per second PgnReader can parse and replay.
+ * <p>
+ * Run with: java -cp shared/target/classes:shared/target/test-classes chess.benchmark.PgnThroughputBenchmark [file.pgn]
+ * <br/>
+ * Point it at a real multi-GB archive for meaningful numbers. With no file it
+ * writes a corpus of random games to a temp file first.
+ */
+public class PgnThroughputBenchmark {
+
+    public static void main(String[] args) throws IOException, InvalidMoveException {
+        Path corpus;
+        if (args.length > 0) {
+            corpus = Path.of(args[0]);
+        } else {
+            corpus = Files.createTempFile("corpus", ".pgn");
+            corpus.toFile().deleteOnExit();
+            writeRandomGames(corpus, 2_000);
+        }
+        long bytes = Files.size(corpus);
+
+        long games = 0;
+        long moves = 0;
+        long illegal = 0;
+        ChessGame game = new ChessGame();
+        long start = System.nanoTime();
+        try (PgnReader reader = PgnReader.open(corpus)) {
+            for (PgnGame pgn = reader.next(); pgn != null; pgn = reader.next()) {
+                games++;
+                try {
+                    moves += pgn.replay(game).size();
+                } catch (InvalidMoveException ex) {
+                    illegal++;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%,d games, %,d moves, %,d illegal, %.1f MB in %.2f s%n",
+                games, moves, illegal, bytes / 1e6, seconds);
+        System.out.printf("%,.0f games/s, %,.0f moves/s, %.1f MB/s%n",
+                games / seconds, moves / seconds, bytes / 1e6 / seconds);
+    }
+
+    private static void writeRandomGames(Path file, int count) throws IOException, InvalidMoveException {
+        Random random = new Random(240);
+        ChessGame game = new ChessGame();
+        try (PgnWriter writer = new PgnWriter(new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8)))) {
+            for (int i = 0; i < count; i++) {
+                game.reset();
+                for (int ply = 0; ply < 120 && !game.isDraw(); ply++) {
+                    List<ChessMove> legal = new ArrayList<>(game.allValidMoves());
+                    if (legal.isEmpty()) {
+                        break;
+                    }
+                    game.makeMove(legal.get(random.nextInt(legal.size())));
+                }
+                writer.writeGame(Map.of("Event", "Random " + i), game.getMoveHistory(), "*");
+            }
+        }
+    }
+}
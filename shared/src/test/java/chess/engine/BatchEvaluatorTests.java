@@ -0,0 +1,54 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BatchEvaluatorTests {
+
+    @Test
+    @DisplayName("Batch Scores Match The Piece-Square Evaluator")
+    public void matchesSingleEvaluator() {
+        // an odd count so the vector loop leaves a tail for the scalar loop
+        PositionBatch batch = new PositionBatch(101);
+        List<ChessGame> games = new ArrayList<>();
+        Random random = new Random(36);
+        ChessGame game = new ChessGame();
+        while (batch.size() < batch.capacity()) {
+            List<ChessMove> moves = new ArrayList<>(game.allValidMoves());
+            if (moves.isEmpty()) {
+                game = new ChessGame();
+                continue;
+            }
+            game.makeLegalMove(moves.get(random.nextInt(moves.size())));
+            batch.add(game);
+            games.add(Fen.parse(Fen.toFen(game)));
+        }
+
+        PieceSquareEvaluator single = new PieceSquareEvaluator();
+        for (BatchEvaluator evaluator : new BatchEvaluator[]{new BatchEvaluator(), new BatchEvaluator(false)}) {
+            int[] scores = new int[batch.size()];
+            evaluator.evaluate(batch, scores);
+            for (int i = 0; i < scores.length; i++) {
+                Assertions.assertEquals(single.evaluate(games.get(i)), scores[i], "position " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Full Batch Is Rejected")
+    public void full() {
+        PositionBatch batch = new PositionBatch(1);
+        batch.add(new ChessGame());
+        Assertions.assertThrows(IllegalStateException.class, () -> batch.add(new ChessGame()));
+        batch.clear();
+        Assertions.assertEquals(0, batch.add(new ChessGame()));
+    }
+}
@@ -0,0 +1,92 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class MateSolverTests {
+
+    @Test
+    @DisplayName("Unique Mate In One")
+    public void mateInOne() {
+        ChessGame game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        MateSolver.Solution solution = new MateSolver(16).solve(game, 1);
+        Assertions.assertEquals(MateSolver.Status.PROVEN, solution.status());
+        Assertions.assertEquals(1, solution.mateIn());
+        Assertions.assertTrue(solution.isUnique());
+        Assertions.assertEquals(List.of(move(1, 1, 8, 1)), solution.lines().get(0));
+    }
+
+    @Test
+    @DisplayName("Every Solution Of A Mate In Two Is Reported")
+    public void mateInTwoSeveralSolutions() {
+        ChessGame game = Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        String before = Fen.toFen(game);
+        MateSolver.Solution solution = new MateSolver(18).solve(game, 2);
+        Assertions.assertEquals(before, Fen.toFen(game));
+        Assertions.assertEquals(MateSolver.Status.PROVEN, solution.status());
+        Assertions.assertEquals(2, solution.mateIn());
+        Assertions.assertFalse(solution.isUnique());
+        List<ChessMove> firstMoves = solution.lines().stream().map(line -> line.get(0)).toList();
+        Assertions.assertTrue(firstMoves.contains(move(6, 3, 6, 2)), firstMoves.toString());
+        Assertions.assertTrue(firstMoves.contains(move(6, 3, 7, 3)), firstMoves.toString());
+        for (List<ChessMove> line : solution.lines()) {
+            assertEndsInMate(game, line);
+        }
+    }
+
+    @Test
+    @DisplayName("Mate In Three Is Found And Each Line Ends In Mate")
+    public void mateInThree() {
+        ChessGame game = Fen.parse("2k5/8/1K6/8/8/8/8/7R w - - 0 1");
+        MateSolver.Solution solution = new MateSolver(20).solve(game, 3);
+        Assertions.assertEquals(MateSolver.Status.PROVEN, solution.status());
+        Assertions.assertEquals(2 * solution.mateIn() - 1, solution.lines().get(0).size());
+        for (List<ChessMove> line : solution.lines()) {
+            Assertions.assertTrue(line.size() <= 5, line.toString());
+            assertEndsInMate(game, line);
+        }
+    }
+
+    @Test
+    @DisplayName("No Mate Is Disproven")
+    public void disproven() {
+        MateSolver solver = new MateSolver(16);
+        Assertions.assertEquals(MateSolver.Status.DISPROVEN,
+                solver.solve(Fen.parse("k7/8/8/8/8/8/8/K6R w - - 0 1"), 1).status());
+        Assertions.assertEquals(MateSolver.Status.DISPROVEN,
+                solver.solve(Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 1 1"), 3).status());
+        Assertions.assertEquals(MateSolver.Status.DISPROVEN,
+                solver.solve(Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1"), 1).status());
+    }
+
+    @Test
+    @DisplayName("Node Budget Gives Up")
+    public void budget() {
+        MateSolver solver = new MateSolver(16);
+        solver.setMaxNodes(50);
+        MateSolver.Solution solution = solver.solve(
+                Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"), 4);
+        Assertions.assertEquals(MateSolver.Status.UNKNOWN, solution.status());
+    }
+
+    private static void assertEndsInMate(ChessGame game, List<ChessMove> line) {
+        for (ChessMove move : line) {
+            game.makeLegalMove(move);
+        }
+        Assertions.assertTrue(game.isInCheckmate(game.getTeamTurn()), line.toString());
+        for (int i = 0; i < line.size(); i++) {
+            game.undoMove();
+        }
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
@@ -0,0 +1,59 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MctsEngineTests {
+
+    @Test
+    @DisplayName("Finds A Back Rank Mate")
+    public void backRankMate() {
+        try (MctsEngine engine = new MctsEngine(200_000, 2)) {
+            engine.setPlayoutDepth(10);
+            MctsEngine.Result result = engine.search(Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 3_000, 0);
+            Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                    result.bestMove());
+            Assertions.assertEquals(3_000, result.playouts());
+            Assertions.assertTrue(result.winRate() > 0.9, "win rate " + result.winRate());
+        }
+    }
+
+    @Test
+    @DisplayName("Search Leaves The Game Unchanged")
+    public void gameUnchanged() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        String before = Fen.toFen(game);
+        try (MctsEngine engine = new MctsEngine(50_000, 2)) {
+            MctsEngine.Result result = engine.search(game, 500, 0);
+            Assertions.assertNotNull(result.bestMove());
+            Assertions.assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+        }
+        Assertions.assertEquals(before, Fen.toFen(game));
+    }
+
+    @Test
+    @DisplayName("Full Tree Keeps Playing Out")
+    public void smallTree() {
+        try (MctsEngine engine = new MctsEngine(100, 3)) {
+            engine.setPlayoutDepth(20);
+            MctsEngine.Result result = engine.search(new ChessGame(), 1_000, 0);
+            Assertions.assertEquals(1_000, result.playouts());
+            Assertions.assertTrue(result.nodes() <= 100);
+            Assertions.assertNotNull(result.bestMove());
+        }
+    }
+
+    @Test
+    @DisplayName("No Move When Checkmated")
+    public void checkmated() {
+        try (MctsEngine engine = new MctsEngine(1_000, 1)) {
+            MctsEngine.Result result = engine.search(Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 1 1"), 0, 50);
+            Assertions.assertNull(result.bestMove());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class NnueEvaluatorTests {
+
+    private static final NnueNetwork NETWORK = NnueNetwork.random(64, 7);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Incremental Accumulators Match A Fresh Evaluation")
+    public void incrementalMatchesRefresh() {
+        NnueEvaluator incremental = new NnueEvaluator(NETWORK);
+        Random random = new Random(35);
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < 200; ply++) {
+            List<ChessMove> moves = new ArrayList<>(game.allValidMoves());
+            if (moves.isEmpty()) {
+                game = new ChessGame();
+                continue;
+            }
+            game.makeLegalMove(moves.get(random.nextInt(moves.size())));
+            if (random.nextInt(4) == 0) {
+                game.undoMove();
+            }
+            int expected = new NnueEvaluator(NETWORK, NnueKernels.scalar()).evaluate(Fen.parse(Fen.toFen(game)));
+            Assertions.assertEquals(expected, incremental.evaluate(game), Fen.toFen(game));
+        }
+    }
+
+    @Test
+    @DisplayName("Two Evaluators Can Follow One Board")
+    public void sharedBoard() throws Exception {
+        NnueEvaluator first = new NnueEvaluator(NETWORK);
+        NnueEvaluator second = new NnueEvaluator(NETWORK, NnueKernels.scalar());
+        ChessGame game = new ChessGame();
+        first.evaluate(game);
+        second.evaluate(game);
+        Assertions.assertTrue(game.getBoard().hasListener(first));
+        Assertions.assertTrue(game.getBoard().hasListener(second));
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        int expected = new NnueEvaluator(NETWORK, NnueKernels.scalar()).evaluate(Fen.parse(Fen.toFen(game)));
+        Assertions.assertEquals(expected, first.evaluate(game));
+        Assertions.assertEquals(expected, second.evaluate(game));
+
+        first.evaluate(new ChessGame());
+        Assertions.assertFalse(game.getBoard().hasListener(first));
+        Assertions.assertTrue(game.getBoard().hasListener(second));
+    }
+
+    @Test
+    @DisplayName("Both Sides Are Scored The Same Way")
+    public void mirrored() {
+        NnueEvaluator evaluator = new NnueEvaluator(NETWORK);
+        int white = evaluator.evaluate(Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"));
+        int black = evaluator.evaluate(Fen.parse("r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1"));
+        Assertions.assertEquals(white, black);
+    }
+
+    @Test
+    @DisplayName("Saved Network Loads Back The Same")
+    public void saveAndLoad() throws IOException {
+        Path file = directory.resolve("net.nnue");
+        NETWORK.save(file);
+        ChessGame game = Fen.parse("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2");
+        Assertions.assertEquals(new NnueEvaluator(NETWORK).evaluate(game), NnueEvaluator.load(file).evaluate(game));
+    }
+
+    @Test
+    @DisplayName("Vector And Scalar Kernels Agree")
+    public void kernelsAgree() {
+        NnueKernels best = NnueKernels.best();
+        NnueKernels scalar = NnueKernels.scalar();
+        Random random = new Random(1);
+        short[] weights = new short[200];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (short) (random.nextInt(200) - 100);
+        }
+        short[] vectorAccumulator = new short[96];
+        short[] scalarAccumulator = new short[96];
+        best.add(vectorAccumulator, weights, 3);
+        scalar.add(scalarAccumulator, weights, 3);
+        best.subtract(vectorAccumulator, weights, 50);
+        scalar.subtract(scalarAccumulator, weights, 50);
+        Assertions.assertArrayEquals(scalarAccumulator, vectorAccumulator);
+        Assertions.assertEquals(scalar.clippedDot(scalarAccumulator, weights, 7, 255),
+                best.clippedDot(vectorAccumulator, weights, 7, 255));
+    }
+}
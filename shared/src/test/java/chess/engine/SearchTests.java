@@ -0,0 +1,56 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SearchTests {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() {
+        ChessGame game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        Search.Result result = new Search(new PieceSquareEvaluator()).search(game, 3, 0);
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        Assertions.assertEquals(Search.MATE_SCORE - 1, result.score());
+        Assertions.assertEquals(Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), game);
+    }
+
+    @Test
+    @DisplayName("Takes A Hanging Queen")
+    public void winsMaterial() {
+        ChessGame game = Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        Search.Result result = new Search(new PieceSquareEvaluator()).search(game, 2, 0);
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null), result.bestMove());
+        Assertions.assertTrue(result.score() > 300);
+        Assertions.assertTrue(result.nodes() > 0);
+    }
+
+    @Test
+    @DisplayName("Evaluation Is Symmetric")
+    public void symmetricEvaluation() {
+        PieceSquareEvaluator evaluator = new PieceSquareEvaluator();
+        Assertions.assertEquals(0, evaluator.evaluate(new ChessGame()));
+        ChessGame white = Fen.parse("4k3/8/8/8/8/8/3P4/4K3 w - - 0 1");
+        ChessGame black = Fen.parse("4k3/3p4/8/8/8/8/8/4K3 b - - 0 1");
+        Assertions.assertEquals(evaluator.evaluate(white), evaluator.evaluate(black));
+    }
+
+    @Test
+    @DisplayName("Node Limit Stops The Search")
+    public void nodeLimit() {
+        Search search = new Search(new PieceSquareEvaluator());
+        search.setMaxNodes(5_000);
+        Search.Result result = search.search(new ChessGame(), 20, 0);
+
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.nodes() <= 5_000, "nodes " + result.nodes());
+        Assertions.assertTrue(result.depth() < 20);
+    }
+}
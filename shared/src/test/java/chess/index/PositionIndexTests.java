@@ -0,0 +1,120 @@
+package chess.index;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class PositionIndexTests {
+
+    @TempDir
+    Path directory;
+
+    private static final ChessMove E4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+    private static final ChessMove D4 = new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null);
+    private static final ChessMove E5 = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+
+    @Test
+    @DisplayName("Finds Games Before And After Flush")
+    public void findAcrossFlush() throws IOException, InvalidMoveException {
+        try (PositionIndex index = new PositionIndex(directory)) {
+            long afterE4 = play(index, 1, E4, E5);
+            Assertions.assertEquals(List.of(1), index.find(afterE4));
+
+            index.flush();
+            Assertions.assertEquals(0, index.getPendingCount());
+            play(index, 7, E4);
+            play(index, 3, D4);
+
+            Assertions.assertEquals(List.of(1, 7), index.find(afterE4));
+            Assertions.assertEquals(List.of(1, 3, 7), index.find(new ChessGame().getPositionKey()));
+            index.flush();
+            Assertions.assertEquals(List.of(1, 7), index.find(afterE4));
+            Assertions.assertEquals(List.of(), index.find(12345L));
+        }
+    }
+
+    @Test
+    @DisplayName("Unflushed Positions Survive Reopening")
+    public void replaysLog() throws IOException, InvalidMoveException {
+        long afterE4;
+        PositionIndex index = new PositionIndex(directory);
+        afterE4 = play(index, 4, E4);
+        index.sync();
+        // drop the index without flushing, as if the process died
+
+        try (PositionIndex reopened = new PositionIndex(directory)) {
+            Assertions.assertEquals(2, reopened.getPendingCount());
+            Assertions.assertEquals(List.of(4), reopened.find(afterE4));
+        }
+        try (PositionIndex reopened = new PositionIndex(directory)) {
+            Assertions.assertEquals(0, reopened.getPendingCount());
+            Assertions.assertEquals(2, reopened.getIndexedCount());
+            Assertions.assertEquals(List.of(4), reopened.find(afterE4));
+        }
+        index.close();
+    }
+
+    @Test
+    @DisplayName("A Torn Log Entry Is Cut Off Before Appending")
+    public void tornLog() throws IOException {
+        PositionIndex index = new PositionIndex(directory);
+        index.add(1, 11L);
+        index.sync();
+        // half a pair, as if the process died while writing it
+        Files.write(directory.resolve("positions.log"), new byte[]{1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+        PositionIndex reopened = new PositionIndex(directory);
+        Assertions.assertEquals(1, reopened.getPendingCount());
+        reopened.add(2, 22L);
+        reopened.sync();
+        Assertions.assertEquals(24, Files.size(directory.resolve("positions.log")));
+
+        try (PositionIndex again = new PositionIndex(directory)) {
+            Assertions.assertEquals(2, again.getPendingCount());
+            Assertions.assertEquals(List.of(1), again.find(11L));
+            Assertions.assertEquals(List.of(2), again.find(22L));
+        }
+        reopened.close();
+        index.close();
+    }
+
+    @Test
+    @DisplayName("A Position Is Stored Once Per Game")
+    public void noDuplicates() throws IOException {
+        try (PositionIndex index = new PositionIndex(directory)) {
+            index.add(2, 99L);
+            index.add(2, 99L);
+            index.flush();
+            index.add(2, 99L);
+            index.flush();
+            Assertions.assertEquals(1, index.getIndexedCount());
+            Assertions.assertEquals(List.of(2), index.find(99L));
+        }
+    }
+
+    // plays moves from the start, recording each position, and returns the key after the first move
+    private static long play(PositionIndex index, int gameId, ChessMove... moves) throws IOException, InvalidMoveException {
+        ChessGame game = new ChessGame();
+        index.add(gameId, game);
+        long firstKey = 0;
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+            index.add(gameId, game);
+            if (firstKey == 0) {
+                firstKey = game.getPositionKey();
+            }
+        }
+        return firstKey;
+    }
+}
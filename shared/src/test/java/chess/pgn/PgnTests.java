@@ -0,0 +1,111 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+public class PgnTests {
+
+    private static final String OPERA_GAME = """
+            [Event "Paris"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 d6 3. d4 Bg4 {This is a weak move already.} 4. dxe5 Bxf3
+            5. Qxf3 dxe5 6. Bc4 Nf6 7. Qb3 qe7 (7... Qd7 8. Qxb7) 8. Nc3 c6 9. Bg5 $1 b5
+            10. Nxb5 cxb5 11. Bxb5+ Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7 14. Rd1 Qe6
+            15. Bxd7+ Nxd7 16. Qb8+ Nxb8 17. Rd8# 1-0
+
+            [Event "Second"]
+            [Result "*"]
+
+            1.e4 d5 2.exd5 Qxd5 *
+            """;
+
+    @Test
+    @DisplayName("Read And Replay Games")
+    public void readGames() throws IOException, InvalidMoveException {
+        String pgn = OPERA_GAME.replace("qe7", "Qe7");
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)))) {
+            PgnGame opera = reader.next();
+            Assertions.assertNotNull(opera);
+            Assertions.assertEquals("Paul Morphy", opera.getTag("White"));
+            Assertions.assertEquals("1-0", opera.getResult());
+            Assertions.assertEquals(33, opera.getMoves().size());
+            Assertions.assertEquals("O-O-O", opera.getMoves().get(22));
+
+            ChessGame game = new ChessGame();
+            opera.replay(game);
+            Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+
+            PgnGame second = reader.next();
+            Assertions.assertEquals(List.of("e4", "d5", "exd5", "Qxd5"), second.getMoves());
+            Assertions.assertEquals(13, second.getLineNumber());
+            Assertions.assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Illegal Move Reports Its Location")
+    public void illegalMove() throws IOException {
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(OPERA_GAME.getBytes(StandardCharsets.UTF_8)))) {
+            PgnGame opera = reader.next();
+            InvalidMoveException ex = Assertions.assertThrows(InvalidMoveException.class,
+                    () -> opera.replay(new ChessGame()));
+            Assertions.assertTrue(ex.getMessage().contains("ply 14 (qe7)"), ex.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Written Games Read Back The Same")
+    public void writeGames() throws IOException, InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String san : List.of("e4", "f5", "exf5", "g5", "fxg6", "Nc6", "gxh7", "Bg7", "hxg8=N", "Rxg8")) {
+            game.makeMove(San.parse(game, san));
+        }
+        List<ChessMove> moves = game.getMoveHistory();
+
+        StringWriter text = new StringWriter();
+        new PgnWriter(text).writeGame(Map.of("White", "A", "Black", "B"), moves, "*");
+        Assertions.assertTrue(text.toString().contains("3. fxg6 Nc6"), text.toString());
+        Assertions.assertTrue(text.toString().contains("5. hxg8=N Rxg8"), text.toString());
+
+        PgnGame read = new PgnReader(new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8))).next();
+        Assertions.assertEquals(moves, read.replay(new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("SAN Disambiguation And FEN")
+    public void disambiguation() throws InvalidMoveException {
+        ChessGame game = Fen.parse("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+        ChessMove rookMove = new ChessMove(new ChessPosition(1, 1), new ChessPosition(1, 4), null);
+        Assertions.assertEquals("Rad1", San.toSan(game, rookMove));
+        Assertions.assertEquals(rookMove, San.parse(game, "Rad1"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.parse(game, "Rd1"));
+
+        ChessGame castling = Fen.parse("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        Assertions.assertEquals(ChessPiece.PieceType.KING,
+                castling.getBoard().getPiece(San.parse(castling, "O-O").getStartPosition()).getPieceType());
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1", Fen.toFen(castling));
+        ChessGame kingStep = Fen.parse("4k3/8/8/8/8/8/8/5K2 w - - 0 1");
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.parse(kingStep, "O-O"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - -1 1"));
+        Assertions.assertEquals(Fen.START_POSITION, Fen.toFen(new ChessGame()));
+    }
+}
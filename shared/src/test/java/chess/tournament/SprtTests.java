@@ -0,0 +1,50 @@
+package chess.tournament;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class SprtTests {
+
+    @Test
+    @DisplayName("Scores Convert To Elo And Back")
+    public void elo() {
+        Assertions.assertEquals(0, new MatchScore(10, 10, 10).elo(), 1e-9);
+        Assertions.assertEquals(190.85, new MatchScore(3, 0, 1).elo(), 0.01);
+        Assertions.assertEquals(0.75, MatchScore.toScore(MatchScore.toElo(0.75)), 1e-12);
+        Assertions.assertEquals(Double.POSITIVE_INFINITY, new MatchScore(5, 0, 0).elo());
+        Assertions.assertEquals(Double.POSITIVE_INFINITY, new MatchScore(5, 0, 0).eloError());
+        Assertions.assertTrue(new MatchScore(400, 200, 400).eloError() < new MatchScore(40, 20, 40).eloError());
+        Assertions.assertEquals(new MatchScore(1, 1, 1), MatchScore.EMPTY.plus(1).plus(0.5).plus(0));
+    }
+
+    @Test
+    @DisplayName("Clear Results Settle The Test")
+    public void decides() {
+        Sprt sprt = new Sprt(0, 10, 0.05, 0.05);
+        Assertions.assertEquals(-2.944, sprt.getLowerBound(), 0.001);
+        Assertions.assertEquals(2.944, sprt.getUpperBound(), 0.001);
+        Assertions.assertEquals(Sprt.Decision.ACCEPT_H1, sprt.decide(new MatchScore(600, 200, 200)));
+        Assertions.assertEquals(Sprt.Decision.CONTINUE, sprt.decide(new MatchScore(300, 400, 300)));
+        Assertions.assertEquals(Sprt.Decision.ACCEPT_H0, sprt.decide(new MatchScore(1500, 2000, 1500)));
+        Assertions.assertEquals(Sprt.Decision.CONTINUE, sprt.decide(new MatchScore(0, 30, 0)));
+    }
+
+    @Test
+    @DisplayName("Simulated Stronger Engine Is Accepted")
+    public void simulatedMatch() {
+        Sprt sprt = new Sprt(0, 20, 0.05, 0.05);
+        Random random = new Random(40);
+        double winChance = 0.40;
+        double lossChance = 0.26;
+        MatchScore score = MatchScore.EMPTY;
+        while (sprt.decide(score) == Sprt.Decision.CONTINUE && score.games() < 100_000) {
+            double roll = random.nextDouble();
+            score = score.plus(roll < winChance ? 1 : roll < winChance + lossChance ? 0 : 0.5);
+        }
+        Assertions.assertEquals(Sprt.Decision.ACCEPT_H1, sprt.decide(score), score.toString());
+        Assertions.assertTrue(Math.abs(score.elo() - 49) < 2 * score.eloError(), score.elo() + " +/- " + score.eloError());
+    }
+}
@@ -0,0 +1,119 @@
+package chess.training;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.PackedPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TrainingFileTests {
+
+    private static final String[] FENS = {
+            Fen.START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 57 1",
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Packed Positions Unpack To The Same FEN")
+    public void packRoundTrip() {
+        for (String fen : FENS) {
+            ChessGame game = Fen.parse(fen);
+            ChessGame unpacked = PackedPosition.of(game).toGame();
+            Assertions.assertEquals(Fen.toFen(game), Fen.toFen(unpacked));
+            Assertions.assertEquals(game.getPositionKey(), unpacked.getPositionKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Records Read Back In Order, Also After Appending")
+    public void writeAndRead() throws IOException {
+        Path file = directory.resolve("data.bin");
+        List<TrainingRecord> written = new ArrayList<>();
+        try (TrainingWriter writer = new TrainingWriter(file)) {
+            for (int i = 0; i < 30_000; i++) {
+                TrainingRecord record = record(FENS[i % FENS.length], i - 15_000, (byte) (i % 3 - 1));
+                writer.write(record);
+                written.add(record);
+            }
+        }
+        try (TrainingWriter writer = new TrainingWriter(file)) {
+            Assertions.assertEquals(written.size(), writer.getCount());
+            TrainingRecord record = record(FENS[1], 40_000, (byte) 1);
+            writer.write(record);
+            written.add(record);
+        }
+        Assertions.assertEquals(written, readAll(file));
+        Assertions.assertEquals(32_767, written.get(written.size() - 1).score());
+    }
+
+    @Test
+    @DisplayName("Partial Record At The End Is Dropped")
+    public void partialRecord() throws IOException {
+        Path file = directory.resolve("data.bin");
+        try (TrainingWriter writer = new TrainingWriter(file)) {
+            writer.write(record(FENS[0], 10, (byte) 0));
+            writer.write(record(FENS[2], 20, (byte) 0));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 5);
+        }
+        Assertions.assertEquals(1, readAll(file).size());
+        try (TrainingWriter writer = new TrainingWriter(file)) {
+            writer.write(record(FENS[3], 30, (byte) -1));
+        }
+        List<TrainingRecord> read = readAll(file);
+        Assertions.assertEquals(2, read.size());
+        Assertions.assertEquals(30, read.get(1).score());
+    }
+
+    @Test
+    @DisplayName("Other Files Are Rejected")
+    public void notATrainingFile() throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.writeString(file, "not a training file");
+        Assertions.assertThrows(IOException.class, () -> TrainingReader.open(file));
+        Assertions.assertThrows(IOException.class, () -> new TrainingWriter(file));
+    }
+
+    @Test
+    @DisplayName("Self-Play Labels Every Position With The Game Result")
+    public void selfPlay() {
+        List<TrainingRecord> records = new SelfPlay(1, 8, 39).playGame();
+        Assertions.assertFalse(records.isEmpty());
+        byte result = records.get(0).result();
+        for (TrainingRecord record : records) {
+            Assertions.assertEquals(result, record.result());
+            ChessGame game = record.position().toGame();
+            Assertions.assertFalse(game.isInCheck(game.getTeamTurn()));
+        }
+    }
+
+    private static TrainingRecord record(String fen, int score, byte result) {
+        return new TrainingRecord(PackedPosition.of(Fen.parse(fen)), TrainingRecord.clampScore(score), result);
+    }
+
+    private static List<TrainingRecord> readAll(Path file) throws IOException {
+        List<TrainingRecord> records = new ArrayList<>();
+        try (TrainingReader reader = TrainingReader.open(file)) {
+            for (TrainingRecord record = reader.next(); record != null; record = reader.next()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,122 @@
+package tools;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.InvalidMoveException;
+import chess.index.PositionIndex;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.San;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Builds and queries a {@link PositionIndex} from PGN archives.
+ * <p>
+ * Building replays every game once and records each position it reached.
+ * A game's ID comes from its GameId tag, or is its number in the archive,
+ * counting from 1, when there is no such tag.
+ * <br/>
+ * <code>
+ * java -cp tools/target/tools-jar-with-dependencies.jar tools.PositionIndexer build index/ games.pgn archive/
+ * <br/>
+ * java -cp tools/target/tools-jar-with-dependencies.jar tools.PositionIndexer query index/ "&lt;fen&gt;"
+ * </code>
+ */
+public class PositionIndexer {
+
+    // merge into the sorted file every few million positions to bound memory
+    private static final int FLUSH_EVERY = 4_000_000;
+
+    private final PositionIndex index;
+    private final ChessGame game = new ChessGame();
+    private int gameCount;
+    private long positionCount;
+    private long skippedCount;
+
+    public PositionIndexer(PositionIndex index) {
+        this.index = index;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3 || !(args[0].equals("build") || args[0].equals("query"))) {
+            System.out.println("Usage: PositionIndexer build <index dir> <file.pgn | directory>...");
+            System.out.println("       PositionIndexer query <index dir> <fen>");
+            System.exit(2);
+        }
+
+        try (PositionIndex index = new PositionIndex(Path.of(args[1]))) {
+            if (args[0].equals("query")) {
+                long start = System.nanoTime();
+                List<Integer> ids = index.find(Fen.parse(args[2]).getPositionKey());
+                double millis = (System.nanoTime() - start) / 1e6;
+                System.out.printf("%,d games in %.2f ms%n", ids.size(), millis);
+                for (int id : ids) {
+                    System.out.println(id);
+                }
+                return;
+            }
+
+            PositionIndexer indexer = new PositionIndexer(index);
+            long start = System.nanoTime();
+            for (int i = 2; i < args.length; i++) {
+                for (Path file : pgnFiles(Path.of(args[i]))) {
+                    indexer.indexFile(file);
+                }
+            }
+            index.flush();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Indexed %,d games (%,d positions) in %.2f s; %,d games stopped at an illegal move%n",
+                    indexer.gameCount, indexer.positionCount, seconds, indexer.skippedCount);
+        }
+    }
+
+    /**
+     * Records every position of every game in a PGN file
+     *
+     * @param file the PGN file to index
+     * @throws IOException if the file cannot be read or the index written
+     */
+    public void indexFile(Path file) throws IOException {
+        try (PgnReader reader = PgnReader.open(file)) {
+            for (PgnGame pgn = reader.next(); pgn != null; pgn = reader.next()) {
+                gameCount++;
+                String tag = pgn.getTag("GameId");
+                indexGame(tag == null ? gameCount : Integer.parseInt(tag.trim()), pgn);
+                if (index.getPendingCount() >= FLUSH_EVERY) {
+                    index.flush();
+                }
+            }
+        }
+    }
+
+    private void indexGame(int gameId, PgnGame pgn) throws IOException {
+        pgn.setUp(game);
+        index.add(gameId, game);
+        positionCount++;
+        for (String san : pgn.getMoves()) {
+            try {
+                game.makeMove(San.parse(game, san));
+            } catch (InvalidMoveException ex) {
+                // the positions up to the bad move are still worth finding
+                skippedCount++;
+                return;
+            }
+            index.add(gameId, game);
+            positionCount++;
+        }
+    }
+
+    private static List<Path> pgnFiles(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter(file -> file.toString().endsWith(".pgn")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package tools;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Replays every game in a set of PGN files through ChessGame.makeMove and
+ * reports illegal moves, results that do not match the final position and
+ * games that cannot be set up at all, such as ones with a malformed FEN tag.
+ * <p>
+ * Each file is parsed on the calling thread and handed to a fork-join pool
+ * in batches. Every worker thread keeps one ChessGame and resets it for each
+ * game, so replaying allocates no boards.
+ * <br/>
+ * <code>
+ * java -jar tools/target/tools-jar-with-dependencies.jar [--threads N] games.pgn archive/
+ * </code>
+ */
+public class ReplayValidator {
+
+    private static final int BATCH_SIZE = 256;
+    private static final int MAX_REPORTED = 100;
+
+    private final ForkJoinPool pool;
+    private final Semaphore inFlight;
+    private final ThreadLocal<ChessGame> games = ThreadLocal.withInitial(ChessGame::new);
+
+    private final LongAdder gameCount = new LongAdder();
+    private final LongAdder moveCount = new LongAdder();
+    private final LongAdder illegalCount = new LongAdder();
+    private final LongAdder mismatchCount = new LongAdder();
+    private final LongAdder invalidCount = new LongAdder();
+    private final List<String> problems = Collections.synchronizedList(new ArrayList<>());
+
+    public ReplayValidator(int threads) {
+        this.pool = new ForkJoinPool(threads);
+        // keeps the reader from racing ahead of the workers on huge files
+        this.inFlight = new Semaphore(threads * 4);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                files.addAll(pgnFiles(Path.of(args[i])));
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("Usage: ReplayValidator [--threads N] <file.pgn | directory>...");
+            System.exit(2);
+        }
+
+        ReplayValidator validator = new ReplayValidator(threads);
+        long start = System.nanoTime();
+        for (Path file : files) {
+            validator.validate(file);
+        }
+        validator.awaitCompletion();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        validator.printReport(System.out, seconds, threads);
+        System.exit(validator.getProblemCount() == 0 ? 0 : 1);
+    }
+
+    /**
+     * Queues every game in a file for replay. Returns once the file has been
+     * read; the last batches may still be running.
+     *
+     * @param file the PGN file to check
+     * @throws IOException          if the file cannot be read
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public void validate(Path file) throws IOException, InterruptedException {
+        try (PgnReader reader = PgnReader.open(file)) {
+            List<PgnGame> batch = new ArrayList<>(BATCH_SIZE);
+            // games are numbered from 1 in each file
+            int firstNumber = 1;
+            for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+                batch.add(game);
+                if (batch.size() == BATCH_SIZE) {
+                    submit(file, batch, firstNumber);
+                    firstNumber += BATCH_SIZE;
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(file, batch, firstNumber);
+            }
+        }
+    }
+
+    /**
+     * Waits for every queued game to be replayed
+     */
+    public void awaitCompletion() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    public long getProblemCount() {
+        return illegalCount.sum() + mismatchCount.sum() + invalidCount.sum();
+    }
+
+    public void printReport(PrintStream out, double seconds, int threads) {
+        long gamesChecked = gameCount.sum();
+        out.printf("Replayed %,d games (%,d moves) in %.2f s on %d threads: %,.0f games/s, %,.0f moves/s%n",
+                gamesChecked, moveCount.sum(), seconds, threads, gamesChecked / seconds, moveCount.sum() / seconds);
+        out.printf("Illegal moves: %,d%nResult mismatches: %,d%nInvalid games: %,d%n", illegalCount.sum(),
+                mismatchCount.sum(), invalidCount.sum());
+        synchronized (problems) {
+            for (String problem : problems) {
+                out.println("  " + problem);
+            }
+        }
+        if (getProblemCount() > problems.size()) {
+            out.printf("  ... and %,d more%n", getProblemCount() - problems.size());
+        }
+    }
+
+    private void submit(Path file, List<PgnGame> batch, int firstNumber) throws InterruptedException {
+        inFlight.acquire();
+        pool.execute(() -> {
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    check(file, firstNumber + i, batch.get(i));
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void check(Path file, int number, PgnGame pgn) {
+        ChessGame game = games.get();
+        gameCount.increment();
+        try {
+            moveCount.add(pgn.replay(game).size());
+        } catch (InvalidMoveException ex) {
+            illegalCount.increment();
+            report(file + ": " + ex.getMessage());
+            return;
+        } catch (RuntimeException ex) {
+            // a bad FEN or SetUp tag, caught here so the rest of the batch is still checked
+            invalidCount.increment();
+            report(file + ":" + pgn.getLineNumber() + ": game " + number + ": " + ex.getMessage());
+            return;
+        }
+        String mismatch = checkResult(pgn, game);
+        if (mismatch != null) {
+            mismatchCount.increment();
+            report(file + ":" + pgn.getLineNumber() + ": " + mismatch);
+        }
+    }
+
+    // a game may end by resignation at any point, so only positions that force a result are checked
+    private static String checkResult(PgnGame pgn, ChessGame game) {
+        ChessGame.TeamColor toMove = game.getTeamTurn();
+        String result = pgn.getResult();
+        if (game.isInCheckmate(toMove)) {
+            String expected = toMove == ChessGame.TeamColor.WHITE ? "0-1" : "1-0";
+            return result.equals(expected) ? null : toMove + " is checkmated but the result is " + result;
+        }
+        if (game.isInStalemate(toMove)) {
+            return result.equals("1/2-1/2") ? null : toMove + " is stalemated but the result is " + result;
+        }
+        List<String> moves = pgn.getMoves();
+        if (!moves.isEmpty() && moves.get(moves.size() - 1).endsWith("#")) {
+            return "last move " + moves.get(moves.size() - 1) + " is marked as mate but is not checkmate";
+        }
+        return null;
+    }
+
+    private void report(String problem) {
+        synchronized (problems) {
+            if (problems.size() < MAX_REPORTED) {
+                problems.add(problem);
+            }
+        }
+    }
+
+    private static List<Path> pgnFiles(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter(file -> file.toString().endsWith(".pgn")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package tools;
+
+import chess.training.SelfPlay;
+import chess.training.TrainingRecord;
+import chess.training.TrainingWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates labeled positions for training evaluators by self-play.
+ * <p>
+ * Every thread plays its own games and appends them to its own file,
+ * selfplay-&lt;thread&gt;.bin in the output directory, so threads share
+ * nothing but a counter of games left and throughput grows with the number
+ * of cores. Running again with the same directory appends to the files.
+ * The files are read back with {@link chess.training.TrainingReader}.
+ * <br/>
+ * <code>
+ * java -cp tools/target/tools-jar-with-dependencies.jar tools.SelfPlayGenerator data/ 10000 [threads] [depth] [random plies]
+ * </code>
+ */
+public class SelfPlayGenerator {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: SelfPlayGenerator <output dir> <games> [threads] [depth] [random plies]");
+            System.exit(2);
+        }
+        Path directory = Path.of(args[0]);
+        int games = Integer.parseInt(args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int randomPlies = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        Files.createDirectories(directory);
+
+        AtomicInteger gamesLeft = new AtomicInteger(games);
+        AtomicLong positions = new AtomicLong();
+        long seed = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Path file = directory.resolve("selfplay-" + t + ".bin");
+            SelfPlay selfPlay = new SelfPlay(depth, randomPlies, seed + t);
+            workers.add(pool.submit(() -> {
+                play(selfPlay, file, gamesLeft, positions);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%,d games, %,d positions in %.1f s with %d threads: %,.0f positions/s%n",
+                games, positions.get(), seconds, threads, positions.get() / seconds);
+    }
+
+    private static void play(SelfPlay selfPlay, Path file, AtomicInteger gamesLeft, AtomicLong positions)
+            throws IOException {
+        try (TrainingWriter writer = new TrainingWriter(file)) {
+            while (gamesLeft.getAndDecrement() > 0) {
+                List<TrainingRecord> records = selfPlay.playGame();
+                for (TrainingRecord record : records) {
+                    writer.write(record);
+                }
+                positions.addAndGet(records.size());
+            }
+        }
+    }
+}
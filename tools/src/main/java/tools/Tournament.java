@@ -0,0 +1,316 @@
+package tools;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MovePicker;
+import chess.engine.Evaluator;
+import chess.engine.MctsEngine;
+import chess.engine.NnueEvaluator;
+import chess.engine.NnueNetwork;
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.Search;
+import chess.pgn.PgnWriter;
+import chess.tournament.MatchScore;
+import chess.tournament.Sprt;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays two engine configurations against each other to tell whether a
+ * change made the engine stronger, not just faster.
+ * <p>
+ * Games run in parallel, one per thread and by default one thread per core.
+ * Games come in pairs that start from the same random opening with colors
+ * swapped, so a lopsided opening does not favor either engine. Each move is
+ * limited by the configuration's depth, nodes or milliseconds; node limits
+ * play the same however loaded the machine is. After every game the score,
+ * the Elo difference with its 95% error bar and, if one was asked for, the
+ * SPRT log-likelihood ratio are printed, and the match stops early once the
+ * SPRT decides.
+ * <p>
+ * An engine is written as comma separated settings:
+ * <pre>
+ * name=new          the name shown in results and PGN
+ * engine=alphabeta  alphabeta (default) or mcts
+ * eval=pst          pst (default) or the path of an NNUE weights file, for alphabeta
+ * depth=4           search depth, default 4, or unlimited when nodes or millis is set
+ * nodes=20000       nodes per move; playouts per move for mcts
+ * millis=100        milliseconds per move
+ * </pre>
+ * <code>
+ * java -cp tools/target/tools-jar-with-dependencies.jar tools.Tournament "name=nnue,eval=net.nnue,nodes=20000"
+ * "name=pst,nodes=20000" --games 2000 --sprt 0,10 --pgn match.pgn
+ * </code>
+ */
+public class Tournament {
+
+    // games still going after this many plies are drawn
+    private static final int MAX_PLIES = 400;
+
+    private final EngineSpec first;
+    private final EngineSpec second;
+    private final int maxGames;
+    private final int openingPlies;
+    private final long seed;
+    private final Sprt sprt;
+    private final PgnWriter pgn;
+
+    private final AtomicInteger started = new AtomicInteger();
+    private volatile boolean decided;
+    private MatchScore score = MatchScore.EMPTY;
+    private int finished;
+
+    /**
+     * How one engine plays
+     *
+     * @param name   the name shown in results
+     * @param engine alphabeta or mcts
+     * @param eval   pst or an NNUE weights file
+     * @param depth  the search depth
+     * @param nodes  nodes or playouts per move, or 0 for no limit
+     * @param millis milliseconds per move, or 0 for no limit
+     */
+    record EngineSpec(String name, String engine, String eval, int depth, long nodes, long millis) {
+
+        static EngineSpec parse(String text) {
+            Map<String, String> settings = new HashMap<>();
+            for (String setting : text.split(",")) {
+                String[] pair = setting.split("=", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Invalid engine setting: " + setting);
+                }
+                settings.put(pair[0].trim(), pair[1].trim());
+            }
+            long nodes = Long.parseLong(settings.getOrDefault("nodes", "0"));
+            long millis = Long.parseLong(settings.getOrDefault("millis", "0"));
+            int defaultDepth = nodes > 0 || millis > 0 ? 64 : 4;
+            String engine = settings.getOrDefault("engine", "alphabeta");
+            if (!engine.equals("alphabeta") && !engine.equals("mcts")) {
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+            }
+            if (engine.equals("mcts") && nodes <= 0 && millis <= 0) {
+                throw new IllegalArgumentException("An mcts engine needs nodes or millis");
+            }
+            return new EngineSpec(settings.getOrDefault("name", text), engine, settings.getOrDefault("eval", "pst"),
+                    Integer.parseInt(settings.getOrDefault("depth", String.valueOf(defaultDepth))), nodes, millis);
+        }
+
+        /**
+         * @return a new player; players are not thread safe
+         */
+        Player newPlayer(Map<String, NnueNetwork> networks) throws IOException {
+            if (engine.equals("mcts")) {
+                MctsEngine mcts = new MctsEngine(1 << 20, 1);
+                return new Player() {
+                    @Override
+                    public ChessMove move(ChessGame game) {
+                        return mcts.search(game, nodes, millis).bestMove();
+                    }
+
+                    @Override
+                    public void close() {
+                        mcts.close();
+                    }
+                };
+            }
+            Evaluator evaluator;
+            if (eval.equals("pst")) {
+                evaluator = new PieceSquareEvaluator();
+            } else {
+                NnueNetwork network;
+                synchronized (networks) {
+                    network = networks.get(eval);
+                    if (network == null) {
+                        network = NnueNetwork.load(Path.of(eval));
+                        networks.put(eval, network);
+                    }
+                }
+                evaluator = new NnueEvaluator(network);
+            }
+            Search search = new Search(evaluator);
+            search.setMaxNodes(nodes);
+            return game -> search.search(game, depth, millis).bestMove();
+        }
+    }
+
+    /**
+     * Picks moves for one side of a game
+     */
+    interface Player extends AutoCloseable {
+        ChessMove move(ChessGame game);
+
+        @Override
+        default void close() {
+        }
+    }
+
+    Tournament(EngineSpec first, EngineSpec second, int maxGames, int openingPlies, long seed, Sprt sprt,
+               PgnWriter pgn) {
+        this.first = first;
+        this.second = second;
+        this.maxGames = maxGames;
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+        this.sprt = sprt;
+        this.pgn = pgn;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: Tournament <engine> <engine> [--games n] [--threads n] [--sprt elo0,elo1[,alpha,beta]]");
+            System.out.println("                  [--pgn file] [--opening-plies n] [--seed n]");
+            System.exit(2);
+        }
+        int games = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int openingPlies = 8;
+        long seed = System.nanoTime();
+        Sprt sprt = null;
+        Path pgnPath = null;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games" -> games = Integer.parseInt(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--opening-plies" -> openingPlies = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--pgn" -> pgnPath = Path.of(value);
+                case "--sprt" -> {
+                    String[] bounds = value.split(",");
+                    sprt = new Sprt(Double.parseDouble(bounds[0]), Double.parseDouble(bounds[1]),
+                            bounds.length > 2 ? Double.parseDouble(bounds[2]) : 0.05,
+                            bounds.length > 3 ? Double.parseDouble(bounds[3]) : 0.05);
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        EngineSpec first = EngineSpec.parse(args[0]);
+        EngineSpec second = EngineSpec.parse(args[1]);
+        Writer pgnOut = pgnPath == null ? null : Files.newBufferedWriter(pgnPath,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        try (PgnWriter pgn = pgnOut == null ? null : new PgnWriter(pgnOut)) {
+            System.out.printf("%s vs %s, up to %,d games on %d threads%s%n", first.name(), second.name(), games,
+                    threads, sprt == null ? "" : ", " + sprt);
+            Tournament tournament = new Tournament(first, second, games, openingPlies, seed, sprt, pgn);
+            MatchScore result = tournament.run(threads);
+            System.out.printf("Final: %s %s %s, Elo %s%n", first.name(), result, second.name(), eloText(result));
+            if (sprt != null) {
+                System.out.println("SPRT: " + switch (sprt.decide(result)) {
+                    case ACCEPT_H1 -> "H1 accepted, " + first.name() + " is stronger";
+                    case ACCEPT_H0 -> "H0 accepted, " + first.name() + " is not stronger";
+                    case CONTINUE -> "no decision";
+                });
+            }
+        }
+    }
+
+    /**
+     * Plays until the game limit is reached or the SPRT decides
+     *
+     * @param threads how many games to play at once
+     * @return the first engine's score
+     */
+    MatchScore run(int threads) throws Exception {
+        Map<String, NnueNetwork> networks = new HashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                try (Player firstPlayer = first.newPlayer(networks); Player secondPlayer = second.newPlayer(networks)) {
+                    for (int game = started.getAndIncrement(); game < maxGames && !decided;
+                         game = started.getAndIncrement()) {
+                        playGame(game, firstPlayer, secondPlayer);
+                    }
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        synchronized (this) {
+            return score;
+        }
+    }
+
+    // game 2k and 2k + 1 share an opening; the first engine is white in even games
+    private void playGame(int number, Player firstPlayer, Player secondPlayer) throws Exception {
+        boolean firstIsWhite = number % 2 == 0;
+        ChessGame game = opening(new Random(seed + number / 2));
+        List<ChessMove> moves = new ArrayList<>(game.getMoveHistory());
+        double whitePoints = 0.5;
+        while (moves.size() < MAX_PLIES && !game.isDraw()) {
+            boolean whiteToMove = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            Player player = whiteToMove == firstIsWhite ? firstPlayer : secondPlayer;
+            ChessMove move = new MovePicker(game, null).next() == null ? null : player.move(game);
+            if (move == null) {
+                if (game.isInCheck(game.getTeamTurn())) {
+                    whitePoints = whiteToMove ? 0 : 1;
+                }
+                break;
+            }
+            game.makeLegalMove(move);
+            moves.add(move);
+        }
+
+        double firstPoints = firstIsWhite ? whitePoints : 1 - whitePoints;
+        String result = whitePoints == 1 ? "1-0" : whitePoints == 0 ? "0-1" : "1/2-1/2";
+        synchronized (this) {
+            score = score.plus(firstPoints);
+            finished++;
+            String llr = sprt == null ? "" : String.format(", LLR %.2f [%.2f, %.2f]", sprt.llr(score),
+                    sprt.getLowerBound(), sprt.getUpperBound());
+            System.out.printf("Game %d: %s vs %s %s | %s, Elo %s%s%n", finished,
+                    firstIsWhite ? first.name() : second.name(), firstIsWhite ? second.name() : first.name(),
+                    result, score, eloText(score), llr);
+            if (sprt != null && sprt.decide(score) != Sprt.Decision.CONTINUE) {
+                decided = true;
+            }
+            if (pgn != null) {
+                Map<String, String> tags = new LinkedHashMap<>();
+                tags.put("Event", "Tournament");
+                tags.put("Round", String.valueOf(number + 1));
+                tags.put("White", firstIsWhite ? first.name() : second.name());
+                tags.put("Black", firstIsWhite ? second.name() : first.name());
+                pgn.writeGame(tags, moves, result);
+                pgn.flush();
+            }
+        }
+    }
+
+    private ChessGame opening(Random random) {
+        ChessGame game = new ChessGame();
+        while (game.getMoveHistory().size() < openingPlies) {
+            List<ChessMove> moves = MovePicker.legalMoves(game);
+            if (moves.isEmpty()) {
+                game = new ChessGame();
+                continue;
+            }
+            game.makeLegalMove(moves.get(random.nextInt(moves.size())));
+        }
+        return game;
+    }
+
+    private static String eloText(MatchScore score) {
+        return String.format("%.1f +/- %.1f", score.elo(), score.eloError());
+    }
+}
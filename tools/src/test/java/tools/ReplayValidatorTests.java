@@ -0,0 +1,78 @@
+package tools;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ReplayValidatorTests {
+
+    private static final String SCHOLARS_MATE = """
+            [Event "mate"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Bc4 Nc6 3. Qh5 Nf6 4. Qxf7# 1-0
+
+            """;
+    private static final String BAD_FEN = """
+            [Event "bad setup"]
+            [SetUp "1"]
+            [FEN "not a position"]
+            [Result "*"]
+
+            1. e4 *
+
+            """;
+    private static final String ILLEGAL = """
+            [Event "illegal"]
+            [Result "*"]
+
+            1. e5 *
+
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Clean Games Report No Problems")
+    public void clean() throws Exception {
+        ReplayValidator validator = validate(SCHOLARS_MATE + SCHOLARS_MATE);
+        Assertions.assertEquals(0, validator.getProblemCount());
+        Assertions.assertTrue(report(validator).contains("Replayed 2 games (14 moves)"), report(validator));
+    }
+
+    @Test
+    @DisplayName("A Malformed FEN Is Reported And The Batch Goes On")
+    public void malformedFen() throws Exception {
+        ReplayValidator validator = validate(SCHOLARS_MATE + BAD_FEN + SCHOLARS_MATE + ILLEGAL);
+        Assertions.assertEquals(2, validator.getProblemCount());
+        String report = report(validator);
+        Assertions.assertTrue(report.contains("Replayed 4 games"), report);
+        Assertions.assertTrue(report.contains("Invalid games: 1"), report);
+        Assertions.assertTrue(report.contains("Illegal moves: 1"), report);
+        Assertions.assertTrue(report.contains(": game 2: "), report);
+    }
+
+    private ReplayValidator validate(String pgn) throws IOException, InterruptedException {
+        Path file = directory.resolve("games.pgn");
+        Files.writeString(file, pgn);
+        ReplayValidator validator = new ReplayValidator(2);
+        validator.validate(file);
+        validator.awaitCompletion();
+        return validator;
+    }
+
+    private static String report(ReplayValidator validator) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        validator.printReport(new PrintStream(bytes, true, StandardCharsets.UTF_8), 1, 2);
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,342 @@
+package uci;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.MovePicker;
+import chess.engine.Evaluator;
+import chess.engine.NnueEvaluator;
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.Search;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Speaks the Universal Chess Interface (UCI), so GUIs, match runners and
+ * tuning tools can drive the shared engine.
+ * <p>
+ * Commands are read a line at a time. position sets up the game, from the
+ * start position or a FEN, and plays the listed moves. go starts a
+ * {@link Search} on its own thread, which prints an info line with the
+ * depth, score, nodes and nodes per second after every iteration and a
+ * bestmove line at the end; stop ends it early. go perft n counts the leaf
+ * nodes n plies down for each legal move, for benchmarking and checking the
+ * move generator against other engines. It runs on the search thread too,
+ * so stop can end it.
+ * <p>
+ * Supported options: NnueFile, the path of NNUE weights to evaluate with
+ * instead of the piece-square tables.
+ */
+public class UciEngine {
+
+    private static final String NAME = "CS240 Chess";
+    // moves assumed left in the game when the GUI does not say
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final int MAX_DEPTH = 64;
+    private static final String PROMOTION_LETTERS = "qrbn";
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private ChessGame game = new ChessGame();
+    private Search search = new Search(new PieceSquareEvaluator());
+    private Thread searchThread;
+    // set by stop while perft runs
+    private volatile boolean perftStopped;
+
+    public UciEngine(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Handles commands until quit, which stops any search, or the end of the
+     * input, which lets a running search finish, so piped scripts get their
+     * bestmove
+     *
+     * @throws IOException if the input cannot be read
+     */
+    public void run() throws IOException {
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            if (!handle(line.trim())) {
+                stopSearch();
+                return;
+            }
+        }
+        joinSearch();
+    }
+
+    /**
+     * Handles one command
+     *
+     * @param line the command
+     * @return false once the command was quit
+     */
+    boolean handle(String line) {
+        String[] words = line.split("\\s+");
+        switch (words[0]) {
+            case "uci" -> {
+                out.println("id name " + NAME);
+                out.println("id author CS240");
+                out.println("option name NnueFile type string default <empty>");
+                out.println("uciok");
+            }
+            case "isready" -> out.println("readyok");
+            case "ucinewgame" -> {
+                stopSearch();
+                game = new ChessGame();
+            }
+            case "setoption" -> setOption(line);
+            case "position" -> {
+                stopSearch();
+                position(words);
+            }
+            case "go" -> {
+                stopSearch();
+                try {
+                    go(words);
+                } catch (NumberFormatException ex) {
+                    out.println("info string Invalid number in: " + line);
+                }
+            }
+            case "stop" -> stopSearch();
+            case "quit" -> {
+                return false;
+            }
+            case "" -> {
+            }
+            default -> out.println("info string Unknown command: " + line);
+        }
+        return true;
+    }
+
+    private void setOption(String line) {
+        int nameAt = line.indexOf(" name ");
+        int valueAt = line.indexOf(" value ");
+        if (nameAt < 0) {
+            return;
+        }
+        String name = line.substring(nameAt + 6, valueAt < 0 ? line.length() : valueAt).trim();
+        String value = valueAt < 0 ? "" : line.substring(valueAt + 7).trim();
+        if (!name.equalsIgnoreCase("NnueFile")) {
+            out.println("info string Unknown option: " + name);
+            return;
+        }
+        stopSearch();
+        try {
+            Evaluator evaluator = value.isEmpty() || value.equals("<empty>")
+                    ? new PieceSquareEvaluator() : NnueEvaluator.load(Path.of(value));
+            search = new Search(evaluator);
+        } catch (IOException ex) {
+            out.println("info string Could not load " + value + ": " + ex.getMessage());
+        }
+    }
+
+    private void position(String[] words) {
+        int at = 1;
+        ChessGame next;
+        try {
+            if (words.length > 1 && words[1].equals("startpos")) {
+                next = new ChessGame();
+                at = 2;
+            } else if (words.length > 1 && words[1].equals("fen")) {
+                StringBuilder fen = new StringBuilder();
+                for (at = 2; at < words.length && !words[at].equals("moves"); at++) {
+                    fen.append(words[at]).append(' ');
+                }
+                next = Fen.parse(fen.toString());
+            } else {
+                out.println("info string Invalid position command");
+                return;
+            }
+        } catch (IllegalArgumentException ex) {
+            out.println("info string " + ex.getMessage());
+            return;
+        }
+        if (at < words.length && words[at].equals("moves")) {
+            for (at++; at < words.length; at++) {
+                ChessMove move = parseMove(next, words[at]);
+                if (move == null) {
+                    out.println("info string Illegal move: " + words[at]);
+                    return;
+                }
+                next.makeLegalMove(move);
+            }
+        }
+        game = next;
+    }
+
+    private void go(String[] words) {
+        int depth = MAX_DEPTH;
+        long nodes = 0;
+        long moveTime = 0;
+        long[] time = new long[2];
+        long[] increment = new long[2];
+        int movesToGo = DEFAULT_MOVES_TO_GO;
+        for (int i = 1; i < words.length; i++) {
+            String value = i + 1 < words.length ? words[i + 1] : "0";
+            switch (words[i]) {
+                case "perft" -> {
+                    int perftDepth = Integer.parseInt(value);
+                    ChessGame counted = Fen.parse(Fen.toFen(game));
+                    perftStopped = false;
+                    searchThread = new Thread(() -> divide(counted, perftDepth), "uci-perft");
+                    searchThread.start();
+                    return;
+                }
+                case "depth" -> depth = Integer.parseInt(value);
+                case "nodes" -> nodes = Long.parseLong(value);
+                case "movetime" -> moveTime = Long.parseLong(value);
+                case "wtime" -> time[0] = Long.parseLong(value);
+                case "btime" -> time[1] = Long.parseLong(value);
+                case "winc" -> increment[0] = Long.parseLong(value);
+                case "binc" -> increment[1] = Long.parseLong(value);
+                case "movestogo" -> movesToGo = Math.max(1, Integer.parseInt(value));
+                default -> {
+                    // infinite, ponder and anything unknown: no limit from this word
+                    continue;
+                }
+            }
+            i++;
+        }
+        int side = game.getTeamTurn().ordinal();
+        if (moveTime == 0 && time[side] > 0) {
+            // spend an even share of the clock, keeping a little back for lag
+            moveTime = Math.max(1, Math.min(time[side] / movesToGo + increment[side] / 2, time[side] - 50));
+        }
+
+        // every command that changes the game stops the search first, so it can search the game itself
+        ChessGame searched = game;
+        Search current = search;
+        // cleared here rather than on the new thread, so a stop sent right after go is not lost
+        current.reset();
+        current.setMaxNodes(nodes);
+        current.setListener(this::info);
+        int maxDepth = depth;
+        long millis = moveTime;
+        searchThread = new Thread(() -> {
+            Search.Result result = current.search(searched, maxDepth, millis);
+            out.println("bestmove " + (result.bestMove() == null ? "0000" : toUci(result.bestMove())));
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    private void info(Search.Result result) {
+        long nps = result.nodes() * 1000 / Math.max(result.millis(), 1);
+        // checkmated or stalemated at the root, there is no move to show
+        String pv = result.bestMove() == null ? "" : " pv " + toUci(result.bestMove());
+        out.printf("info depth %d score %s nodes %d nps %d time %d%s%n", result.depth(), score(result.score()),
+                result.nodes(), nps, result.millis(), pv);
+    }
+
+    private void divide(ChessGame counted, int depth) {
+        long start = System.nanoTime();
+        // the position itself is the one leaf 0 plies down
+        long total = depth <= 0 ? 1 : 0;
+        List<ChessMove> moves = depth <= 0 ? List.of() : MovePicker.legalMoves(counted);
+        for (ChessMove move : moves) {
+            counted.makeLegalMove(move);
+            long count = perft(counted, depth - 1);
+            counted.undoMove();
+            if (perftStopped) {
+                out.println("info string perft stopped");
+                return;
+            }
+            out.println(toUci(move) + ": " + count);
+            total += count;
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        out.println();
+        out.printf("info nodes %d nps %d time %d%n", total, total * 1000 / Math.max(millis, 1), millis);
+        out.println("Nodes searched: " + total);
+    }
+
+    private long perft(ChessGame game, int depth) {
+        if (depth <= 0 || perftStopped) {
+            return 1;
+        }
+        long count = 0;
+        MovePicker picker = new MovePicker(game, null);
+        for (ChessMove move = picker.next(); move != null; move = picker.next()) {
+            if (depth == 1) {
+                count++;
+                continue;
+            }
+            game.makeLegalMove(move);
+            count += perft(game, depth - 1);
+            game.undoMove();
+        }
+        return count;
+    }
+
+    private void stopSearch() {
+        if (searchThread != null) {
+            search.stop();
+            perftStopped = true;
+            joinSearch();
+        }
+    }
+
+    private void joinSearch() {
+        if (searchThread == null) {
+            return;
+        }
+        try {
+            searchThread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    private static String score(int score) {
+        if (Math.abs(score) >= Search.MATE_SCORE - MAX_DEPTH * 2) {
+            int plies = Search.MATE_SCORE - Math.abs(score);
+            int moves = (plies + 1) / 2;
+            return "mate " + (score > 0 ? moves : -moves);
+        }
+        return "cp " + score;
+    }
+
+    /**
+     * @param move a move
+     * @return the move in UCI's long algebraic form, such as e2e4 or e7e8q
+     */
+    static String toUci(ChessMove move) {
+        StringBuilder text = new StringBuilder();
+        text.append(square(move.getStartPosition())).append(square(move.getEndPosition()));
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        for (int i = 0; promotion != null && i < PROMOTION_TYPES.length; i++) {
+            if (PROMOTION_TYPES[i] == promotion) {
+                text.append(PROMOTION_LETTERS.charAt(i));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * @param game the position the move is played in
+     * @param text the move in long algebraic form
+     * @return the legal move it names, or null if there is none
+     */
+    static ChessMove parseMove(ChessGame game, String text) {
+        for (ChessMove move : MovePicker.legalMoves(game)) {
+            if (toUci(move).equals(text)) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    private static String square(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
+    }
+}
@@ -0,0 +1,106 @@
+package uci;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+public class UciEngineTests {
+
+    @Test
+    @DisplayName("Handshake")
+    public void handshake() throws IOException {
+        List<String> lines = run("uci", "isready", "quit");
+        Assertions.assertTrue(lines.get(0).startsWith("id name "));
+        Assertions.assertTrue(lines.contains("uciok"));
+        Assertions.assertEquals("readyok", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Search Streams Info And Ends With Bestmove")
+    public void search() throws IOException {
+        List<String> lines = run("position startpos moves e2e4 e7e5 g1f3", "go depth 3", "isready");
+        List<String> info = lines.stream().filter(line -> line.startsWith("info depth")).toList();
+        Assertions.assertEquals(3, info.size(), lines.toString());
+        Assertions.assertTrue(info.get(2).contains(" nps "), info.get(2));
+        String bestMove = lines.stream().filter(line -> line.startsWith("bestmove ")).findFirst().orElseThrow();
+        Assertions.assertNotNull(UciEngine.parseMove(
+                Fen.parse("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2"), bestMove.substring(9)));
+    }
+
+    @Test
+    @DisplayName("Mate Scores Are Reported As Mate")
+    public void mate() throws IOException {
+        List<String> lines = run("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", "go depth 2");
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.contains("score mate 1")), lines.toString());
+        Assertions.assertTrue(lines.contains("bestmove a1a8"), lines.toString());
+    }
+
+    @Test
+    @DisplayName("Stalemate Reports No Move")
+    public void stalemate() throws IOException {
+        List<String> lines = run("position fen 7k/5Q2/6K1/8/8/8/8/8 b - - 0 1", "go depth 2");
+        Assertions.assertTrue(lines.contains("bestmove 0000"), lines.toString());
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.startsWith("info depth 1 score cp 0")),
+                lines.toString());
+    }
+
+    @Test
+    @DisplayName("Perft Divides Node Counts By Move")
+    public void perft() throws IOException {
+        List<String> lines = run("position fen r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "go perft 2");
+        Assertions.assertEquals("Nodes searched: 2039", lines.get(lines.size() - 1));
+        Assertions.assertTrue(lines.contains("e1g1: 43"), lines.toString());
+        Assertions.assertEquals(48, lines.stream().filter(line -> line.matches("[a-h][1-8][a-h][1-8][qrbn]?: \\d+")).count());
+    }
+
+    @Test
+    @DisplayName("Stop Right After Go Infinite Ends The Search")
+    public void stopInfinite() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            for (int i = 0; i < 20; i++) {
+                List<String> lines = run("position startpos", "go infinite", "stop", "quit");
+                Assertions.assertTrue(lines.stream().anyMatch(line -> line.startsWith("bestmove ")), lines.toString());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Stop Ends Perft And Perft 0 Counts One Node")
+    public void stopPerft() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            List<String> stopped = run("position startpos", "go perft 10", "stop", "quit");
+            Assertions.assertTrue(stopped.contains("info string perft stopped"), stopped.toString());
+            Assertions.assertEquals("Nodes searched: 1", run("position startpos", "go perft 0").getLast());
+        });
+    }
+
+    @Test
+    @DisplayName("Moves Use Long Algebraic Notation")
+    public void moveText() {
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 5), new ChessPosition(8, 5), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals("e7e8n", UciEngine.toUci(promotion));
+        Assertions.assertNull(UciEngine.parseMove(Fen.parse(Fen.START_POSITION), "e2e5"));
+        Assertions.assertNotNull(UciEngine.parseMove(Fen.parse(Fen.START_POSITION), "g1f3"));
+    }
+
+    private static List<String> run(String... commands) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        new UciEngine(new BufferedReader(new StringReader(String.join("\n", commands))), out).run();
+        return bytes.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}